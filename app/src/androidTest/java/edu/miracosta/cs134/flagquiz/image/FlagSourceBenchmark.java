@@ -0,0 +1,152 @@
+package edu.miracosta.cs134.flagquiz.image;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.BuildConfig;
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.JSONLoader;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares decoding every flag of a region one asset file at a time (the default) with cutting
+ * them out of the region's atlas.  Reports the median latency per flag and the bytes the
+ * process read (<code>rchar</code> in /proc/self/io) to logcat under "Flag Quiz".  The atlas
+ * half needs a build with <code>-PflagAtlas=true</code>.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FlagSourceBenchmark {
+
+    private static final String TAG = "Flag Quiz";
+    private static final int ROUNDS = 5;
+
+    private AssetManager mAssets;
+    private List<Country> mCountries;
+    private int mSize;
+
+    @Before
+    public void setUp() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mAssets = context.getAssets();
+        mCountries = JSONLoader.loadCountries(context);
+        mSize = context.getResources().getDisplayMetrics().widthPixels;
+    }
+
+    @Test
+    public void perFile() throws IOException {
+        FlagVariants variants = FlagVariants.read(JSONLoader.mapAsset(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), FlagVariants.ASSET_NAME));
+        for (Region region : Region.values()) {
+            long[] nanos = new long[ROUNDS * count(region)];
+            long bytes = 0;
+            int n = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long before = readBytes();
+                for (Country country : mCountries) {
+                    if (country.getRegion() != region) {
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    Bitmap flag = FlagLoader.decode(mAssets,
+                            variants.resolve(country.getFileName(), mSize, mSize), mSize, mSize, null);
+                    nanos[n++] = System.nanoTime() - start;
+                    assertNotNull(flag);
+                    flag.recycle();
+                }
+                bytes += readBytes() - before;
+            }
+            report("per-file", region, nanos, bytes / ROUNDS);
+        }
+    }
+
+    @Test
+    public void atlas() throws IOException {
+        assumeTrue("Build with -PflagAtlas=true to include the atlases", BuildConfig.FLAG_ATLAS);
+        FlagAtlas table = FlagAtlas.read(JSONLoader.mapAsset(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), FlagAtlas.ASSET_NAME));
+        for (Region region : Region.values()) {
+            long[] nanos = new long[ROUNDS * count(region)];
+            long bytes = 0;
+            int n = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                // Opening the region's atlas is part of the cost, as on a region switch
+                AtlasDecoder decoder = new AtlasDecoder(mAssets, table);
+                long before = readBytes();
+                long start = System.nanoTime();
+                decoder.setRegion(region.getName());
+                long open = System.nanoTime() - start;
+                boolean first = true;
+                for (Country country : mCountries) {
+                    if (country.getRegion() != region) {
+                        continue;
+                    }
+                    start = System.nanoTime();
+                    Bitmap flag = decoder.decode(country.getFileName(), mSize, mSize, null);
+                    nanos[n++] = System.nanoTime() - start + (first ? open : 0);
+                    first = false;
+                    assertNotNull(flag);
+                    flag.recycle();
+                }
+                bytes += readBytes() - before;
+                decoder.close();
+            }
+            report("atlas", region, nanos, bytes / ROUNDS);
+        }
+    }
+
+    private int count(Region region) {
+        int count = 0;
+        for (Country country : mCountries) {
+            if (country.getRegion() == region) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void report(String mode, Region region, long[] nanos, long bytesPerRound) {
+        Arrays.sort(nanos);
+        long total = 0;
+        for (long nano : nanos) {
+            total += nano;
+        }
+        Log.i(TAG, String.format("%s %s: median %d us, p90 %d us, total %d us per region, %d KB read",
+                mode, region, nanos[nanos.length / 2] / 1000, nanos[nanos.length * 9 / 10] / 1000,
+                total / ROUNDS / 1000, bytesPerRound / 1024));
+    }
+
+    /**
+     * @return Bytes this process has read through read() and pread() so far.
+     */
+    private static long readBytes() throws IOException {
+        RandomAccessFile io = new RandomAccessFile("/proc/self/io", "r");
+        try {
+            String line;
+            while ((line = io.readLine()) != null) {
+                if (line.startsWith("rchar:")) {
+                    return Long.parseLong(line.substring(6).trim());
+                }
+            }
+            return 0;
+        } finally {
+            io.close();
+        }
+    }
+}
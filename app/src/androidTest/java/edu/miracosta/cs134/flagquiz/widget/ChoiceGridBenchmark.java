@@ -0,0 +1,269 @@
+package edu.miracosta.cs134.flagquiz.widget;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+import android.widget.Button;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import edu.miracosta.cs134.flagquiz.MainActivity;
+import edu.miracosta.cs134.flagquiz.R;
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.JSONLoader;
+import edu.miracosta.cs134.flagquiz.quiz.FastRandom;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares the frames of a question with the {@link ChoiceGridView} against the layout it
+ * replaced: four rows of two buttons each, hidden with <code>GONE</code> when not used and all
+ * of them rebound on every update.  Both are put in a real window and shown a new question,
+ * then a wrong guess, {@link #QUESTIONS} times.  Reports the median and 90th percentile of
+ * the layout and draw durations of each frame (from <code>FrameMetrics</code>, API 24) and how
+ * many frames needed a layout pass to logcat under "Flag Quiz".
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChoiceGridBenchmark {
+
+    private static final String TAG = "Flag Quiz";
+    private static final int QUESTIONS = 100;
+    private static final int LEGACY_MAX_CHOICES = 8;
+
+    /**
+     * A way of showing answer choices.
+     */
+    private interface Answers {
+        View getView();
+
+        /**
+         * Shows the first <code>count</code> labels, the one at <code>guessed</code> disabled
+         * (none if -1).
+         */
+        void show(String[] labels, int count, int guessed);
+    }
+
+    /**
+     * The former layout and its binding code from <code>MainActivity</code>.
+     */
+    private static class LegacyAnswers implements Answers {
+        private final LinearLayout mView;
+        private final Button[] mButtons = new Button[LEGACY_MAX_CHOICES];
+
+        LegacyAnswers(Activity activity) {
+            LayoutInflater inflater = activity.getLayoutInflater();
+            mView = new LinearLayout(activity);
+            mView.setOrientation(LinearLayout.VERTICAL);
+            for (int row = 0; row < LEGACY_MAX_CHOICES / 2; row++) {
+                LinearLayout rowLayout = new LinearLayout(activity);
+                rowLayout.setOrientation(LinearLayout.HORIZONTAL);
+                for (int column = 0; column < 2; column++) {
+                    Button button = (Button) inflater.inflate(R.layout.choice_button, rowLayout, false);
+                    button.setLines(2);
+                    button.setEllipsize(null);
+                    rowLayout.addView(button, new LinearLayout.LayoutParams(0,
+                            ViewGroup.LayoutParams.MATCH_PARENT, 1));
+                    mButtons[2 * row + column] = button;
+                }
+                mView.addView(rowLayout, new LinearLayout.LayoutParams(
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            }
+        }
+
+        @Override
+        public View getView() {
+            return mView;
+        }
+
+        @Override
+        public void show(String[] labels, int count, int guessed) {
+            for (int i = 0; i < count; i++) {
+                mButtons[i].setVisibility(View.VISIBLE);
+                mButtons[i].setEnabled(i != guessed);
+                mButtons[i].setText(labels[i]);
+            }
+            for (int i = count; i < mButtons.length; i++) {
+                mButtons[i].setVisibility(View.GONE);
+            }
+        }
+    }
+
+    private static class GridAnswers implements Answers {
+        private final ChoiceGridView mView;
+
+        GridAnswers(Activity activity) {
+            mView = new ChoiceGridView(activity);
+        }
+
+        @Override
+        public View getView() {
+            return mView;
+        }
+
+        @Override
+        public void show(String[] labels, int count, int guessed) {
+            mView.setChoiceCount(count);
+            for (int i = 0; i < count; i++) {
+                mView.setChoice(i, labels[i], i != guessed);
+            }
+        }
+    }
+
+    private List<Country> mCountries;
+
+    @Before
+    public void setUp() throws IOException {
+        assumeTrue("FrameMetrics needs API 24", Build.VERSION.SDK_INT >= Build.VERSION_CODES.N);
+        mCountries = JSONLoader.loadCountries(InstrumentationRegistry.getInstrumentation().getTargetContext());
+    }
+
+    @Test
+    public void legacyLayout() throws InterruptedException {
+        for (int choices = 2; choices <= LEGACY_MAX_CHOICES; choices *= 2) {
+            run("legacy", false, choices);
+        }
+    }
+
+    @Test
+    public void choiceGrid() throws InterruptedException {
+        for (int choices = 2; choices <= 8; choices *= 2) {
+            int layouts = run("grid", true, choices);
+            // Only the first question changes the number of buttons
+            assertEquals("layout passes with " + choices + " choices", 1, layouts);
+        }
+        run("grid", true, 12);
+    }
+
+    /**
+     * Plays the questions in a fresh activity.
+     * @return The number of frames that needed a layout pass.
+     */
+    private int run(String name, final boolean grid, final int choices) throws InterruptedException {
+        final Semaphore frames = new Semaphore(0);
+        final long[] frame = new long[2]; // layout and draw of the latest frame, guarded by itself
+        final int[] layouts = new int[1]; // main thread only
+        final Answers[] answers = new Answers[1];
+        final HandlerThread metricsThread = new HandlerThread("FrameMetrics");
+        metricsThread.start();
+
+        ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class);
+        try {
+            scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+                @Override
+                public void perform(MainActivity activity) {
+                    answers[0] = grid ? new GridAnswers(activity) : new LegacyAnswers(activity);
+                    FrameLayout root = new FrameLayout(activity);
+                    root.addView(answers[0].getView(), new FrameLayout.LayoutParams(
+                            ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+                    activity.setContentView(root);
+                    root.getViewTreeObserver().addOnGlobalLayoutListener(
+                            new ViewTreeObserver.OnGlobalLayoutListener() {
+                                @Override
+                                public void onGlobalLayout() {
+                                    layouts[0]++;
+                                }
+                            });
+                    activity.getWindow().addOnFrameMetricsAvailableListener(
+                            new Window.OnFrameMetricsAvailableListener() {
+                                @Override
+                                public void onFrameMetricsAvailable(Window window, FrameMetrics metrics,
+                                                                    int dropCount) {
+                                    synchronized (frame) {
+                                        frame[0] = metrics.getMetric(FrameMetrics.LAYOUT_MEASURE_DURATION);
+                                        frame[1] = metrics.getMetric(FrameMetrics.DRAW_DURATION);
+                                    }
+                                    frames.release();
+                                }
+                            }, new Handler(metricsThread.getLooper()));
+                }
+            });
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+            FastRandom rng = new FastRandom(choices);
+            final String[] labels = new String[choices];
+            long[] layoutNanos = new long[2 * QUESTIONS];
+            long[] drawNanos = new long[2 * QUESTIONS];
+            int measured = 0;
+            for (int question = 0; question < 2 * QUESTIONS; question++) {
+                final boolean first = question == 0;
+                final boolean wrongGuess = question % 2 == 1;
+                if (!wrongGuess) {
+                    for (int i = 0; i < choices; i++) {
+                        labels[i] = mCountries.get(rng.nextInt(mCountries.size())).getName();
+                    }
+                }
+                frames.drainPermits();
+                InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (first) {
+                            layouts[0] = 0;
+                        }
+                        answers[0].show(labels, choices, wrongGuess ? 0 : -1);
+                    }
+                });
+                if (frames.tryAcquire(1, TimeUnit.SECONDS)) {
+                    synchronized (frame) {
+                        layoutNanos[measured] = frame[0];
+                        drawNanos[measured] = frame[1];
+                    }
+                    measured++;
+                }
+            }
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+            final int[] layoutCount = new int[1];
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    layoutCount[0] = layouts[0];
+                }
+            });
+            report(name, choices, Arrays.copyOf(layoutNanos, measured), Arrays.copyOf(drawNanos, measured),
+                    layoutCount[0]);
+            return layoutCount[0];
+        } finally {
+            scenario.moveToState(Lifecycle.State.DESTROYED);
+            metricsThread.quit();
+        }
+    }
+
+    private static void report(String name, int choices, long[] layoutNanos, long[] drawNanos, int layouts) {
+        if (layoutNanos.length == 0) {
+            Log.w(TAG, name + " " + choices + " choices: no frames");
+            return;
+        }
+        Arrays.sort(layoutNanos);
+        Arrays.sort(drawNanos);
+        Log.i(TAG, String.format("%s, %d choices, %d frames: layout median %d us, p90 %d us; "
+                        + "draw median %d us, p90 %d us; %d layout passes",
+                name, choices, layoutNanos.length,
+                layoutNanos[layoutNanos.length / 2] / 1000, layoutNanos[layoutNanos.length * 9 / 10] / 1000,
+                drawNanos[drawNanos.length / 2] / 1000, drawNanos[drawNanos.length * 9 / 10] / 1000,
+                layouts));
+    }
+}
@@ -0,0 +1,35 @@
+package edu.miracosta.cs134.flagquiz;
+
+import android.app.Application;
+
+import edu.miracosta.cs134.flagquiz.metrics.Metrics;
+
+/**
+ * Starts preparing the first quiz as soon as the process starts (see {@link StartupWarmup}),
+ * so it is loaded in parallel with the activity rather than after it.
+ */
+public class FlagQuizApplication extends Application {
+
+    private StartupWarmup mWarmup; // until taken by the first quiz
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Release builds turn metrics on from the launch intent, too late for the warm-up
+        Metrics.setEnabled(BuildConfig.DEBUG);
+        if (BuildConfig.STARTUP_WARMUP) {
+            mWarmup = new StartupWarmup(this);
+            mWarmup.start();
+        }
+    }
+
+    /**
+     * Hands over the warm-up started with the process, once.
+     * @return The warm-up, or null if it was already taken or is turned off in this build.
+     */
+    StartupWarmup takeWarmup() {
+        StartupWarmup warmup = mWarmup;
+        mWarmup = null;
+        return warmup;
+    }
+}
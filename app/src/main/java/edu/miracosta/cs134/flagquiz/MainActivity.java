@@ -2,325 +2,412 @@ package edu.miracosta.cs134.flagquiz;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.os.ConfigurationCompat;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
 
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.content.res.AssetManager;
-import android.graphics.drawable.Drawable;
+import android.graphics.Bitmap;
 import android.os.Bundle;
-import android.os.Handler;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
+import android.view.KeyEvent;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
-import android.widget.Button;
+import android.view.inputmethod.EditorInfo;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.prefs.Preferences;
-
+import edu.miracosta.cs134.flagquiz.history.HistoryStats;
+import edu.miracosta.cs134.flagquiz.metrics.FrameMonitor;
+import edu.miracosta.cs134.flagquiz.metrics.Metric;
+import edu.miracosta.cs134.flagquiz.metrics.Metrics;
 import edu.miracosta.cs134.flagquiz.model.Country;
-import edu.miracosta.cs134.flagquiz.model.JSONLoader;
+import edu.miracosta.cs134.flagquiz.quiz.ChallengeCode;
+import edu.miracosta.cs134.flagquiz.quiz.QuestionChoices;
+import edu.miracosta.cs134.flagquiz.quiz.QuizSession;
+import edu.miracosta.cs134.flagquiz.widget.ChoiceGridView;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "Flag Quiz";
     public static final String REGIONS = "pref_regions"; //
     public static final String CHOICES = "pref_numberOfChoices";
-    private static final int FLAGS_IN_QUIZ = 10;
-
-    // Keep track of the current of choices
-    private int mChoices = 4;
-    // Keep track of the current region selected
-    private String mRegion = "All";
-
-    private Button[] mButtons = new Button[8];
-    private List<Country> mAllCountriesList;  // all the countries loaded from JSON
-    private List<Country> mQuizCountriesList; // countries in current quiz (just 10 of them)
-    private Country mCorrectCountry; // correct country for the current question
-    private int mTotalGuesses; // number of total guesses made
-    private int mCorrectGuesses; // number of correct guesses
-    private SecureRandom rng; // used to randomize the quiz
-    private Handler handler; // used to delay loading next country
+    public static final String DIFFICULTY = "pref_difficulty";
+    public static final String ADAPTIVE = "pref_adaptive";
+    public static final String TYPE_IN = "pref_typeIn";
+    /** Launch extra that turns on the metrics in a release build: <code>am start --ez metrics true</code> */
+    public static final String EXTRA_METRICS = "metrics";
+
+    private QuizViewModel mQuizViewModel; // quiz state, kept across configuration changes
+    private AlertDialog mResultsDialog; // shown at the end of the quiz
 
     private TextView mQuestionNumberTextView; // shows current question #
     private ImageView mFlagImageView; // displays a flag
     private TextView mAnswerTextView; // displays correct answer
+    private ChoiceGridView mChoiceGrid; // one button per answer choice
+    private EditText mAnswerEditText; // typed answer, in the type-in mode
+    private int[] mSuggestions = new int[QuizViewModel.MAX_CHOICES]; // country ids on the buttons when typing
+    private Country mTypedCountry; // country of the question the typed answer is for
 
+    private FrameMonitor mFrameMonitor = new FrameMonitor();
+    private long mCreateTime; // for the time to the first flag, 0 once it has been shown
+    private boolean mAwaitingFirstFlag; // until the first flag of a cold start is shown
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        Metrics.setEnabled(BuildConfig.DEBUG || getIntent().getBooleanExtra(EXTRA_METRICS, false));
+        // Only a cold start counts, not a configuration change
+        if (savedInstanceState == null)
+        {
+            mCreateTime = Metrics.now();
+            mAwaitingFirstFlag = true;
+        }
         super.onCreate(savedInstanceState);
+        long inflateStart = Metrics.start(Metric.STARTUP_INFLATE);
         setContentView(R.layout.activity_main);
-
-        mQuizCountriesList = new ArrayList<>(FLAGS_IN_QUIZ);
-        rng = new SecureRandom();
-        handler = new Handler();
+        Metrics.stop(Metric.STARTUP_INFLATE, inflateStart);
 
         // DONE: Get references to GUI components (textviews and imageview)
         mQuestionNumberTextView = findViewById(R.id.questionNumberTextView);
         mFlagImageView = findViewById(R.id.flagImageView);
         mAnswerTextView = findViewById(R.id.answerTextView);
-
-        // DONE: Put all 4 buttons in the array (mButtons)
-        mButtons[0] = findViewById(R.id.button);
-        mButtons[1] = findViewById(R.id.button2);
-        mButtons[2] = findViewById(R.id.button3);
-        mButtons[3] = findViewById(R.id.button4);
-        mButtons[4] = findViewById(R.id.button5);
-        mButtons[5] = findViewById(R.id.button6);
-        mButtons[6] = findViewById(R.id.button7);
-        mButtons[7] = findViewById(R.id.button8);
+        mAnswerEditText = findViewById(R.id.answerEditText);
+        mChoiceGrid = findViewById(R.id.choiceGrid);
 
         // DONE: Set mQuestionNumberTextView's text to the appropriate strings.xml resource
-        mQuestionNumberTextView.setText(getString(R.string.question, 1, FLAGS_IN_QUIZ));
+        mQuestionNumberTextView.setText(getString(R.string.question, 1, QuizViewModel.FLAGS_IN_QUIZ));
 
-        // DONE: Load all the countries from the JSON file using the JSONLoader
-        try
-        {
-            mAllCountriesList = JSONLoader.loadJSONFromAsset(this);
-        }
-        catch (IOException e)
+        // The grid has no buttons until the countries have been loaded
+        mChoiceGrid.setOnChoiceClickListener(new ChoiceGridView.OnChoiceClickListener()
         {
-            Log.e(TAG, "Error loading from JSON", e);
-        }
+            @Override
+            public void onChoiceClick(int choice)
+            {
+                makeGuess(choice);
+            }
+        });
 
-        // Attach preference listener
-        PreferenceManager.getDefaultSharedPreferences(this).registerOnSharedPreferenceChangeListener(mSharedPreferenceChangeListener);
-        // DONE: Call the method resetQuiz() to start the quiz.
-        resetQuiz();
-    }
+        // In the type-in mode the buttons suggest countries as the answer is typed
+        mAnswerEditText.addTextChangedListener(new TextWatcher()
+        {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after)
+            {
+            }
 
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count)
+            {
+            }
 
-    /**
-     * Sets up and starts a new quiz.
-     */
-    public void resetQuiz()
-    {
-        // DONE: Reset the number of correct guesses made
-        mCorrectGuesses = 0;
+            @Override
+            public void afterTextChanged(Editable s)
+            {
+                QuizSession quiz = mQuizViewModel.getQuiz().getValue();
+                if (quiz != null)
+                    showSuggestions(quiz);
+            }
+        });
+        mAnswerEditText.setOnEditorActionListener(new TextView.OnEditorActionListener()
+        {
+            @Override
+            public boolean onEditorAction(TextView v, int actionId, KeyEvent event)
+            {
+                if (actionId != EditorInfo.IME_ACTION_DONE)
+                    return false;
+                if (!mQuizViewModel.makeTypedGuess(mAnswerEditText.getText()))
+                    Toast.makeText(MainActivity.this, R.string.unknown_country, Toast.LENGTH_SHORT).show();
+                return true;
+            }
+        });
 
-        // DONE: Reset the total number of guesses the user made
-        mTotalGuesses = 0;
+        // Attach preference listener
+        PreferenceManager.getDefaultSharedPreferences(this).registerOnSharedPreferenceChangeListener(mSharedPreferenceChangeListener);
 
-        // DONE: Clear list of quiz countries (for prior games played)
-        mQuizCountriesList.clear();
+        // The quiz lives in a ViewModel: after a configuration change the existing quiz (and its
+        // decoded flag) is rendered again, nothing is reloaded
+        mQuizViewModel = new ViewModelProvider(this,
+                ViewModelProvider.AndroidViewModelFactory.getInstance(getApplication()))
+                .get(QuizViewModel.class);
+        // Country names follow the language of the activity, which may have just changed
+        mQuizViewModel.setLocale(ConfigurationCompat.getLocales(getResources().getConfiguration()).get(0));
 
-        // DONE: Randomly add FLAGS_IN_QUIZ (10) countries from the mAllCountriesList into the mQuizCountriesList
-        Country random;
-        while (mQuizCountriesList.size() < FLAGS_IN_QUIZ)
+        // Flags are decoded at the size of the ImageView
+        mFlagImageView.addOnLayoutChangeListener(new View.OnLayoutChangeListener()
         {
-            random = mAllCountriesList.get(rng.nextInt(mAllCountriesList.size()));
-            if ((!mQuizCountriesList.contains(random)) && (random.getRegion().equals(mRegion) || mRegion.equals("All"))) // if random is not already in list (duplicate check), and add it (duplicate check)
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom)
             {
-                mQuizCountriesList.add(random);
+                mQuizViewModel.setFlagSize(right - left, bottom - top);
             }
+        });
 
-        }
-
-        // DONE: Ensure no duplicate countries (e.g. don't add a country if it's already in mQuizCountriesList)
-
-        // DONE: Start the quiz by calling loadNextFlag
-        loadNextFlag();
+        mQuizViewModel.getQuiz().observe(this, new Observer<QuizSession>()
+        {
+            @Override
+            public void onChanged(QuizSession quiz)
+            {
+                if (quiz != null)
+                    showQuiz(quiz);
+            }
+        });
+        mQuizViewModel.getFlag().observe(this, new Observer<Bitmap>()
+        {
+            @Override
+            public void onChanged(Bitmap flag)
+            {
+                mFlagImageView.setImageBitmap(flag);
+                if (flag != null)
+                {
+                    if (mAwaitingFirstFlag)
+                    {
+                        // Logged by the system as "Fully drawn", see scripts/startup_benchmark.sh
+                        reportFullyDrawn();
+                        mAwaitingFirstFlag = false;
+                    }
+                    if (mCreateTime != 0)
+                    {
+                        Metrics.recordSince(Metric.STARTUP_FIRST_FLAG, mCreateTime);
+                        mCreateTime = 0;
+                    }
+                    mQuizViewModel.onFlagShown();
+                }
+            }
+        });
     }
 
-
     /**
-     * Method initiates the process of loading the next flag for the quiz, showing
-     * the flag's image and then 4 buttons, one of which contains the correct answer.
+     * Sets up and starts a new quiz.
      */
-    private void loadNextFlag()
+    public void resetQuiz()
     {
-        // Setting Buttons back to visible if had previously been made invisible
-        for (int i = 0; i < mButtons.length; i++)
-        {
-            mButtons[i].setVisibility(View.VISIBLE);
-        }
-
-        // DONE: Initialize the mCorrectCountry by removing the item at position 0 in the mQuizCountries
-        mCorrectCountry = mQuizCountriesList.remove(0);
-
-        // DONE: Clear the mAnswerTextView so that it doesn't show text from the previous question
-        mAnswerTextView.setText("");
+        mQuizViewModel.resetQuiz();
+    }
 
+    /**
+     * Shows the current state of the quiz: the question number, the answer buttons (one of
+     * which contains the correct answer), the result of the last guess and, once all the
+     * questions have been answered, the statistics.
+     */
+    private void showQuiz(QuizSession quiz)
+    {
         // DONE: Display current question number in the mQuestionNumberTextView
-        mQuestionNumberTextView.setText(getString(R.string.question, (FLAGS_IN_QUIZ - mQuizCountriesList.size()), FLAGS_IN_QUIZ));
+        mQuestionNumberTextView.setText(getString(R.string.question, quiz.getQuestionNumber(), quiz.getQuestionCount()));
 
-        // DONE: Use AssetManager to load next image from assets folder
-        AssetManager am = getAssets();
-
-        // DONE: Get an InputStream to the asset representing the next flag
-        try
+        if (mQuizViewModel.isTypeIn())
         {
-            InputStream stream = am.open(mCorrectCountry.getFileName());
-            Drawable image = Drawable.createFromStream(stream, mCorrectCountry.getName());
-            mFlagImageView.setImageDrawable(image);
+            mAnswerEditText.setVisibility(View.VISIBLE);
+            mAnswerEditText.setEnabled(!quiz.isAnswered());
+            if (mTypedCountry != quiz.getCorrectCountry())
+            {
+                // A new question starts with an empty answer (this also shows the suggestions)
+                mTypedCountry = quiz.getCorrectCountry();
+                mAnswerEditText.setText("");
+            }
+            showSuggestions(quiz);
         }
-        catch (IOException e)
+        else
         {
-            Log.e(TAG, "Error loading image from file: " + mCorrectCountry.getFileName(), e);
-        }
-        // DONE (above): and try to use the InputStream to create a Drawable
-        // DONE (above): The file name can be retrieved from the correct country's file name.
-        // DONE (above): Set the image drawable to the correct flag.
+            mAnswerEditText.setVisibility(View.GONE);
 
-        // DONE: Shuffle the order of all the countries (use Collections.shuffle)
-        Collections.shuffle(mAllCountriesList);
-        Log.i(TAG, "mChoices (load) 1: " + mChoices);
+            // DONE: One button per answer choice, guessed buttons stay disabled
+            int choices = quiz.getChoiceCount();
+            mChoiceGrid.setChoiceCount(choices);
+            for (int i = 0; i < choices; i++)
+                mChoiceGrid.setChoice(i, mQuizViewModel.getName(quiz.getChoice(i)), quiz.isChoiceEnabled(i));
+        }
 
-        for (int i = 0; i < mChoices; i++)
+        // DONE: Correct answer in green, "Incorrect!" in red, or nothing before the first guess
+        if (quiz.getLastGuess() == QuizSession.Guess.CORRECT)
         {
-            mButtons[i].setEnabled(true); // making clickable
-            mButtons[i].setText(mAllCountriesList.get(i).getName());
+            mAnswerTextView.setTextColor(getResources().getColor(R.color.correct_answer)); // setting color to green
+            mAnswerTextView.setText(mQuizViewModel.getName(quiz.getCorrectCountry()));
         }
-        Log.i(TAG, "mChoices (load) 2: " + mChoices);
-        // DONE: After the loop, randomly replace one of the buttons with the name of the correct country
-        int randIndex = rng.nextInt(mChoices);
-        mButtons[randIndex].setText(mCorrectCountry.getName());
-
-        for (int i = mChoices; i < mButtons.length; i++)
+        else if (quiz.getLastGuess() == QuizSession.Guess.INCORRECT)
+        {
+            mAnswerTextView.setTextColor(getResources().getColor(R.color.incorrect_answer));
+            mAnswerTextView.setText(R.string.incorrect_answer);
+        }
+        else
         {
-            mButtons[i].setVisibility(View.GONE);
+            mAnswerTextView.setText("");
         }
-        Log.i(TAG, "mChoices (load) 3: " + mChoices);
 
-        // DONE: Loop through all 4 buttons, enable them all and set them to the first 4 countries
-        /*
-        if (mChoices == 2)
+        // DONE: If the user has completed all 10 questions, show an AlertDialog
+        // DONE: with the statistics and an option to Reset Quiz
+        if (quiz.isFinished() && mResultsDialog == null)
         {
-            for (int i = 0; i < 2; i++)
+            AlertDialog.Builder builder = new AlertDialog.Builder(this);
+            String results = getString(R.string.results, quiz.getTotalGuesses(),
+                    100 * (double) quiz.getCorrectGuesses() / quiz.getTotalGuesses());
+            long meanLatency = quiz.getMeanAnswerLatency();
+            if (meanLatency != QuestionChoices.UNKNOWN)
+                results += "\n" + getString(R.string.mean_answer_time, meanLatency / 1000.0);
+            HistoryStats history = mQuizViewModel.getHistoryStats();
+            if (history != null && !Double.isNaN(history.getAccuracy()))
+                results += "\n" + getString(R.string.lifetime_results, 100 * history.getAccuracy(),
+                        history.getCurrentStreak(), history.getBestStreak());
+            final ChallengeCode challenge = quiz.getChallengeCode();
+            if (challenge != null)
             {
-                mButtons[i].setEnabled(true); // making clickable
-                mButtons[i].setText(mAllCountriesList.get(i).getName());
-            }
+                results += "\n" + getString(R.string.challenge_code, challenge);
 
-            int randIndex = rng.nextInt(2);
-            mButtons[randIndex].setText(mCorrectCountry.getName());
-
-            for (int i = 2; i < 8; i++)
-            {
-                mButtons[i].setVisibility(View.GONE);
+                // Sharing keeps the dialog open, so the quiz can still be reset afterwards
+                builder.setNeutralButton(R.string.share_challenge, null);
             }
-        }
-        else if (mChoices == 4)
-        {
-            for (int i = 0; i < 4; i++)
+            builder.setMessage(results);
+
+            // Set the positive button of the dialog
+            // positive button means to reset the quiz
+            builder.setPositiveButton(getString(R.string.reset_quiz), new DialogInterface.OnClickListener()
             {
-                mButtons[i].setEnabled(true); // making clickable
-                mButtons[i].setText(mAllCountriesList.get(i).getName());
-            }
+                @Override
+                public void onClick(DialogInterface dialogInterface, int i)
+                {
+                    mResultsDialog = null;
+                    resetQuiz();
+                }
+            });
 
-            int randIndex = rng.nextInt(2);
-            mButtons[randIndex].setText(mCorrectCountry.getName());
+            builder.setCancelable(false); // done so user cant cancel out of dialog and be stuck at end of game
 
-            for (int i = 2; i < 8; i++)
+            mResultsDialog = builder.show();
+            if (challenge != null)
             {
-                mButtons[i].setVisibility(View.GONE);
+                mResultsDialog.getButton(DialogInterface.BUTTON_NEUTRAL).setOnClickListener(new View.OnClickListener()
+                {
+                    @Override
+                    public void onClick(View v)
+                    {
+                        shareChallenge(challenge);
+                    }
+                });
             }
         }
-        for (int i = 0; i < mButtons.length; i++)
+        else if (!quiz.isFinished() && mResultsDialog != null)
         {
-            mButtons[i].setEnabled(true); // making clickable
-            mButtons[i].setText(mAllCountriesList.get(i).getName());
+            // A new quiz was started some other way (e.g. from the settings)
+            mResultsDialog.dismiss();
+            mResultsDialog = null;
         }
-        // DONE (above): in the all countries list
-
-         */
-
     }
 
     /**
-     * Handles the click event of one of the 4 buttons indicating the guess of a country's name
-     * to match the flag image displayed.  If the guess is correct, the country's name (in GREEN) will be shown,
-     * followed by a slight delay of 2 seconds, then the next flag will be loaded.  Otherwise, the
-     * word "Incorrect Guess" will be shown in RED and the button will be disabled.
-     * @param v
+     * Shows the countries matching the typed answer on the buttons, best first.
      */
-    public void makeGuess(View v)
+    private void showSuggestions(QuizSession quiz)
     {
-        // Creating toast just to make sure buttons are working
-        // Toast.makeText(this, "Nope!", Toast.LENGTH_SHORT).show();
-
-        // DONE: Downcast the View v into a Button (since it's one of the 4 buttons)
-        Button clickedButton = (Button) v;
+        if (!mQuizViewModel.isTypeIn())
+            return;
+        int count = quiz.isAnswered() ? 0 : mQuizViewModel.suggest(mAnswerEditText.getText(), mSuggestions);
+        mChoiceGrid.setChoiceCount(count);
+        for (int i = 0; i < count; i++)
+            mChoiceGrid.setChoice(i, mQuizViewModel.getName(quiz.getCountry(mSuggestions[i])), true);
+    }
 
-        // DONE: Get the country's name from the text of the button
-        String guess = clickedButton.getText().toString();
+    /**
+     * Offers the code of a finished quiz to any app that can send text.
+     */
+    private void shareChallenge(ChallengeCode challenge)
+    {
+        Intent shareIntent = new Intent(Intent.ACTION_SEND);
+        shareIntent.setType("text/plain");
+        shareIntent.putExtra(Intent.EXTRA_TEXT, getString(R.string.share_challenge_text, challenge));
+        startActivity(Intent.createChooser(shareIntent, getString(R.string.share_challenge)));
+    }
 
-        // TODO: If the guess matches the correct country's name, increment the number of correct guesses,
-        mTotalGuesses++;
-        if (guess.equals(mCorrectCountry.getName()))
+    /**
+     * Asks for a challenge code and starts the quiz it describes.
+     */
+    private void enterChallenge()
+    {
+        final EditText codeEditText = new EditText(this);
+        codeEditText.setHint(R.string.challenge_code_hint);
+        codeEditText.setSingleLine();
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(R.string.enter_challenge);
+        builder.setView(codeEditText);
+        builder.setPositiveButton(R.string.start_challenge, new DialogInterface.OnClickListener()
         {
-            mCorrectGuesses++; // increment number of correct guesses
-
-            for (int i = 0; i < mButtons.length; i++) // disable al buttons because correct was selected
-            {
-                mButtons[i].setEnabled(false);
-            }
-
-            mAnswerTextView.setTextColor(getResources().getColor(R.color.correct_answer)); // setting color to green
-            mAnswerTextView.setText(mCorrectCountry.getName());
-
-            if (mCorrectGuesses < FLAGS_IN_QUIZ)
+            @Override
+            public void onClick(DialogInterface dialogInterface, int i)
             {
-                // Code a delay (2000 ms = 2 seconds) using a handler to load the next flag
-                handler.postDelayed(new Runnable()
+                if (!mQuizViewModel.startChallenge(codeEditText.getText().toString()))
                 {
-                    @Override
-                    public void run()
-                    {
-                        loadNextFlag();
-                    }
-                }, 2000);
+                    Toast.makeText(MainActivity.this, R.string.invalid_challenge, Toast.LENGTH_SHORT).show();
+                }
             }
-            else
-            {
-                // TODO: Nested in this decision, if the user has completed all 10 questions, show an AlertDialog
-                // TODO: with the statistics and an option to Reset Quiz
-                AlertDialog.Builder builder = new AlertDialog.Builder(this);
-                builder.setMessage(getString(R.string.results, mTotalGuesses, 100 * (double) mCorrectGuesses/mTotalGuesses));
-
-                // Set the positive button of the dialog
-                // positive button means to reset the quiz
-                builder.setPositiveButton(getString(R.string.reset_quiz), new DialogInterface.OnClickListener()
-                {
-                    @Override
-                    public void onClick(DialogInterface dialogInterface, int i)
-                    {
-                        resetQuiz();
-                    }
-                });
-
-                builder.setCancelable(false); // done so user cant cancel out of dialog and be stuck at end of game
+        });
+        builder.setNegativeButton(android.R.string.cancel, null);
+        builder.show();
+    }
 
-                builder.create();
-                builder.show();
-            }
-        }
-        // DONE (above): then display correct answer in green text.  Also, disable all 4 buttons (can't keep guessing once it's correct)
-        // TODO: Nested in this decision, if the user has completed all 10 questions, show an AlertDialog
-        // TODO: with the statistics and an option to Reset Quiz
+    /**
+     * Handles the click event of one of the answer buttons indicating the guess of a country's name
+     * to match the flag image displayed.  If the guess is correct, the country's name (in GREEN) will be shown,
+     * followed by a slight delay of 2 seconds, then the next flag will be loaded.  Otherwise, the
+     * word "Incorrect Guess" will be shown in RED and the button will be disabled.
+     * @param index The index of the button, which is the answer choice (or suggestion) it shows.
+     */
+    private void makeGuess(int index)
+    {
+        // DONE: Each button is at the index of its answer choice, the quiz checks it by id
+        if (mQuizViewModel.isTypeIn())
+            mQuizViewModel.makeCountryGuess(mSuggestions[index]);
+        else
+            mQuizViewModel.makeGuess(index);
+    }
 
-        // DONE: Else, the answer is incorrect, so display "Incorrect Guess!" in red
-        if (!guess.equals(mCorrectCountry.getName()))
+    @Override
+    protected void onResume()
+    {
+        super.onResume();
+        // Apply all the settings changed while we were in the background in one go
+        if (mQuizViewModel.applySettingsIfChanged(PreferenceManager.getDefaultSharedPreferences(this)))
         {
-            clickedButton.setEnabled(false);
-            mAnswerTextView.setTextColor(getResources().getColor(R.color.incorrect_answer));
-            mAnswerTextView.setText(R.string.incorrect_answer);
+            Toast.makeText(this, R.string.restarting_quiz, Toast.LENGTH_SHORT).show();
         }
-        // TODO: and disable just the incorrect button.
+        mFrameMonitor.start();
+    }
 
+    @Override
+    protected void onPause()
+    {
+        mFrameMonitor.stop();
+        super.onPause();
+    }
 
+    @Override
+    protected void onStop()
+    {
+        super.onStop();
+        // Leave a report behind each time the app goes to the background
+        if (Metrics.isEnabled())
+            Metrics.dumpAsync(this);
+    }
 
+    @Override
+    protected void onDestroy()
+    {
+        PreferenceManager.getDefaultSharedPreferences(this).unregisterOnSharedPreferenceChangeListener(mSharedPreferenceChangeListener);
+
+        // The dialog is shown again by the next activity if the quiz is still finished
+        if (mResultsDialog != null)
+        {
+            mResultsDialog.dismiss();
+            mResultsDialog = null;
+        }
+        super.onDestroy();
     }
 
     @Override
@@ -333,9 +420,18 @@ public class MainActivity extends AppCompatActivity {
     @Override
     public boolean onOptionsItemSelected(MenuItem item)
     {
-        Intent settingsIntent = new Intent(this, SettingsActivity.class);
-        startActivity(settingsIntent);
-        return super.onOptionsItemSelected(item);
+        switch (item.getItemId())
+        {
+            case R.id.action_settings:
+                Intent settingsIntent = new Intent(this, SettingsActivity.class);
+                startActivity(settingsIntent);
+                return true;
+            case R.id.action_challenge:
+                enterChallenge();
+                return true;
+            default:
+                return super.onOptionsItemSelected(item);
+        }
     }
 
     SharedPreferences.OnSharedPreferenceChangeListener
@@ -344,37 +440,18 @@ public class MainActivity extends AppCompatActivity {
                 @Override
                 public void onSharedPreferenceChanged(SharedPreferences sharedPreferences,
                                                       String key) {
-                    if (key.equals(REGIONS))
+                    // Only note the change here, this activity is usually hidden behind the
+                    // settings. The quiz is rebuilt once, in onResume.
+                    if (key.equals(REGIONS) || key.equals(CHOICES) || key.equals(DIFFICULTY))
                     {
-                        String region = sharedPreferences.getString(REGIONS,
-                                getString(R.string.default_region));
-                        Log.i(TAG, "region (pref): " + region);
-                        updateRegion(region);
-                        resetQuiz();
+                        Log.i(TAG, key + " (pref): " + sharedPreferences.getString(key, null));
+                        mQuizViewModel.markSettingsChanged();
                     }
-                    else if (key.equals(CHOICES))
+                    else if (key.equals(ADAPTIVE) || key.equals(TYPE_IN))
                     {
-                        int choice = Integer.parseInt(sharedPreferences.getString(CHOICES,
-                                getString(R.string.default_choices)));
-                        Log.i(TAG, "mChoices (pref): " + mChoices);
-                        updateChoices(choice);
-                        resetQuiz();
+                        Log.i(TAG, key + " (pref): " + sharedPreferences.getBoolean(key, true));
+                        mQuizViewModel.markSettingsChanged();
                     }
-                    Toast.makeText(MainActivity.this, R.string.restarting_quiz,
-                            Toast.LENGTH_SHORT).show();
                 }
             };
-
-    public void updateRegion(String region)
-    {
-        mRegion = region.replaceAll("_", " ");
-        // All, Africa, Europe, etc
-    }
-
-    public void updateChoices(int choice)
-    {
-        mChoices = choice;
-    }
-
-
 }
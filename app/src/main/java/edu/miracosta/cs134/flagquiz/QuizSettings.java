@@ -0,0 +1,79 @@
+package edu.miracosta.cs134.flagquiz;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import edu.miracosta.cs134.flagquiz.quiz.Difficulty;
+import edu.miracosta.cs134.flagquiz.quiz.QuizGenerator;
+
+/**
+ * The quiz settings chosen on the settings screen, as read at one point in time.
+ */
+final class QuizSettings {
+
+    private final String mRegion;
+    private final int mChoices;
+    private final Difficulty mDifficulty;
+    private final boolean mAdaptive;
+    private final boolean mTypeIn;
+
+    private QuizSettings(String region, int choices, Difficulty difficulty, boolean adaptive,
+                         boolean typeIn) {
+        mRegion = region;
+        mChoices = choices;
+        mDifficulty = difficulty;
+        mAdaptive = adaptive;
+        mTypeIn = typeIn;
+    }
+
+    /**
+     * Reads the settings.  Blocks until the preferences file has been loaded, the first time.
+     * @param context Any context of the app, for the defaults.
+     * @param preferences The preferences holding the settings.
+     * @return The settings.
+     */
+    static QuizSettings read(Context context, SharedPreferences preferences) {
+        // pref_regions values use underscores (North_America), region names use spaces
+        String region = preferences.getString(MainActivity.REGIONS, QuizGenerator.ALL_REGIONS)
+                .replace('_', ' ');
+        int choices = Integer.parseInt(preferences.getString(MainActivity.CHOICES,
+                context.getString(R.string.default_choices)));
+        Difficulty difficulty = Difficulty.fromPreference(preferences.getString(MainActivity.DIFFICULTY,
+                context.getString(R.string.default_difficulty)));
+        boolean adaptive = preferences.getBoolean(MainActivity.ADAPTIVE, true);
+        boolean typeIn = preferences.getBoolean(MainActivity.TYPE_IN, false);
+        return new QuizSettings(region, choices, difficulty, adaptive, typeIn);
+    }
+
+    String getRegion() {
+        return mRegion;
+    }
+
+    int getChoices() {
+        return mChoices;
+    }
+
+    Difficulty getDifficulty() {
+        return mDifficulty;
+    }
+
+    boolean isAdaptive() {
+        return mAdaptive;
+    }
+
+    /**
+     * @return True if answers are typed rather than chosen from buttons.
+     */
+    boolean isTypeIn() {
+        return mTypeIn;
+    }
+
+    /**
+     * @param other Other settings, may be null.
+     * @return True if both make the same quizzes.  How answers are given does not matter.
+     */
+    boolean makesSameQuiz(QuizSettings other) {
+        return other != null && mRegion.equals(other.mRegion) && mChoices == other.mChoices
+                && mDifficulty == other.mDifficulty && mAdaptive == other.mAdaptive;
+    }
+}
@@ -0,0 +1,483 @@
+package edu.miracosta.cs134.flagquiz;
+
+import android.app.Application;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.preference.PreferenceManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.miracosta.cs134.flagquiz.history.HistoryStats;
+import edu.miracosta.cs134.flagquiz.history.QuizHistory;
+import edu.miracosta.cs134.flagquiz.image.FlagCache;
+import edu.miracosta.cs134.flagquiz.image.FlagLoader;
+import edu.miracosta.cs134.flagquiz.metrics.Metric;
+import edu.miracosta.cs134.flagquiz.metrics.Metrics;
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.CountryNames;
+import edu.miracosta.cs134.flagquiz.model.JSONLoader;
+import edu.miracosta.cs134.flagquiz.quiz.AdaptiveScheduler;
+import edu.miracosta.cs134.flagquiz.quiz.ChallengeCode;
+import edu.miracosta.cs134.flagquiz.quiz.DistractorSampler;
+import edu.miracosta.cs134.flagquiz.quiz.FlagSimilarity;
+import edu.miracosta.cs134.flagquiz.quiz.MasteryStore;
+import edu.miracosta.cs134.flagquiz.quiz.NameIndex;
+import edu.miracosta.cs134.flagquiz.quiz.QuestionChoices;
+import edu.miracosta.cs134.flagquiz.quiz.QuizSession;
+
+/**
+ * Holds the quiz for {@link MainActivity}: the country catalog, the current {@link QuizSession}
+ * and the decoded flag of the current question.  It survives configuration changes, so a
+ * recreated activity just renders the existing state again without reading or decoding
+ * anything.  The delay before the next question runs here rather than in the activity, and
+ * is cancelled when the view model is cleared.
+ *
+ * The catalog, the mastery scores of the {@link AdaptiveScheduler} and the first quiz come
+ * from a {@link StartupWarmup}, usually the one started with the process, which also has the
+ * first flag decoding by then.  Each answer's new score is saved on a background thread, one
+ * byte at a time.  Every guess also goes to the {@link QuizHistory}, which batches its own
+ * writes.
+ *
+ * Country names are shown in the language of the activity: the {@link CountryNames} table of
+ * that locale is read in the background, and typed answers are looked up in a {@link NameIndex}
+ * of those names built along with it.  Only one locale's names are kept, a locale change drops
+ * them (the catalog names show meanwhile) before the new ones are read.
+ */
+public class QuizViewModel extends AndroidViewModel {
+
+    private static final String TAG = "Flag Quiz";
+    static final int FLAGS_IN_QUIZ = 10;
+    static final int MAX_CHOICES = 12;
+    private static final long NEXT_QUESTION_DELAY = 2000; // 2 seconds
+
+    private final MutableLiveData<QuizSession> mQuiz = new MutableLiveData<>();
+    private final MutableLiveData<Bitmap> mFlag = new MutableLiveData<>();
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final StartupWarmup mWarmup;                 // prepares the first quiz
+    private final FlagLoader mFlagLoader;                // decodes flags in the background
+    // Reads and writes the mastery scores, reads the names and builds their index
+    private final ExecutorService mBackgroundExecutor = Executors.newSingleThreadExecutor();
+
+    private DistractorSampler mDistractorSampler;
+    private AdaptiveScheduler mScheduler;
+    private MasteryStore mMasteryStore; // from the warm-up, then used on mBackgroundExecutor only
+    private QuizHistory mHistory;
+    private List<Country> mCountries; // null until loaded
+    private Locale mLocale; // of the names shown
+    private CountryNames mNames; // names in mLocale, null until read
+    private NameIndex mNameIndex; // of mNames, null until built, for typed answers
+    private QuizSession mSession;
+    private boolean mCleared;
+    private long mFlagRequestedAt; // for the flag load time, 0 once it has arrived
+
+    private QuizSettings mSettings; // used for the next quiz
+    private boolean mSettingsChanged;
+
+    public QuizViewModel(@NonNull Application application) {
+        super(application);
+        StartupWarmup warmup = application instanceof FlagQuizApplication
+                ? ((FlagQuizApplication) application).takeWarmup() : null;
+        if (warmup == null) {
+            // Not the first quiz of the process, or the warm-up is turned off
+            warmup = new StartupWarmup(application);
+            warmup.start();
+        }
+        mWarmup = warmup;
+        mFlagLoader = warmup.getFlagLoader();
+
+        // Usually no wait: the warm-up has loaded the preferences file by now
+        mSettings = QuizSettings.read(application, PreferenceManager.getDefaultSharedPreferences(application));
+        mLocale = Locale.getDefault();
+
+        // The quiz starts once the warm-up is ready, maybe right away
+        mWarmup.setOnReadyListener(mWarmupListener);
+    }
+
+    /**
+     * @return The current quiz, updated after every change.  Holds null until the countries
+     * have been loaded.
+     */
+    public LiveData<QuizSession> getQuiz() {
+        return mQuiz;
+    }
+
+    /**
+     * @return The flag of the current question, null while it is being decoded.
+     */
+    public LiveData<Bitmap> getFlag() {
+        return mFlag;
+    }
+
+    /**
+     * Shows the country names in a locale from now on.  Its names are read in the background,
+     * the catalog names are used until they arrive.
+     * @param locale The locale of the activity.
+     */
+    public void setLocale(Locale locale) {
+        if (locale.equals(mLocale)) {
+            return;
+        }
+        mLocale = locale;
+        mNames = null;
+        mNameIndex = null;
+        if (mCountries != null) {
+            loadNames(mCountries, locale);
+            if (mSession != null) {
+                mQuiz.setValue(mSession);
+            }
+        }
+    }
+
+    /**
+     * @param country A country of the catalog.
+     * @return Its name in the current locale.
+     */
+    public String getName(Country country) {
+        return mNames == null ? country.getName() : mNames.getName(country);
+    }
+
+    /**
+     * Sets the size of the view flags are shown in, so they can be decoded at that size.
+     * @param width The width in pixels.
+     * @param height The height in pixels.
+     */
+    public void setFlagSize(int width, int height) {
+        mFlagLoader.setTargetSize(width, height);
+    }
+
+    /**
+     * Records that a quiz setting changed.  Nothing is rebuilt until
+     * {@link #applySettingsIfChanged} is called, so a settings session costs at most one new quiz.
+     */
+    public void markSettingsChanged() {
+        mSettingsChanged = true;
+    }
+
+    /**
+     * If a setting changed since the last call, reads the quiz settings and starts a new quiz
+     * with them (unless they ended up the same as before).
+     * @param preferences The preferences holding the settings.
+     * @return True if a new quiz was started.
+     */
+    public boolean applySettingsIfChanged(SharedPreferences preferences) {
+        if (!mSettingsChanged) {
+            return false;
+        }
+        mSettingsChanged = false;
+
+        QuizSettings previous = mSettings;
+        mSettings = QuizSettings.read(getApplication(), preferences);
+        if (mSettings.makesSameQuiz(previous)) {
+            // Switching between typing and choosing answers keeps the current quiz
+            if (mSettings.isTypeIn() != previous.isTypeIn() && mSession != null) {
+                mQuiz.setValue(mSession);
+            }
+            return false;
+        }
+        resetQuiz();
+        return mSession != null;
+    }
+
+    /**
+     * Sets up and starts a new quiz.
+     */
+    public void resetQuiz() {
+        // Nothing to quiz on until the countries have been loaded
+        if (mSession == null) {
+            return;
+        }
+        Log.i(TAG, FlagCache.getInstance(getApplication()).getStats());
+
+        mHandler.removeCallbacks(mNextQuestion);
+        mSession.setSettings(mSettings.getRegion(), mSettings.getChoices(), mSettings.getDifficulty());
+        mSession.setAdaptive(mSettings.isAdaptive());
+        long start = Metrics.start(Metric.QUIZ_GENERATE);
+        mSession.start(FLAGS_IN_QUIZ);
+        Metrics.stop(Metric.QUIZ_GENERATE, start);
+        mFlagLoader.setRegion(mSettings.getRegion());
+        showQuestion();
+    }
+
+    /**
+     * Starts the quiz described by a challenge code, with the code's settings for this quiz
+     * only: the next reset goes back to the user's settings.
+     * @param code A code as typed by the user.
+     * @return False if the code is not valid or the countries are not loaded yet.
+     */
+    public boolean startChallenge(String code) {
+        ChallengeCode challenge = ChallengeCode.parse(code);
+        if (mSession == null || challenge == null) {
+            return false;
+        }
+        mHandler.removeCallbacks(mNextQuestion);
+        mSession.setSettings(challenge.getRegion(), challenge.getChoices(), challenge.getDifficulty());
+        mSession.setAdaptive(false);
+        long start = Metrics.start(Metric.QUIZ_GENERATE);
+        mSession.start(FLAGS_IN_QUIZ, challenge.getSeed());
+        Metrics.stop(Metric.QUIZ_GENERATE, start);
+        mFlagLoader.setRegion(challenge.getRegion());
+        showQuestion();
+        return true;
+    }
+
+    /**
+     * Records that the current question's flag is on screen, which starts timing the answer.
+     */
+    public void onFlagShown() {
+        if (mSession != null) {
+            mSession.markFlagShown(SystemClock.uptimeMillis());
+        }
+    }
+
+    /**
+     * @return True if answers are typed rather than chosen from buttons.
+     */
+    public boolean isTypeIn() {
+        return mSettings.isTypeIn();
+    }
+
+    /**
+     * Suggests countries for a partly typed answer.  Fast enough to call on every keystroke.
+     * @param text The text typed so far.
+     * @param out Receives the ids of the suggested countries, best first.
+     * @return The number of suggestions, 0 until the countries have been indexed.
+     */
+    public int suggest(CharSequence text, int[] out) {
+        return mNameIndex == null ? 0 : mNameIndex.suggest(text, out);
+    }
+
+    /**
+     * Records a typed guess for the current question.
+     * @param answer The typed answer.
+     * @return False if the answer does not name a country, in which case nothing is recorded.
+     */
+    public boolean makeTypedGuess(CharSequence answer) {
+        // The exact name as the locale collates it, then the closest one
+        int id = mNames == null ? CountryNames.NOT_FOUND : mNames.find(answer);
+        if (id == CountryNames.NOT_FOUND && mNameIndex != null) {
+            id = mNameIndex.match(answer);
+        }
+        if (id == NameIndex.NOT_FOUND) {
+            return false;
+        }
+        makeCountryGuess(id);
+        return true;
+    }
+
+    /**
+     * Records a guess of a country, typed or picked from the suggestions.
+     * @param id The id of the guessed country.
+     */
+    public void makeCountryGuess(int id) {
+        if (mSession == null || mSession.isAnswered()) {
+            return;
+        }
+        onGuess(mSession.guessCountry(id, SystemClock.uptimeMillis()));
+    }
+
+    /**
+     * Records a guess for the current question.  After a correct guess the next question
+     * follows after a short delay.
+     * @param choice The index of the chosen answer.
+     */
+    public void makeGuess(int choice) {
+        if (mSession == null || choice < 0 || choice >= mSession.getChoiceCount()
+                || !mSession.isChoiceEnabled(choice)) {
+            return;
+        }
+        onGuess(mSession.guess(choice, SystemClock.uptimeMillis()));
+    }
+
+    private void onGuess(QuizSession.Guess guess) {
+        QuestionChoices choices = mSession.getChoices();
+        mHistory.record(choices.getCorrectId(), guess == QuizSession.Guess.CORRECT,
+                choices.getGuessCount() == 1, choices.getLastGuessLatency(),
+                System.currentTimeMillis());
+        if (guess == QuizSession.Guess.CORRECT) {
+            int id = mSession.getCorrectCountry().getId();
+            saveMastery(id, mScheduler.getMastery(id));
+            if (mSession.hasNextQuestion()) {
+                mHandler.postDelayed(mNextQuestion, NEXT_QUESTION_DELAY);
+            }
+        }
+        mQuiz.setValue(mSession);
+    }
+
+    /**
+     * @return Totals over every quiz played, or null until the countries have been loaded.
+     */
+    public HistoryStats getHistoryStats() {
+        return mHistory == null ? null : mHistory.getStats();
+    }
+
+    /**
+     * Writes one country's score in the background.
+     */
+    private void saveMastery(final int id, final int mastery) {
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mMasteryStore.write(id, mastery);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not save mastery scores", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the country names of a locale and indexes them for typed answers in the
+     * background, then shows them.
+     */
+    private void loadNames(final List<Country> countries, final Locale locale) {
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                CountryNames loaded;
+                try {
+                    loaded = JSONLoader.loadCountryNames(getApplication(), countries, locale);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not read the country names for " + locale, e);
+                    loaded = CountryNames.fromCatalog(countries, locale);
+                }
+                final CountryNames names = loaded;
+                final NameIndex index = new NameIndex(countries, names);
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Dropped if the locale changed again in the meantime
+                        if (mCleared || !locale.equals(mLocale)) {
+                            return;
+                        }
+                        mNames = names;
+                        mNameIndex = index;
+                        if (mSession != null) {
+                            mQuiz.setValue(mSession);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private final Runnable mNextQuestion = new Runnable() {
+        @Override
+        public void run() {
+            long start = Metrics.start(Metric.QUESTION_SETUP);
+            mSession.nextQuestion();
+            Metrics.stop(Metric.QUESTION_SETUP, start);
+            showQuestion();
+        }
+    };
+
+    /**
+     * Publishes the current question and loads its flag (usually already prefetched).
+     */
+    private void showQuestion() {
+        mFlag.setValue(null);
+        mQuiz.setValue(mSession);
+        mFlagRequestedAt = Metrics.now();
+        mFlagLoader.load(mSession.getCorrectCountry(), mFlagLoadedListener);
+
+        // Start decoding the following question's flag while this one is being answered
+        Country next = mSession.getNextCountry();
+        if (next != null) {
+            mFlagLoader.prefetch(next);
+        }
+    }
+
+    private final FlagLoader.OnFlagLoadedListener mFlagLoadedListener =
+            new FlagLoader.OnFlagLoadedListener() {
+                @Override
+                public void onFlagLoaded(Country country, Bitmap flag) {
+                    // Ignore flags for a question that is no longer showing
+                    if (mSession != null && country.equals(mSession.getCorrectCountry())) {
+                        Metrics.recordSince(Metric.FLAG_LOAD, mFlagRequestedAt);
+                        mFlagRequestedAt = 0;
+                        mFlag.setValue(flag);
+                    }
+                }
+            };
+
+    private final StartupWarmup.OnReadyListener mWarmupListener =
+            new StartupWarmup.OnReadyListener() {
+                @Override
+                public void onReady(StartupWarmup warmup) {
+                    mCountries = warmup.getCountries();
+                    mDistractorSampler = warmup.getDistractorSampler();
+                    mScheduler = warmup.getScheduler();
+                    mMasteryStore = warmup.getMasteryStore();
+                    mHistory = new QuizHistory(getApplication().getFilesDir(), mCountries);
+                    // Look-alike flags for harder questions arrive a little later
+                    JSONLoader.loadFlagSimilarityAsync(getApplication(), mSimilarityLoadedListener);
+                    loadNames(mCountries, mLocale);
+
+                    mSession = warmup.getSession();
+                    if (warmup.getSettings().makesSameQuiz(mSettings)) {
+                        // Its flag is already decoding, or decoded
+                        showQuestion();
+                    } else {
+                        resetQuiz();
+                    }
+                }
+
+                @Override
+                public void onFailed(IOException e) {
+                    Log.e(TAG, "Error loading from JSON", e);
+                }
+            };
+
+    private final JSONLoader.OnFlagSimilarityLoadedListener mSimilarityLoadedListener =
+            new JSONLoader.OnFlagSimilarityLoadedListener() {
+                @Override
+                public void onFlagSimilarityLoaded(FlagSimilarity similarity) {
+                    if (mCleared) {
+                        return;
+                    }
+                    try {
+                        mDistractorSampler.setSimilarity(similarity);
+                    } catch (IllegalArgumentException e) {
+                        Log.e(TAG, "Flag similarity does not match the catalog", e);
+                    }
+                }
+            };
+
+    @Override
+    protected void onCleared() {
+        mCleared = true;
+        mHandler.removeCallbacks(mNextQuestion);
+        mWarmup.cancel();
+        mFlagLoader.shutdown();
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (mMasteryStore != null) {
+                        mMasteryStore.close();
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not close mastery scores", e);
+                }
+            }
+        });
+        mBackgroundExecutor.shutdown();
+        if (mHistory != null) {
+            mHistory.close();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package edu.miracosta.cs134.flagquiz;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.preference.PreferenceManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import edu.miracosta.cs134.flagquiz.image.FlagLoader;
+import edu.miracosta.cs134.flagquiz.metrics.Metric;
+import edu.miracosta.cs134.flagquiz.metrics.Metrics;
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.JSONLoader;
+import edu.miracosta.cs134.flagquiz.quiz.AdaptiveScheduler;
+import edu.miracosta.cs134.flagquiz.quiz.DistractorSampler;
+import edu.miracosta.cs134.flagquiz.quiz.FastRandom;
+import edu.miracosta.cs134.flagquiz.quiz.MasteryStore;
+import edu.miracosta.cs134.flagquiz.quiz.QuizGenerator;
+import edu.miracosta.cs134.flagquiz.quiz.QuizSession;
+
+/**
+ * Gets the first quiz ready while the activity is still being created.  Started from
+ * {@link FlagQuizApplication#onCreate}, it reads the quiz settings (which loads the preferences
+ * file) on one thread and the catalog and mastery scores on another, then starts the first
+ * quiz and has its {@link FlagLoader} decode the first flag right away.  Meanwhile the main
+ * thread inflates the activity.  The {@link QuizViewModel} takes everything over once
+ * {@link OnReadyListener#onReady} has been called.
+ */
+final class StartupWarmup {
+
+    private static final String TAG = "Flag Quiz";
+
+    /**
+     * Callback notified on the main thread when the first quiz is ready.
+     */
+    interface OnReadyListener {
+
+        /**
+         * Called once the first quiz has been started.  Its flag may still be decoding.
+         * @param warmup The warm-up, whose results can now be read.
+         */
+        void onReady(StartupWarmup warmup);
+
+        /**
+         * Called if the catalog or the settings could not be read.
+         * @param e The error that stopped the warm-up.
+         */
+        void onFailed(IOException e);
+    }
+
+    private final Context mContext;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService mExecutor;
+    private final FlagLoader mFlagLoader;
+    private final FastRandom mRng = new FastRandom();
+    private final long mStartTime;
+    private Future<QuizSettings> mSettingsRead;
+
+    // Written on the worker thread before mDone is set, only read after that
+    private QuizSettings mSettings;
+    private List<Country> mCountries;
+    private DistractorSampler mDistractorSampler;
+    private AdaptiveScheduler mScheduler;
+    private MasteryStore mMasteryStore;
+    private QuizSession mSession;
+    private IOException mError;
+
+    private boolean mDone;               // guarded by this
+    private OnReadyListener mListener;   // guarded by this
+
+    /**
+     * @param context Any context of the app.
+     */
+    StartupWarmup(Context context) {
+        mContext = context.getApplicationContext();
+        mStartTime = Metrics.now();
+        // Its own thread starts reading the flag variants now
+        mFlagLoader = new FlagLoader(mContext);
+        mExecutor = Executors.newFixedThreadPool(2, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "StartupWarmup");
+            }
+        });
+    }
+
+    /**
+     * Starts the warm-up threads and returns.
+     */
+    void start() {
+        mSettingsRead = mExecutor.submit(new Callable<QuizSettings>() {
+            @Override
+            public QuizSettings call() {
+                return QuizSettings.read(mContext, PreferenceManager.getDefaultSharedPreferences(mContext));
+            }
+        });
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                prepare();
+            }
+        });
+        mExecutor.shutdown();
+    }
+
+    private void prepare() {
+        IOException error = null;
+        try {
+            List<Country> countries = JSONLoader.loadCountries(mContext);
+            QuizGenerator generator = new QuizGenerator(countries);
+            mCountries = generator.getCountries();
+            mDistractorSampler = new DistractorSampler(generator);
+            mScheduler = new AdaptiveScheduler(mCountries);
+            mMasteryStore = new MasteryStore(new File(mContext.getFilesDir(), MasteryStore.FILE_NAME),
+                    mCountries);
+            try {
+                byte[] mastery = mMasteryStore.load();
+                if (mastery != null) {
+                    mScheduler.setMastery(mastery);
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Could not read mastery scores, starting over", e);
+            }
+
+            mSettings = getSettings(mSettingsRead);
+            mSession = new QuizSession(generator, mDistractorSampler, mRng, QuizViewModel.MAX_CHOICES);
+            mSession.setScheduler(mScheduler);
+            mSession.setSettings(mSettings.getRegion(), mSettings.getChoices(), mSettings.getDifficulty());
+            mSession.setAdaptive(mSettings.isAdaptive());
+            long start = Metrics.start(Metric.QUIZ_GENERATE);
+            mSession.start(QuizViewModel.FLAGS_IN_QUIZ);
+            Metrics.stop(Metric.QUIZ_GENERATE, start);
+
+            // The first flag is decoded as soon as its country is known
+            mFlagLoader.setRegion(mSettings.getRegion());
+            mFlagLoader.prefetch(mSession.getCorrectCountry());
+        } catch (IOException e) {
+            error = e;
+        } catch (RuntimeException e) {
+            // Bad saved settings or scores, the listener must still hear about it
+            error = new IOException("Could not prepare the first quiz", e);
+        }
+        Metrics.recordSince(Metric.STARTUP_WARMUP, mStartTime);
+        finish(error);
+    }
+
+    private static QuizSettings getSettings(Future<QuizSettings> read) throws IOException {
+        try {
+            return read.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading the settings", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not read the settings", e.getCause());
+        }
+    }
+
+    private void finish(IOException error) {
+        final OnReadyListener listener;
+        synchronized (this) {
+            mError = error;
+            mDone = true;
+            listener = mListener;
+        }
+        if (listener != null) {
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliver(listener);
+                }
+            });
+        }
+    }
+
+    /**
+     * Sets the listener told when the first quiz is ready.  If it already is, the listener is
+     * called before this returns, so the quiz can be shown in the activity's first frame.
+     * Must be called on the main thread.
+     * @param listener The listener, or null to stop listening.
+     */
+    void setOnReadyListener(OnReadyListener listener) {
+        boolean done;
+        synchronized (this) {
+            mListener = listener;
+            done = mDone;
+        }
+        if (done && listener != null) {
+            deliver(listener);
+        }
+    }
+
+    private void deliver(OnReadyListener listener) {
+        IOException error;
+        synchronized (this) {
+            if (mListener != listener) {
+                return; // removed or replaced since
+            }
+            mListener = null;
+            error = mError;
+        }
+        if (error == null) {
+            listener.onReady(this);
+        } else {
+            listener.onFailed(error);
+        }
+    }
+
+    /**
+     * Stops the warm-up if it is still running.  The listener is not called afterwards.
+     */
+    void cancel() {
+        synchronized (this) {
+            mListener = null;
+        }
+        mExecutor.shutdownNow();
+    }
+
+    /**
+     * @return The flag loader, already decoding the first flag once the warm-up is ready.
+     */
+    FlagLoader getFlagLoader() {
+        return mFlagLoader;
+    }
+
+    /**
+     * @return The settings the first quiz was made with.
+     */
+    QuizSettings getSettings() {
+        return mSettings;
+    }
+
+    /**
+     * @return The catalog.
+     */
+    List<Country> getCountries() {
+        return mCountries;
+    }
+
+    DistractorSampler getDistractorSampler() {
+        return mDistractorSampler;
+    }
+
+    /**
+     * @return The scheduler, with the saved mastery scores.
+     */
+    AdaptiveScheduler getScheduler() {
+        return mScheduler;
+    }
+
+    /**
+     * @return The store the mastery scores were read from, to write them back to.
+     */
+    MasteryStore getMasteryStore() {
+        return mMasteryStore;
+    }
+
+    /**
+     * @return The session, on the first question of its first quiz.
+     */
+    QuizSession getSession() {
+        return mSession;
+    }
+}
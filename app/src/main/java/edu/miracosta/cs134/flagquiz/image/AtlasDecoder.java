@@ -0,0 +1,131 @@
+package edu.miracosta.cs134.flagquiz.image;
+
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import edu.miracosta.cs134.flagquiz.quiz.QuizGenerator;
+
+/**
+ * Cuts flags out of the region atlases (see {@link FlagAtlas}) with a
+ * <code>BitmapRegionDecoder</code> that stays open, so showing a flag does not open an asset.
+ * Only the current region's atlas is kept open, when the quiz covers all regions each atlas is
+ * opened the first time one of its flags is needed.  Not thread safe, {@link FlagLoader} uses it
+ * from its worker thread only.
+ */
+public class AtlasDecoder {
+
+    private final AssetManager mAssets;
+    private final FlagAtlas mAtlas;
+    private final Map<String, BitmapRegionDecoder> mDecoders = new HashMap<>(); // atlas path -> decoder
+    private final Rect mRect = new Rect();
+
+    /**
+     * @param assets The assets holding the atlases.
+     * @param atlas The position of every flag.
+     */
+    public AtlasDecoder(AssetManager assets, FlagAtlas atlas) {
+        mAssets = assets;
+        mAtlas = atlas;
+    }
+
+    /**
+     * Switches to the atlas of a region, closing the atlases of other regions.
+     * @param region The region being quizzed on, or {@link QuizGenerator#ALL_REGIONS}.
+     */
+    public void setRegion(String region) {
+        if (QuizGenerator.ALL_REGIONS.equals(region)) {
+            return;
+        }
+        String keep = mAtlas.getAtlasPath(region);
+        Iterator<Map.Entry<String, BitmapRegionDecoder>> it = mDecoders.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, BitmapRegionDecoder> entry = it.next();
+            if (!entry.getKey().equals(keep)) {
+                entry.getValue().recycle();
+                it.remove();
+            }
+        }
+        if (keep != null) {
+            try {
+                open(keep);
+            } catch (IOException e) {
+                // Reported again when the first flag is decoded
+            }
+        }
+    }
+
+    /**
+     * Decodes one flag from its atlas, downsampled like {@link FlagLoader#decode}.
+     *
+     * @param fileName The PNG path of the flag (see
+     *                 {@link edu.miracosta.cs134.flagquiz.model.Country#getFileName()}).
+     * @param reqWidth The width the flag will be shown at, in pixels.
+     * @param reqHeight The height the flag will be shown at, in pixels.
+     * @param cache Cache to take a reusable bitmap from, may be null.
+     * @return The decoded (mutable) flag, or null if the flag is not in any atlas.
+     * @throws IOException If the atlas cannot be read or decoded.
+     */
+    public Bitmap decode(String fileName, int reqWidth, int reqHeight, FlagCache cache) throws IOException {
+        FlagAtlas.Slot slot = mAtlas.get(fileName);
+        if (slot == null) {
+            return null;
+        }
+        BitmapRegionDecoder decoder = open(slot.atlasPath);
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = FlagLoader.calculateInSampleSize(slot.width, slot.height,
+                reqWidth, reqHeight);
+        options.inMutable = true;
+        if (cache != null) {
+            options.inBitmap = cache.takeReusable(
+                    (slot.width + options.inSampleSize - 1) / options.inSampleSize,
+                    (slot.height + options.inSampleSize - 1) / options.inSampleSize);
+        }
+        mRect.set(slot.left, slot.top, slot.left + slot.width, slot.top + slot.height);
+        Bitmap flag;
+        try {
+            flag = decoder.decodeRegion(mRect, options);
+        } catch (IllegalArgumentException e) {
+            // The reused bitmap was not suitable after all, decode into a new one
+            options.inBitmap = null;
+            flag = decoder.decodeRegion(mRect, options);
+        }
+        if (flag == null) {
+            throw new IOException("Could not decode " + fileName + " from " + slot.atlasPath);
+        }
+        return flag;
+    }
+
+    private BitmapRegionDecoder open(String atlasPath) throws IOException {
+        BitmapRegionDecoder decoder = mDecoders.get(atlasPath);
+        if (decoder == null) {
+            InputStream stream = mAssets.open(atlasPath);
+            try {
+                decoder = BitmapRegionDecoder.newInstance(stream, false);
+            } finally {
+                stream.close();
+            }
+            mDecoders.put(atlasPath, decoder);
+        }
+        return decoder;
+    }
+
+    /**
+     * Closes every open atlas.
+     */
+    public void close() {
+        for (BitmapRegionDecoder decoder : mDecoders.values()) {
+            decoder.recycle();
+        }
+        mDecoders.clear();
+    }
+}
@@ -0,0 +1,123 @@
+package edu.miracosta.cs134.flagquiz.image;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Where each flag sits in the per-region sprite sheets packed at build time (see the
+ * <code>generateFlagAtlas</code> task).  Used by {@link AtlasDecoder} to cut single flags out
+ * of an atlas that stays open, instead of opening one asset per flag.
+ */
+public class FlagAtlas {
+
+    /** Name of the coordinate table in the assets directory. */
+    public static final String ASSET_NAME = "flag_atlas.bin";
+
+    private static final int MAGIC = 0x46514154; // 'FQAT'
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<String, Slot> mSlots;    // PNG path -> position in its atlas
+    private final Set<String> mAtlasPaths;
+
+    private FlagAtlas(Map<String, Slot> slots, Set<String> atlasPaths) {
+        mSlots = slots;
+        mAtlasPaths = atlasPaths;
+    }
+
+    /**
+     * Reads the coordinate table.
+     *
+     * @param buffer The file contents, from the current position.
+     * @return The position of every flag.
+     * @throws IOException If the buffer does not contain a valid table.
+     */
+    public static FlagAtlas read(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a flag atlas table");
+            }
+            int version = in.getShort() & 0xFFFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported flag atlas table version " + version);
+            }
+            int regions = in.get() & 0xFF;
+            Map<String, Slot> slots = new HashMap<>(512);
+            Set<String> atlasPaths = new HashSet<>(regions * 2);
+            for (int r = 0; r < regions; r++) {
+                String atlasPath = readString(in);
+                atlasPaths.add(atlasPath);
+                int flags = in.getShort() & 0xFFFF;
+                for (int i = 0; i < flags; i++) {
+                    String fileName = readString(in);
+                    int left = in.getShort() & 0xFFFF;
+                    int top = in.getShort() & 0xFFFF;
+                    int width = in.getShort() & 0xFFFF;
+                    int height = in.getShort() & 0xFFFF;
+                    slots.put(fileName, new Slot(atlasPath, left, top, width, height));
+                }
+            }
+            return new FlagAtlas(slots, atlasPaths);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt flag atlas table", e);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * @param fileName The PNG path of a flag (see
+     *                 {@link edu.miracosta.cs134.flagquiz.model.Country#getFileName()}).
+     * @return Where the flag is, or null if it is not in any atlas.
+     */
+    public Slot get(String fileName) {
+        return mSlots.get(fileName);
+    }
+
+    /**
+     * @param region A region name, e.g. North America.
+     * @return The asset path of the region's atlas, or null if there is none.
+     */
+    public String getAtlasPath(String region) {
+        String path = "atlas/" + region.replace(' ', '_') + ".webp";
+        return mAtlasPaths.contains(path) ? path : null;
+    }
+
+    /**
+     * @return The number of flags in the atlases.
+     */
+    public int size() {
+        return mSlots.size();
+    }
+
+    /**
+     * The rectangle a flag occupies in one atlas.
+     */
+    public static final class Slot {
+        public final String atlasPath;
+        public final int left;
+        public final int top;
+        public final int width;
+        public final int height;
+
+        Slot(String atlasPath, int left, int top, int width, int height) {
+            this.atlasPath = atlasPath;
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package edu.miracosta.cs134.flagquiz.image;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Process-wide cache of decoded flag bitmaps, keyed by the asset path of the decoded image
+ * (see {@link FlagVariants#resolve}).  Entries are evicted least
+ * recently used first once the cache exceeds a byte budget derived from the device's memory
+ * class.  Bitmaps evicted for size are kept in a small pool so the next decode can reuse their
+ * memory (<code>inBitmap</code>), and the whole cache is dropped when the system asks the app
+ * to trim memory.
+ */
+public class FlagCache implements ComponentCallbacks2 {
+
+    private static final String TAG = "Flag Quiz";
+
+    // Share of the app's heap the cache may use (1/8 of the memory class)
+    private static final int MEMORY_CLASS_DIVISOR = 8;
+    // Evicted bitmaps kept around for reuse
+    private static final int MAX_REUSABLE = 3;
+
+    private static FlagCache sInstance;
+
+    private final LruCache<String, Bitmap> mCache;
+    private final List<Bitmap> mReusable = new ArrayList<>(MAX_REUSABLE);
+    private Bitmap mInUse;   // bitmap on screen, never handed out for reuse
+    private int mReuseCount; // decodes that reused an evicted bitmap
+    private boolean mPooling = true;
+
+    /**
+     * Gets the cache shared by the whole application, creating it if needed.
+     * @param context Any context of the application.
+     * @return The application's flag cache.
+     */
+    public static synchronized FlagCache getInstance(Context context) {
+        if (sInstance == null) {
+            Context appContext = context.getApplicationContext();
+            ActivityManager am = (ActivityManager) appContext.getSystemService(Context.ACTIVITY_SERVICE);
+            int budget = am.getMemoryClass() * 1024 * 1024 / MEMORY_CLASS_DIVISOR;
+            sInstance = new FlagCache(budget);
+            appContext.registerComponentCallbacks(sInstance);
+        }
+        return sInstance;
+    }
+
+    /**
+     * Creates a cache with the given budget.
+     * @param maxBytes The most memory, in bytes, the cached bitmaps may use.
+     */
+    FlagCache(int maxBytes) {
+        mCache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                if (evicted) {
+                    addReusable(oldValue);
+                }
+            }
+        };
+    }
+
+    /**
+     * Looks up a flag.
+     * @param fileName The asset path of the flag image.
+     * @return The cached bitmap, or null if it is not in the cache.
+     */
+    public Bitmap get(String fileName) {
+        return mCache.get(fileName);
+    }
+
+    /**
+     * Adds a decoded flag to the cache, evicting older flags if the budget is exceeded.
+     * @param fileName The asset path of the flag image.
+     * @param flag The decoded flag.
+     */
+    public void put(String fileName, Bitmap flag) {
+        mCache.put(fileName, flag);
+    }
+
+    /**
+     * Marks the bitmap currently on screen, so it is never handed out for reuse even if it
+     * gets evicted.
+     * @param flag The bitmap being displayed, or null.
+     */
+    public synchronized void setInUse(Bitmap flag) {
+        mInUse = flag;
+    }
+
+    /**
+     * Takes an evicted bitmap whose memory is large enough to decode an image into.
+     * @param width The width of the image that will be decoded.
+     * @param height The height of the image that will be decoded.
+     * @return A mutable bitmap that can be passed as <code>inBitmap</code>, or null if none fits.
+     */
+    public synchronized Bitmap takeReusable(int width, int height) {
+        int needed = width * height * 4; // ARGB_8888
+        Iterator<Bitmap> it = mReusable.iterator();
+        while (it.hasNext()) {
+            Bitmap candidate = it.next();
+            if (candidate.getAllocationByteCount() >= needed) {
+                it.remove();
+                mReuseCount++;
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void addReusable(Bitmap flag) {
+        if (!mPooling || flag == mInUse || !flag.isMutable() || flag.isRecycled()) {
+            return;
+        }
+        if (mReusable.size() == MAX_REUSABLE) {
+            mReusable.remove(0);
+        }
+        mReusable.add(flag);
+    }
+
+    /**
+     * Empties the cache and the reuse pool.
+     */
+    public void clear() {
+        trimToSize(-1);
+    }
+
+    /**
+     * Evicts flags until the cache uses at most the given number of bytes, and empties the
+     * reuse pool.  Nothing is pooled here, the memory is meant to go back to the system.
+     */
+    private synchronized void trimToSize(int maxBytes) {
+        mPooling = false;
+        try {
+            mCache.trimToSize(maxBytes);
+        } finally {
+            mPooling = true;
+        }
+        mReusable.clear();
+    }
+
+    /**
+     * @return Hit, miss, eviction and reuse counts, for tuning the budget.
+     */
+    public synchronized String getStats() {
+        return String.format("FlagCache[size=%d/%d bytes, hits=%d, misses=%d, evictions=%d, reused=%d]",
+                mCache.size(), mCache.maxSize(), mCache.hitCount(), mCache.missCount(),
+                mCache.evictionCount(), mReuseCount);
+    }
+
+    /**
+     * @return Number of lookups that found their flag in the cache.
+     */
+    public int getHitCount() {
+        return mCache.hitCount();
+    }
+
+    /**
+     * @return Number of lookups that did not find their flag in the cache.
+     */
+    public int getMissCount() {
+        return mCache.missCount();
+    }
+
+    /**
+     * @return Number of flags evicted to stay within the budget.
+     */
+    public int getEvictionCount() {
+        return mCache.evictionCount();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            clear();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            // Running low or UI hidden: keep the most recent flags only
+            trimToSize(mCache.maxSize() / 2);
+        }
+        Log.i(TAG, "onTrimMemory(" + level + "): " + getStats());
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // Cached flags do not depend on the configuration
+    }
+}
@@ -0,0 +1,369 @@
+package edu.miracosta.cs134.flagquiz.image;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import edu.miracosta.cs134.flagquiz.BuildConfig;
+import edu.miracosta.cs134.flagquiz.metrics.Metric;
+import edu.miracosta.cs134.flagquiz.metrics.Metrics;
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.JSONLoader;
+
+/**
+ * Decodes flag images from the assets directory on a worker thread, downsampled to the size
+ * of the view that will show them.  The flag for the next question can be prefetched while
+ * the user is still answering the current one, so it is usually ready before it is needed.
+ * The smallest build-time {@link FlagVariants WebP variant} that fills the view is decoded
+ * (the original PNGs are not packaged), or, in builds with flag atlases, the flag is cut out
+ * of its region's atlas by an {@link AtlasDecoder}.  Decoded flags are kept in the shared {@link FlagCache}.
+ */
+public class FlagLoader {
+
+    private static final String TAG = "Flag Quiz";
+
+    /**
+     * Callback notified on the main thread once a flag has been decoded.
+     */
+    public interface OnFlagLoadedListener {
+
+        /**
+         * Called with the decoded flag.
+         * @param country The country whose flag was loaded.
+         * @param flag The decoded flag, or null if it could not be read.
+         */
+        void onFlagLoaded(Country country, Bitmap flag);
+    }
+
+    private final AssetManager mAssets;
+    private final FlagCache mCache;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService mExecutor;
+    private final Object mLock = new Object();
+
+    private volatile int mTargetWidth;
+    private volatile int mTargetHeight;
+    private volatile FlagVariants mVariants; // null until read, or if it could not be
+    private AtlasDecoder mAtlasDecoder;      // worker thread only, null unless atlases are used
+
+    private Request mCurrent;    // flag being shown (or about to be)
+    private Request mPrefetched; // flag for the next question
+
+    /**
+     * Creates a loader that decodes from the application's assets.
+     * @param context Any context of the application.
+     */
+    public FlagLoader(Context context) {
+        final Context appContext = context.getApplicationContext();
+        mAssets = appContext.getAssets();
+        mCache = FlagCache.getInstance(context);
+        mExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "FlagLoader");
+            }
+        });
+        // Runs before any decode, the worker thread handles tasks in order
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mVariants = FlagVariants.read(JSONLoader.mapAsset(appContext, FlagVariants.ASSET_NAME));
+                } catch (IOException e) {
+                    // Flags are only packaged as variants, so none can be shown without atlases
+                    Log.e(TAG, "Flag variants unavailable, flags cannot be loaded", e);
+                }
+                if (BuildConfig.FLAG_ATLAS) {
+                    try {
+                        mAtlasDecoder = new AtlasDecoder(mAssets,
+                                FlagAtlas.read(JSONLoader.mapAsset(appContext, FlagAtlas.ASSET_NAME)));
+                    } catch (IOException e) {
+                        Log.w(TAG, "Flag atlases unavailable, decoding one file per flag", e);
+                    }
+                }
+            }
+        });
+        int screenWidth = context.getResources().getDisplayMetrics().widthPixels;
+        setTargetSize(screenWidth, screenWidth);
+    }
+
+    /**
+     * Sets the size flags are decoded for.  Images are downsampled as far as possible while
+     * still covering this size.
+     * @param width The width of the target view, in pixels.
+     * @param height The height of the target view, in pixels.
+     */
+    public void setTargetSize(int width, int height) {
+        if (width > 0 && height > 0) {
+            mTargetWidth = width;
+            mTargetHeight = height;
+        }
+    }
+
+    /**
+     * Loads a country's flag.  If it is cached or has already been prefetched the listener is
+     * called immediately, otherwise it is called on the main thread once decoding finishes.  Any
+     * earlier load that has not been delivered yet is dropped.
+     * @param country The country whose flag should be loaded.
+     * @param listener Notified with the decoded flag.
+     */
+    public void load(Country country, OnFlagLoadedListener listener) {
+        String path = getPath(country);
+        Bitmap flag = path == null ? null : mCache.get(path);
+        boolean ready = flag != null;
+        synchronized (mLock) {
+            if (mCurrent != null) {
+                mCurrent.mListener = null;
+                mCurrent = null;
+            }
+            if (!ready) {
+                Request request;
+                if (mPrefetched != null && mPrefetched.mCountry.equals(country)) {
+                    request = mPrefetched;
+                    mPrefetched = null;
+                } else {
+                    request = new Request(country);
+                    mExecutor.execute(request);
+                }
+                ready = request.mDone;
+                if (ready) {
+                    flag = request.mFlag;
+                } else {
+                    request.mListener = listener;
+                    mCurrent = request;
+                }
+            }
+        }
+        // A prefetched flag that has already been decoded counts as a hit too
+        Metrics.increment(ready ? Metric.FLAG_CACHE_HIT : Metric.FLAG_CACHE_MISS);
+        if (ready) {
+            mCache.setInUse(flag);
+            listener.onFlagLoaded(country, flag);
+        }
+    }
+
+    /**
+     * Starts decoding a country's flag in the background so that a later {@link #load} for
+     * the same country does not have to wait.
+     * @param country The country whose flag will be needed next.
+     */
+    public void prefetch(Country country) {
+        synchronized (mLock) {
+            if (mPrefetched != null && mPrefetched.mCountry.equals(country)) {
+                return;
+            }
+            String path = getPath(country);
+            if (path != null && mCache.get(path) != null) {
+                mPrefetched = null;
+                return;
+            }
+            mPrefetched = new Request(country);
+            mExecutor.execute(mPrefetched);
+        }
+    }
+
+    /**
+     * Sets the region flags will come from, so only its atlas is kept open (no effect without
+     * atlases).
+     * @param region The region being quizzed on.
+     */
+    public void setRegion(final String region) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (mAtlasDecoder != null) {
+                    mAtlasDecoder.setRegion(region);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops the worker thread and drops any pending results.  The loader cannot be used afterwards.
+     */
+    public void shutdown() {
+        synchronized (mLock) {
+            if (mCurrent != null) {
+                mCurrent.mListener = null;
+            }
+            mCurrent = null;
+            mPrefetched = null;
+        }
+        // Pending decodes are skipped (see Request), the atlases are closed on the worker thread
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (mAtlasDecoder != null) {
+                    mAtlasDecoder.close();
+                }
+            }
+        });
+        mExecutor.shutdown();
+    }
+
+    /**
+     * @return The asset path of the image to decode for a country's flag at the current size, or
+     * null while the variants are not known (before they are read, or if they could not be).
+     */
+    private String getPath(Country country) {
+        FlagVariants variants = mVariants;
+        return variants == null ? null
+                : variants.resolve(country.getFileName(), mTargetWidth, mTargetHeight);
+    }
+
+    /**
+     * Decodes a flag from the assets directory, downsampled by the largest power of two that
+     * keeps it at least as big as the requested size.
+     *
+     * @param assets The assets to read from.
+     * @param fileName The asset path of the flag image (see {@link FlagVariants#resolve}).
+     * @param reqWidth The width the flag will be shown at, in pixels.
+     * @param reqHeight The height the flag will be shown at, in pixels.
+     * @param cache Cache to take a reusable bitmap from, may be null.
+     * @return The decoded (mutable) flag.
+     * @throws IOException If the flag cannot be read or decoded.
+     */
+    public static Bitmap decode(AssetManager assets, String fileName, int reqWidth, int reqHeight,
+                                FlagCache cache) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+
+        // First pass only reads the dimensions
+        options.inJustDecodeBounds = true;
+        InputStream stream = assets.open(fileName);
+        try {
+            BitmapFactory.decodeStream(stream, null, options);
+        } finally {
+            stream.close();
+        }
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight,
+                reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        if (cache != null) {
+            options.inBitmap = cache.takeReusable(
+                    (options.outWidth + options.inSampleSize - 1) / options.inSampleSize,
+                    (options.outHeight + options.inSampleSize - 1) / options.inSampleSize);
+        }
+        stream = assets.open(fileName);
+        try {
+            Bitmap flag;
+            try {
+                flag = BitmapFactory.decodeStream(stream, null, options);
+            } catch (IllegalArgumentException e) {
+                // The reused bitmap was not suitable after all, decode into a new one
+                stream.close();
+                stream = assets.open(fileName);
+                options.inBitmap = null;
+                flag = BitmapFactory.decodeStream(stream, null, options);
+            }
+            if (flag == null) {
+                throw new IOException("Could not decode " + fileName);
+            }
+            return flag;
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Works out the largest power of two sample size that keeps an image of the given size at
+     * least as large as the requested size.
+     */
+    static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            return inSampleSize;
+        }
+        while (width / (inSampleSize * 2) >= reqWidth && height / (inSampleSize * 2) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * A single flag decode, shared between prefetch and load.
+     */
+    private class Request implements Runnable {
+        final Country mCountry;
+        Bitmap mFlag;                    // guarded by mLock
+        boolean mDone;                   // guarded by mLock
+        OnFlagLoadedListener mListener;  // guarded by mLock
+
+        Request(Country country) {
+            mCountry = country;
+        }
+
+        @Override
+        public void run() {
+            if (mExecutor.isShutdown()) {
+                return;
+            }
+            // The variants have been read by now, tasks run in order
+            String fileName = getPath(mCountry);
+            Bitmap flag = fileName == null ? null : mCache.get(fileName);
+            if (flag == null) {
+                long start = Metrics.start(Metric.FLAG_DECODE);
+                try {
+                    if (mAtlasDecoder != null) {
+                        flag = mAtlasDecoder.decode(mCountry.getFileName(), mTargetWidth, mTargetHeight, mCache);
+                    }
+                    if (flag == null) {
+                        // Not in an atlas: only its variants are packaged, never the original PNG
+                        if (fileName == null) {
+                            throw new IOException("No flag variants to decode " + mCountry.getFileName());
+                        }
+                        flag = decode(mAssets, fileName, mTargetWidth, mTargetHeight, mCache);
+                    }
+                    if (fileName != null) {
+                        mCache.put(fileName, flag);
+                    }
+                } catch (IOException e) {
+                    Log.e(TAG, "Error loading flag of " + mCountry.getName(), e);
+                } finally {
+                    Metrics.stop(Metric.FLAG_DECODE, start);
+                }
+            }
+
+            final OnFlagLoadedListener listener;
+            synchronized (mLock) {
+                mFlag = flag;
+                mDone = true;
+                listener = mListener;
+                mListener = null;
+            }
+            if (listener != null) {
+                final Bitmap result = flag;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (mLock) {
+                            if (mCurrent != Request.this) {
+                                return; // superseded by a later load
+                            }
+                            mCache.setInUse(result);
+                        }
+                        listener.onFlagLoaded(mCountry, result);
+                    }
+                });
+            }
+        }
+    }
+}
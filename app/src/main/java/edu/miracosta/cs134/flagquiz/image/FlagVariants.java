@@ -0,0 +1,118 @@
+package edu.miracosta.cs134.flagquiz.image;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The WebP versions of every flag generated at build time (see the
+ * <code>generateFlagVariants</code> task), a few widths each.  {@link #resolve} picks the
+ * smallest one that still fills the view it is shown in, so no more bytes are read and decoded
+ * than the screen can show.
+ */
+public class FlagVariants {
+
+    /** Name of the variant manifest in the assets directory. */
+    public static final String ASSET_NAME = "flag_variants.bin";
+
+    private static final int MAGIC = 0x46515652; // 'FQVR'
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<String, Variant[]> mVariants; // PNG path -> variants, narrowest first
+
+    private FlagVariants(Map<String, Variant[]> variants) {
+        mVariants = variants;
+    }
+
+    /**
+     * Reads the variant manifest.
+     *
+     * @param buffer The file contents, from the current position.
+     * @return The variants of every flag.
+     * @throws IOException If the buffer does not contain a valid manifest.
+     */
+    public static FlagVariants read(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a flag variant manifest");
+            }
+            int version = in.getShort() & 0xFFFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported flag variant manifest version " + version);
+            }
+            int countries = in.getShort() & 0xFFFF;
+            Map<String, Variant[]> variants = new HashMap<>(countries * 2);
+            for (int i = 0; i < countries; i++) {
+                byte[] bytes = new byte[in.getShort() & 0xFFFF];
+                in.get(bytes);
+                String fileName = new String(bytes, UTF_8);
+                String base = "flags/" + fileName.substring(0, fileName.lastIndexOf('.')) + "_";
+
+                Variant[] sizes = new Variant[in.get() & 0xFF];
+                for (int v = 0; v < sizes.length; v++) {
+                    int width = in.getShort() & 0xFFFF;
+                    int height = in.getShort() & 0xFFFF;
+                    sizes[v] = new Variant(base + width + ".webp", width, height);
+                }
+                if (sizes.length > 0) {
+                    variants.put(fileName, sizes);
+                }
+            }
+            return new FlagVariants(variants);
+        } catch (BufferUnderflowException | StringIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt flag variant manifest", e);
+        }
+    }
+
+    /**
+     * Picks the variant of a flag to decode for a view of the given size.  Flags are scaled
+     * to fit the view keeping their aspect ratio, so a variant is big enough once either its
+     * width or its height reaches the view's.
+     *
+     * @param fileName The PNG path of the flag (see
+     *                 {@link edu.miracosta.cs134.flagquiz.model.Country#getFileName()}).
+     * @param reqWidth The width of the view, in pixels (0 if unknown).
+     * @param reqHeight The height of the view, in pixels (0 if unknown).
+     * @return The asset path of the smallest variant covering the view (the largest one if none
+     * does), or <code>fileName</code> itself if the flag has no variants.
+     */
+    public String resolve(String fileName, int reqWidth, int reqHeight) {
+        Variant[] variants = mVariants.get(fileName);
+        if (variants == null) {
+            return fileName;
+        }
+        if (reqWidth > 0 && reqHeight > 0) {
+            for (Variant variant : variants) {
+                if (variant.mWidth >= reqWidth || variant.mHeight >= reqHeight) {
+                    return variant.mPath;
+                }
+            }
+        }
+        return variants[variants.length - 1].mPath;
+    }
+
+    /**
+     * @return The number of flags that have variants.
+     */
+    public int size() {
+        return mVariants.size();
+    }
+
+    private static final class Variant {
+        final String mPath;
+        final int mWidth;
+        final int mHeight;
+
+        Variant(String path, int width, int height) {
+            mPath = path;
+            mWidth = width;
+            mHeight = height;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package edu.miracosta.cs134.flagquiz.metrics;
+
+import android.view.Choreographer;
+
+/**
+ * Records the time between frames with <code>Choreographer</code> while its activity is in the
+ * foreground and {@link Metrics} is enabled.  An interval of more than one and a half vsyncs
+ * means a frame was dropped, which is also counted as {@link Metric#JANKY_FRAME}.
+ *
+ * Use from the main thread only.
+ */
+public class FrameMonitor implements Choreographer.FrameCallback {
+
+    // 60 Hz: a frame every 16.7 ms, so anything above 25 ms missed a vsync
+    private static final long JANK_NANOS = 25000000L;
+
+    private boolean mRunning;
+    private long mLastFrame;
+
+    /**
+     * Starts recording frames, if measuring is on.
+     */
+    public void start() {
+        if (mRunning || !Metrics.isEnabled()) {
+            return;
+        }
+        mRunning = true;
+        mLastFrame = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Stops recording frames.
+     */
+    public void stop() {
+        if (mRunning) {
+            mRunning = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+        if (mLastFrame != 0) {
+            long interval = frameTimeNanos - mLastFrame;
+            Metrics.record(Metric.FRAME, interval);
+            if (interval > JANK_NANOS) {
+                Metrics.increment(Metric.JANKY_FRAME);
+            }
+        }
+        mLastFrame = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
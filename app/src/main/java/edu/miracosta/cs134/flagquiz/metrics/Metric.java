@@ -0,0 +1,64 @@
+package edu.miracosta.cs134.flagquiz.metrics;
+
+/**
+ * Everything {@link Metrics} measures.  Each metric is either a timer, whose durations go
+ * into a {@link Histogram}, or a counter.  The trace section names are built once here, so
+ * tracing a section allocates nothing.
+ */
+public enum Metric {
+    /** Inflating <code>activity_main</code> in <code>onCreate</code>. */
+    STARTUP_INFLATE("startup_inflate", true),
+    /** From the activity being created to the first flag on screen. */
+    STARTUP_FIRST_FLAG("startup_first_flag", true),
+    /** From the application being created to the first quiz being ready, in the background. */
+    STARTUP_WARMUP("startup_warmup", true),
+    /** Reading the country catalog, index or JSON. */
+    CATALOG_LOAD("catalog_load", true),
+    /** Drawing the countries of a new quiz and the choices of its first question. */
+    QUIZ_GENERATE("quiz_generate", true),
+    /** Picking the answer choices of a later question. */
+    QUESTION_SETUP("question_setup", true),
+    /** Decoding one flag, on the loader thread. */
+    FLAG_DECODE("flag_decode", true),
+    /** From a question being shown to its flag being ready, decode or cache hit. */
+    FLAG_LOAD("flag_load", true),
+    /** Flags found in the cache when a question is shown. */
+    FLAG_CACHE_HIT("flag_cache_hit", false),
+    /** Flags that had to be decoded (or waited for) when a question is shown. */
+    FLAG_CACHE_MISS("flag_cache_miss", false),
+    /** Time between consecutive frames while the quiz is on screen. */
+    FRAME("frame", true),
+    /** Frames that took long enough to skip at least one vsync. */
+    JANKY_FRAME("janky_frame", false);
+
+    private final String mName;
+    private final String mTraceName;
+    private final boolean mTimer;
+
+    Metric(String name, boolean timer) {
+        mName = name;
+        mTraceName = "FlagQuiz:" + name;
+        mTimer = timer;
+    }
+
+    /**
+     * @return The name of the metric in reports.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * @return The name of its <code>android.os.Trace</code> section.
+     */
+    public String getTraceName() {
+        return mTraceName;
+    }
+
+    /**
+     * @return True for a timer, false for a counter.
+     */
+    public boolean isTimer() {
+        return mTimer;
+    }
+}
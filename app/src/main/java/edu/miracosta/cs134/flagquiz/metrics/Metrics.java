@@ -0,0 +1,169 @@
+package edu.miracosta.cs134.flagquiz.metrics;
+
+import android.content.Context;
+import android.os.Trace;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Low-overhead timers and counters for the app, left in release builds and switched on at
+ * run time.  While disabled every call returns after reading one volatile flag, allocating
+ * nothing.  While enabled, timers also emit <code>android.os.Trace</code> sections, so they
+ * show up in systrace and Perfetto next to the framework's own.
+ *
+ * A timer is used as
+ * <pre>
+ * long start = Metrics.start(Metric.FLAG_DECODE);
+ * ...
+ * Metrics.stop(Metric.FLAG_DECODE, start);
+ * </pre>
+ * on one thread.  Durations that span threads are measured with {@link #now()} and
+ * {@link #recordSince}, without a trace section.
+ */
+public final class Metrics {
+
+    private static final String TAG = "Flag Quiz";
+
+    /** Name of the JSON report in the app's external files directory. */
+    public static final String JSON_REPORT = "metrics.json";
+    /** Name of the CSV report in the app's external files directory. */
+    public static final String CSV_REPORT = "metrics.csv";
+
+    private static final MetricsRegistry sRegistry = new MetricsRegistry();
+    private static volatile boolean sEnabled;
+
+    private Metrics() {
+    }
+
+    /**
+     * Switches measuring on or off.  Values already measured are kept.
+     * @param enabled True to measure.
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * @return The values measured so far.
+     */
+    public static MetricsRegistry getRegistry() {
+        return sRegistry;
+    }
+
+    /**
+     * Starts a timer and its trace section.
+     * @param metric A timer.
+     * @return The start time, to pass to {@link #stop}; 0 if measuring is off.
+     */
+    public static long start(Metric metric) {
+        if (!sEnabled) {
+            return 0;
+        }
+        Trace.beginSection(metric.getTraceName());
+        return System.nanoTime();
+    }
+
+    /**
+     * Stops a timer started on the same thread, and ends its trace section.
+     * @param metric The timer.
+     * @param start The value {@link #start} returned.
+     */
+    public static void stop(Metric metric, long start) {
+        if (start == 0) {
+            return;
+        }
+        long end = System.nanoTime();
+        Trace.endSection();
+        sRegistry.record(metric, end - start);
+    }
+
+    /**
+     * @return The current time for {@link #recordSince}, 0 if measuring is off.
+     */
+    public static long now() {
+        return sEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time since an earlier {@link #now()}, taken on any thread.
+     * @param metric A timer.
+     * @param start The earlier time, nothing is recorded if it is 0.
+     */
+    public static void recordSince(Metric metric, long start) {
+        if (start != 0 && sEnabled) {
+            sRegistry.record(metric, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a duration measured some other way.
+     * @param metric A timer.
+     * @param nanos The duration in nanoseconds.
+     */
+    public static void record(Metric metric, long nanos) {
+        if (sEnabled) {
+            sRegistry.record(metric, nanos);
+        }
+    }
+
+    /**
+     * Adds one to a counter.
+     * @param metric A counter.
+     */
+    public static void increment(Metric metric) {
+        if (sEnabled) {
+            sRegistry.add(metric, 1);
+        }
+    }
+
+    /**
+     * Writes the JSON and CSV reports on a background thread, to the app's external files
+     * directory (<code>adb pull /sdcard/Android/data/&lt;package&gt;/files/metrics.json</code>), or
+     * its internal one if there is no external storage.
+     * @param context Any context of the app.
+     */
+    public static void dumpAsync(Context context) {
+        File directory = context.getExternalFilesDir(null);
+        final File dir = directory != null ? directory : context.getFilesDir();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    dump(dir);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not write metrics to " + dir, e);
+                }
+            }
+        }, "MetricsDump").start();
+    }
+
+    /**
+     * Writes the JSON and CSV reports.
+     * @param dir The directory to write them to.
+     * @throws IOException If a report cannot be written.
+     */
+    public static void dump(File dir) throws IOException {
+        Writer json = new OutputStreamWriter(new FileOutputStream(new File(dir, JSON_REPORT)), "UTF-8");
+        try {
+            sRegistry.writeJson(json);
+        } finally {
+            json.close();
+        }
+        Writer csv = new OutputStreamWriter(new FileOutputStream(new File(dir, CSV_REPORT)), "UTF-8");
+        try {
+            sRegistry.writeCsv(csv);
+        } finally {
+            csv.close();
+        }
+        Log.i(TAG, "Metrics written to " + dir);
+    }
+}
@@ -0,0 +1,134 @@
+package edu.miracosta.cs134.flagquiz.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The values of every {@link Metric}: a {@link Histogram} per timer and a count per counter,
+ * all allocated up front so that recording allocates nothing.  Safe to use from any thread.
+ * Reports are written as JSON or CSV, with durations in milliseconds.
+ */
+public class MetricsRegistry {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final Histogram[] mTimers = new Histogram[Metric.values().length];
+    private final AtomicLongArray mCounters = new AtomicLongArray(Metric.values().length);
+
+    public MetricsRegistry() {
+        for (Metric metric : Metric.values()) {
+            if (metric.isTimer()) {
+                mTimers[metric.ordinal()] = new Histogram();
+            }
+        }
+    }
+
+    /**
+     * Adds a duration to a timer.
+     * @param metric A timer.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(Metric metric, long nanos) {
+        mTimers[metric.ordinal()].record(nanos);
+    }
+
+    /**
+     * Adds to a counter.
+     * @param metric A counter.
+     * @param delta The amount to add.
+     */
+    public void add(Metric metric, long delta) {
+        mCounters.addAndGet(metric.ordinal(), delta);
+    }
+
+    /**
+     * @param metric A timer.
+     * @return Its durations, in nanoseconds.
+     */
+    public Histogram getHistogram(Metric metric) {
+        return mTimers[metric.ordinal()];
+    }
+
+    /**
+     * @param metric A counter.
+     * @return Its value.
+     */
+    public long getCount(Metric metric) {
+        return mCounters.get(metric.ordinal());
+    }
+
+    /**
+     * Sets every metric back to zero.
+     */
+    public void reset() {
+        for (Metric metric : Metric.values()) {
+            if (metric.isTimer()) {
+                mTimers[metric.ordinal()].reset();
+            } else {
+                mCounters.set(metric.ordinal(), 0);
+            }
+        }
+    }
+
+    /**
+     * Writes every metric as a JSON object: <code>{"timers": {...}, "counters": {...}}</code>.
+     * @param out Where to write.
+     * @throws IOException If writing fails.
+     */
+    public void writeJson(Writer out) throws IOException {
+        out.write("{\n  \"timers\": {");
+        boolean first = true;
+        for (Metric metric : Metric.values()) {
+            if (metric.isTimer()) {
+                Histogram histogram = getHistogram(metric);
+                out.write(first ? "\n" : ",\n");
+                out.write(String.format(Locale.US, "    \"%s\": {\"count\": %d, \"mean_ms\": %.3f, "
+                                + "\"min_ms\": %.3f, \"p50_ms\": %.3f, \"p90_ms\": %.3f, "
+                                + "\"p99_ms\": %.3f, \"max_ms\": %.3f}",
+                        metric.getName(), histogram.getCount(), millis(histogram.getMean()),
+                        millis(histogram.getMin()), millis(histogram.getPercentile(0.5)),
+                        millis(histogram.getPercentile(0.9)), millis(histogram.getPercentile(0.99)),
+                        millis(histogram.getMax())));
+                first = false;
+            }
+        }
+        out.write("\n  },\n  \"counters\": {");
+        first = true;
+        for (Metric metric : Metric.values()) {
+            if (!metric.isTimer()) {
+                out.write(first ? "\n" : ",\n");
+                out.write(String.format(Locale.US, "    \"%s\": %d", metric.getName(), getCount(metric)));
+                first = false;
+            }
+        }
+        out.write("\n  }\n}\n");
+    }
+
+    /**
+     * Writes every metric as CSV, one row per metric.  Counters only fill in the count column.
+     * @param out Where to write.
+     * @throws IOException If writing fails.
+     */
+    public void writeCsv(Writer out) throws IOException {
+        out.write("metric,type,count,mean_ms,min_ms,p50_ms,p90_ms,p99_ms,max_ms\n");
+        for (Metric metric : Metric.values()) {
+            if (metric.isTimer()) {
+                Histogram histogram = getHistogram(metric);
+                out.write(String.format(Locale.US, "%s,timer,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n",
+                        metric.getName(), histogram.getCount(), millis(histogram.getMean()),
+                        millis(histogram.getMin()), millis(histogram.getPercentile(0.5)),
+                        millis(histogram.getPercentile(0.9)), millis(histogram.getPercentile(0.99)),
+                        millis(histogram.getMax())));
+            } else {
+                out.write(String.format(Locale.US, "%s,counter,%d,,,,,,\n",
+                        metric.getName(), getCount(metric)));
+            }
+        }
+    }
+
+    private static double millis(double nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -1,23 +1,65 @@
 package edu.miracosta.cs134.flagquiz.model;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.JsonReader;
 import android.util.Log;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.miracosta.cs134.flagquiz.metrics.Metric;
+import edu.miracosta.cs134.flagquiz.metrics.Metrics;
+import edu.miracosta.cs134.flagquiz.quiz.FlagSimilarity;
 
 /**
  * Class loads Country data from a formatted JSON (JavaScript Object Notation) file.
  * Populates data model (Country) with data.
+ *
+ * The file is read with a streaming pull parser, so each <code>Country</code> is created as
+ * soon as its object has been read, without first copying the whole file into a
+ * <code>String</code> or building a JSON tree.
  */
 public class JSONLoader {
 
+    private static final String TAG = "Flag Quiz";
+
+    /** Name of the catalog file in the assets directory. */
+    public static final String COUNTRIES_ASSET = "Countries.json";
+
+    // Expected catalog size, avoids growing the list while parsing
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static ExecutorService sExecutor;
+
+    /**
+     * Callback notified on the main thread once the flag look-alikes have been loaded.
+     */
+    public interface OnFlagSimilarityLoadedListener {
+
+        /**
+         * Called with the look-alike data (not called if it could not be read).
+         * @param similarity The precomputed flag similarity.
+         */
+        void onFlagSimilarityLoaded(FlagSimilarity similarity);
+    }
+
     /**
      * Loads JSON data from a file in the assets directory.
      *
@@ -25,37 +67,252 @@ public class JSONLoader {
      * @throws IOException If there is an error reading from the JSON file.
      */
     public static List<Country> loadJSONFromAsset(Context context) throws IOException {
-        List<Country> allCountriesList = new ArrayList<>();
-        String json = null;
-        InputStream is = context.getAssets().open("Countries.json");
-        int size = is.available();
-        byte[] buffer = new byte[size];
-        is.read(buffer);
-        is.close();
-        json = new String(buffer, "UTF-8");
+        InputStream is = context.getAssets().open(COUNTRIES_ASSET);
+        try {
+            return readCountries(is);
+        } finally {
+            is.close();
+        }
+    }
 
+    /**
+     * Loads the countries from the precompiled binary index in the assets directory.
+     *
+     * @param context The activity from which the data is loaded.
+     * @throws IOException If the index is missing or cannot be read.
+     */
+    public static List<Country> loadIndexFromAsset(Context context) throws IOException {
+        return CountryIndex.read(mapAsset(context, CountryIndex.ASSET_NAME));
+    }
+
+    /**
+     * Loads the precomputed flag look-alikes from the assets directory.
+     *
+     * @param context The activity from which the data is loaded.
+     * @throws IOException If the file is missing or cannot be read.
+     */
+    public static FlagSimilarity loadFlagSimilarityFromAsset(Context context) throws IOException {
+        return FlagSimilarity.read(mapAsset(context, FlagSimilarity.ASSET_NAME));
+    }
+
+    /**
+     * Loads the country names of a locale from the most specific table in the assets (see
+     * {@link CountryNames#getAssetNames}), or uses the catalog names if there is none.
+     *
+     * @param context The activity from which the data is loaded.
+     * @param countries The catalog.
+     * @param locale The locale of the names.
+     * @throws IOException If a table exists but cannot be read.
+     */
+    public static CountryNames loadCountryNames(Context context, List<Country> countries, Locale locale)
+            throws IOException {
+        for (String name : CountryNames.getAssetNames(locale)) {
+            ByteBuffer table;
+            try {
+                table = mapAsset(context, name);
+            } catch (FileNotFoundException e) {
+                continue;
+            }
+            return CountryNames.read(table, countries, locale);
+        }
+        return CountryNames.fromCatalog(countries, locale);
+    }
+
+    /**
+     * Gets the contents of a binary asset.  Assets stored uncompressed are memory-mapped
+     * straight from the APK, others are read into memory.
+     *
+     * @param context The activity from which the data is loaded.
+     * @param name The name of the asset.
+     * @throws IOException If the asset is missing or cannot be read.
+     */
+    public static ByteBuffer mapAsset(Context context, String name) throws IOException {
+        AssetManager assets = context.getAssets();
         try {
-            JSONObject jsonRootObject = new JSONObject(json);
-            JSONArray allCountriesJSON = jsonRootObject.getJSONArray("Countries");
+            AssetFileDescriptor afd = assets.openFd(name);
+            FileInputStream in = afd.createInputStream();
+            try {
+                return in.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                        afd.getStartOffset(), afd.getLength());
+            } finally {
+                in.close();
+            }
+        } catch (FileNotFoundException e) {
+            // openFd fails for compressed assets, read it the slow way instead
+            InputStream is = assets.open(name);
+            try {
+                return ByteBuffer.wrap(readFully(is));
+            } finally {
+                is.close();
+            }
+        }
+    }
 
-            // DONE: Loop through all the countries in the JSON data, create a Country
-            // DONE: object for each and add the object to the allCountriesList
-            JSONObject countryJSON;
-            int count = allCountriesJSON.length();
-            String name, region;
+    /**
+     * Loads the countries, preferring the precompiled index and falling back to the JSON file
+     * if the index is not available.
+     *
+     * @param context The activity from which the data is loaded.
+     * @throws IOException If neither the index nor the JSON file can be read.
+     */
+    public static List<Country> loadCountries(Context context) throws IOException {
+        long start = Metrics.start(Metric.CATALOG_LOAD);
+        try {
+            return loadIndexFromAsset(context);
+        } catch (IOException e) {
+            Log.w(TAG, "Country index unavailable, parsing " + COUNTRIES_ASSET, e);
+            return loadJSONFromAsset(context);
+        } finally {
+            Metrics.stop(Metric.CATALOG_LOAD, start);
+        }
+    }
 
-            for (int i = 0; i < count; i++)
-            {
-                countryJSON = allCountriesJSON.getJSONObject(i);
-                name = countryJSON.getString("Name");
-                region = countryJSON.getString("Region");
-                allCountriesList.add(new Country(name, region)); // adding json objects to local list
+    /**
+     * Loads the precomputed flag look-alikes on a background thread.  The listener is called on
+     * the main thread when the load finishes.
+     *
+     * @param context The activity from which the data is loaded.
+     * @param listener Notified on the main thread with the result, may be null.
+     * @return A <code>Future</code> that can be used to wait for (or cancel) the load.
+     */
+    public static Future<FlagSimilarity> loadFlagSimilarityAsync(Context context,
+                                                                 final OnFlagSimilarityLoadedListener listener) {
+        final Context appContext = context.getApplicationContext();
+        return submit(new Callable<FlagSimilarity>() {
+            @Override
+            public FlagSimilarity call() throws IOException {
+                return loadFlagSimilarityFromAsset(appContext);
+            }
+        }, listener == null ? null : new Result<FlagSimilarity>() {
+            @Override
+            public void onSuccess(FlagSimilarity similarity) {
+                listener.onFlagSimilarityLoaded(similarity);
             }
 
-        } catch (JSONException e) {
-            Log.e("Flag Quiz", e.getMessage());
+            @Override
+            public void onFailure(IOException e) {
+                Log.w(TAG, "Flag similarity unavailable, look-alike distractors disabled", e);
+            }
+        });
+    }
+
+    /**
+     * Runs a load on the background thread and reports its result on the main thread.
+     */
+    private static <T> Future<T> submit(final Callable<T> load, final Result<T> result) {
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        return getExecutor().submit(new Callable<T>() {
+            @Override
+            public T call() throws IOException {
+                try {
+                    final T value = load.call();
+                    if (result != null) {
+                        mainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                result.onSuccess(value);
+                            }
+                        });
+                    }
+                    return value;
+                } catch (Exception e) {
+                    // A corrupt asset can also fail with a runtime exception, report it the same way
+                    final IOException error = e instanceof IOException ? (IOException) e : new IOException(e);
+                    if (result != null) {
+                        mainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                result.onFailure(error);
+                            }
+                        });
+                    }
+                    throw error;
+                }
+            }
+        });
+    }
+
+    private interface Result<T> {
+        void onSuccess(T value);
+
+        void onFailure(IOException e);
+    }
+
+    /**
+     * Reads all the countries from a stream containing the JSON catalog.  The stream is read
+     * through a buffered reader until the end of the document, so short reads are handled.
+     *
+     * @param is The stream to read from (not closed by this method).
+     * @return The countries in the order they appear in the catalog.
+     * @throws IOException If the stream cannot be read or is not a valid catalog.
+     */
+    public static List<Country> readCountries(InputStream is) throws IOException {
+        List<Country> allCountriesList = new ArrayList<>(INITIAL_CAPACITY);
+        JsonReader reader = new JsonReader(new InputStreamReader(is, "UTF-8"));
+
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("Countries".equals(reader.nextName())) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        // adding json objects to local list
+                        allCountriesList.add(readCountry(reader, allCountriesList.size()));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            // JsonReader reports unexpected tokens and malformed numbers this way
+            throw new IOException("Malformed country catalog", e);
         }
 
         return allCountriesList;
     }
+
+    private static Country readCountry(JsonReader reader, int id) throws IOException {
+        String name = null, region = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("Name".equals(key)) {
+                name = reader.nextString();
+            } else if ("Region".equals(key)) {
+                region = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (name == null || region == null) {
+            throw new IOException("Country entry is missing a Name or Region");
+        }
+        Region knownRegion = Region.find(region);
+        if (knownRegion == null) {
+            throw new IOException("Unknown region " + region + " for " + name);
+        }
+        return new Country(id, name, knownRegion);
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = is.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor();
+        }
+        return sExecutor;
+    }
 }
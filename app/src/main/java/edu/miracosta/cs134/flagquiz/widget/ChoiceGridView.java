@@ -0,0 +1,198 @@
+package edu.miracosta.cs134.flagquiz.widget;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.R;
+
+/**
+ * The answer buttons, laid out in rows of {@link #setColumns columns}; a last row that is not
+ * full is shared out between its buttons.  There are exactly as many buttons as choices:
+ * buttons dropped when the count goes down are kept and reused when it goes back up, so any
+ * count works without a view per possible choice in the layout.
+ *
+ * Every button gets a fixed width and height in pixels (two lines of text, the longest names
+ * are ellipsized), so changing a label only redraws its button.  A new question therefore
+ * costs no layout pass unless its number of choices differs from the last one.
+ */
+public class ChoiceGridView extends ViewGroup {
+
+    /**
+     * Callback notified when an answer button is clicked.
+     */
+    public interface OnChoiceClickListener {
+
+        /**
+         * @param choice The index of the clicked choice.
+         */
+        void onChoiceClick(int choice);
+    }
+
+    private static final int LINES = 2;
+
+    private final LayoutInflater mInflater;
+    private final List<Button> mScrap = new ArrayList<>(); // buttons removed from the grid
+    private int mColumns;
+    private int mRowHeight;
+    private OnChoiceClickListener mListener;
+
+    private final OnClickListener mClickListener = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            int choice = indexOfChild(v);
+            if (mListener != null && choice >= 0) {
+                mListener.onChoiceClick(choice);
+            }
+        }
+    };
+
+    public ChoiceGridView(Context context) {
+        this(context, null);
+    }
+
+    public ChoiceGridView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        mInflater = LayoutInflater.from(context);
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.ChoiceGridView);
+        try {
+            mColumns = Math.max(1, a.getInt(R.styleable.ChoiceGridView_columns, 2));
+        } finally {
+            a.recycle();
+        }
+    }
+
+    /**
+     * @param listener Notified when a button is clicked, or null.
+     */
+    public void setOnChoiceClickListener(OnChoiceClickListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * @param columns The number of buttons per row.
+     */
+    public void setColumns(int columns) {
+        columns = Math.max(1, columns);
+        if (columns != mColumns) {
+            mColumns = columns;
+            requestLayout();
+        }
+    }
+
+    /**
+     * Adds or removes buttons so that there is one per choice.  Only a change in the count
+     * needs a new layout.
+     * @param count The number of choices.
+     */
+    public void setChoiceCount(int count) {
+        int current = getChildCount();
+        if (count < current) {
+            for (int i = current - 1; i >= count; i--) {
+                mScrap.add((Button) getChildAt(i));
+            }
+            removeViews(count, current - count);
+        } else {
+            for (int i = current; i < count; i++) {
+                addView(mScrap.isEmpty() ? createButton() : mScrap.remove(mScrap.size() - 1));
+            }
+        }
+    }
+
+    /**
+     * @return The number of choices.
+     */
+    public int getChoiceCount() {
+        return getChildCount();
+    }
+
+    /**
+     * Shows a choice.  Nothing is redrawn if it has not changed.
+     * @param choice The index of the choice, below {@link #getChoiceCount()}.
+     * @param label The text of its button.
+     * @param enabled False if the choice can no longer be guessed.
+     */
+    public void setChoice(int choice, CharSequence label, boolean enabled) {
+        Button button = (Button) getChildAt(choice);
+        if (!TextUtils.equals(button.getText(), label)) {
+            button.setText(label);
+        }
+        button.setEnabled(enabled);
+    }
+
+    private Button createButton() {
+        Button button = (Button) mInflater.inflate(R.layout.choice_button, this, false);
+        button.setOnClickListener(mClickListener);
+        return button;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? getSuggestedMinimumWidth() : MeasureSpec.getSize(widthMeasureSpec);
+        int contentWidth = Math.max(0, width - getPaddingLeft() - getPaddingRight());
+        int count = getChildCount();
+        mRowHeight = count == 0 ? 0 : rowHeight((Button) getChildAt(0));
+
+        for (int i = 0; i < count; i++) {
+            View child = getChildAt(i);
+            int column = i % mColumns;
+            int inRow = Math.min(mColumns, count - (i - column));
+            int cellWidth = cellLeft(column + 1, inRow, contentWidth) - cellLeft(column, inRow, contentWidth);
+            // Exact sizes, so that setText on the button only invalidates it
+            LayoutParams params = child.getLayoutParams();
+            params.width = cellWidth;
+            params.height = mRowHeight;
+            child.measure(MeasureSpec.makeMeasureSpec(cellWidth, MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(mRowHeight, MeasureSpec.EXACTLY));
+        }
+
+        int rows = (count + mColumns - 1) / mColumns;
+        int height = rows * mRowHeight + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        int contentWidth = Math.max(0, r - l - getPaddingLeft() - getPaddingRight());
+        int count = getChildCount();
+        for (int i = 0; i < count; i++) {
+            int column = i % mColumns;
+            int inRow = Math.min(mColumns, count - (i - column));
+            int left = getPaddingLeft() + cellLeft(column, inRow, contentWidth);
+            int right = getPaddingLeft() + cellLeft(column + 1, inRow, contentWidth);
+            int top = getPaddingTop() + i / mColumns * mRowHeight;
+            getChildAt(i).layout(left, top, right, top + mRowHeight);
+        }
+    }
+
+    /**
+     * @return The left edge of a cell, relative to the content area.  Spreading the edges
+     * evenly hands out the pixels left over by the division.
+     */
+    private static int cellLeft(int column, int inRow, int contentWidth) {
+        return contentWidth * column / inRow;
+    }
+
+    /**
+     * @return The height of two lines of text on a button, whatever its label.
+     */
+    private static int rowHeight(Button button) {
+        int text = button.getLineHeight() * LINES + button.getCompoundPaddingTop()
+                + button.getCompoundPaddingBottom();
+        return Math.max(button.getMinimumHeight(), text);
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+package edu.miracosta.cs134.flagquiz.image;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks reading the atlas coordinate table.
+ */
+public class FlagAtlasTest {
+
+    private FlagAtlas mAtlas;
+
+    @Before
+    public void setUp() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x46514154);
+        out.writeShort(1);
+        out.writeByte(2);
+        writeString(out, "atlas/North_America.webp");
+        out.writeShort(2);
+        writeString(out, "North_America/North_America-Canada.png");
+        writeShorts(out, 0, 0, 512, 256);
+        writeString(out, "North_America/North_America-Cuba.png");
+        writeShorts(out, 512, 0, 512, 256);
+        writeString(out, "atlas/Oceania.webp");
+        out.writeShort(1);
+        writeString(out, "Oceania/Oceania-Fiji.png");
+        writeShorts(out, 0, 0, 512, 256);
+        mAtlas = FlagAtlas.read(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeShorts(DataOutputStream out, int... values) throws IOException {
+        for (int value : values) {
+            out.writeShort(value);
+        }
+    }
+
+    @Test
+    public void get_returnsSlotInRegionAtlas() {
+        assertEquals(3, mAtlas.size());
+        FlagAtlas.Slot cuba = mAtlas.get("North_America/North_America-Cuba.png");
+        assertEquals("atlas/North_America.webp", cuba.atlasPath);
+        assertEquals(512, cuba.left);
+        assertEquals(0, cuba.top);
+        assertEquals(512, cuba.width);
+        assertEquals(256, cuba.height);
+        assertNull(mAtlas.get("Europe/Europe-France.png"));
+    }
+
+    @Test
+    public void getAtlasPath_mapsRegionNames() {
+        assertEquals("atlas/North_America.webp", mAtlas.getAtlasPath("North America"));
+        assertEquals("atlas/Oceania.webp", mAtlas.getAtlasPath("Oceania"));
+        assertNull(mAtlas.getAtlasPath("Europe"));
+    }
+}
@@ -0,0 +1,75 @@
+package edu.miracosta.cs134.flagquiz.image;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks which WebP variant is picked for a view of a given size.
+ */
+public class FlagVariantsTest {
+
+    private static final String CANADA = "North_America/North_America-Canada.png";
+    private static final String NEPAL = "Asia/Asia-Nepal.png";
+
+    private FlagVariants mVariants;
+
+    @Before
+    public void setUp() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x46515652);
+        out.writeShort(1);
+        out.writeShort(3);
+        writeEntry(out, CANADA, 128, 64, 256, 128, 512, 256);
+        writeEntry(out, NEPAL, 128, 157, 200, 245); // narrower than 256, tall
+        writeEntry(out, "Europe/Europe-Nowhere.png");
+        mVariants = FlagVariants.read(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    private static void writeEntry(DataOutputStream out, String fileName, int... sizes) throws IOException {
+        byte[] name = fileName.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(name.length);
+        out.write(name);
+        out.writeByte(sizes.length / 2);
+        for (int size : sizes) {
+            out.writeShort(size);
+        }
+    }
+
+    @Test
+    public void resolve_picksSmallestVariantCoveringTheView() {
+        assertEquals("flags/North_America/North_America-Canada_128.webp",
+                mVariants.resolve(CANADA, 100, 100));
+        assertEquals("flags/North_America/North_America-Canada_256.webp",
+                mVariants.resolve(CANADA, 200, 1000));
+        // Height alone is enough for a wide view
+        assertEquals("flags/Asia/Asia-Nepal_128.webp", mVariants.resolve(NEPAL, 1000, 150));
+    }
+
+    @Test
+    public void resolve_fallsBackToLargestVariant() {
+        assertEquals("flags/North_America/North_America-Canada_512.webp",
+                mVariants.resolve(CANADA, 1080, 1080));
+        assertEquals("flags/Asia/Asia-Nepal_200.webp", mVariants.resolve(NEPAL, 0, 0));
+    }
+
+    @Test
+    public void resolve_keepsFileNameWithoutVariants() {
+        assertEquals(2, mVariants.size());
+        assertEquals("Europe/Europe-Nowhere.png", mVariants.resolve("Europe/Europe-Nowhere.png", 100, 100));
+        assertEquals("Oceania/Oceania-Fiji.png", mVariants.resolve("Oceania/Oceania-Fiji.png", 100, 100));
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherFiles() throws IOException {
+        FlagVariants.read(ByteBuffer.wrap(new byte[]{'F', 'Q', 'S', 'M', 0, 1}));
+    }
+}
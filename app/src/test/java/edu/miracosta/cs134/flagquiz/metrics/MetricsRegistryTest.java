@@ -0,0 +1,56 @@
+package edu.miracosta.cs134.flagquiz.metrics;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link MetricsRegistry}.
+ */
+public class MetricsRegistryTest {
+
+    @Test
+    public void recordAndAdd_goToTheirMetric() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.record(Metric.FLAG_DECODE, 2000000);
+        registry.record(Metric.FLAG_DECODE, 4000000);
+        registry.add(Metric.FLAG_CACHE_HIT, 3);
+        registry.add(Metric.FLAG_CACHE_HIT, 1);
+
+        assertEquals(2, registry.getHistogram(Metric.FLAG_DECODE).getCount());
+        assertEquals(0, registry.getHistogram(Metric.FLAG_LOAD).getCount());
+        assertEquals(4, registry.getCount(Metric.FLAG_CACHE_HIT));
+        assertEquals(0, registry.getCount(Metric.FLAG_CACHE_MISS));
+
+        registry.reset();
+        assertEquals(0, registry.getHistogram(Metric.FLAG_DECODE).getCount());
+        assertEquals(0, registry.getCount(Metric.FLAG_CACHE_HIT));
+    }
+
+    @Test
+    public void reports_listEveryMetric() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.record(Metric.CATALOG_LOAD, 1500000);
+        registry.add(Metric.JANKY_FRAME, 2);
+
+        StringWriter json = new StringWriter();
+        registry.writeJson(json);
+        assertTrue(json.toString(), json.toString().contains(
+                "\"catalog_load\": {\"count\": 1, \"mean_ms\": 1.500, \"min_ms\": 1.500"));
+        assertTrue(json.toString(), json.toString().contains("\"janky_frame\": 2"));
+
+        StringWriter csv = new StringWriter();
+        registry.writeCsv(csv);
+        String[] lines = csv.toString().split("\n");
+        assertEquals(Metric.values().length + 1, lines.length);
+        assertEquals("metric,type,count,mean_ms,min_ms,p50_ms,p90_ms,p99_ms,max_ms", lines[0]);
+        for (Metric metric : Metric.values()) {
+            String line = lines[metric.ordinal() + 1];
+            assertTrue(line, line.startsWith(metric.getName() + (metric.isTimer() ? ",timer," : ",counter,")));
+            assertEquals(line, 9, line.split(",", -1).length);
+        }
+    }
+}
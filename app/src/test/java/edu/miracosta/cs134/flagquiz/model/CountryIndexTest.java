@@ -0,0 +1,80 @@
+package edu.miracosta.cs134.flagquiz.model;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the binary country index generated by the build matches <code>Countries.json</code>
+ * entry for entry.
+ */
+public class CountryIndexTest {
+
+    private List<Country> mJsonCountries;
+    private List<Country> mIndexCountries;
+
+    @Before
+    public void setUp() throws Exception {
+        File catalog = new File(System.getProperty("flagquiz.catalog",
+                "src/main/assets/Countries.json"));
+        File index = new File(System.getProperty("flagquiz.countryIndex",
+                "build/generated/flagquiz/assets/countryIndex/countries.idx"));
+
+        // Parse the JSON the way the original loader did, including its file name derivation
+        JSONArray array = new JSONObject(new String(Files.readAllBytes(catalog.toPath()),
+                StandardCharsets.UTF_8)).getJSONArray("Countries");
+        mJsonCountries = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject country = array.getJSONObject(i);
+            mJsonCountries.add(new Country(i, country.getString("Name"),
+                    Region.find(country.getString("Region"))));
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(index, "r")) {
+            mIndexCountries = CountryIndex.read(
+                    file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length()));
+        }
+    }
+
+    @Test
+    public void index_matchesJsonCatalog() {
+        assertEquals(mJsonCountries.size(), mIndexCountries.size());
+        for (int i = 0; i < mJsonCountries.size(); i++) {
+            Country expected = mJsonCountries.get(i);
+            Country actual = mIndexCountries.get(i);
+            assertEquals("name of entry " + i, expected.getName(), actual.getName());
+            assertEquals("id of entry " + i, i, actual.getId());
+            assertSame("region of entry " + i, expected.getRegion(), actual.getRegion());
+            assertEquals("file name of entry " + i, expected.getFileName(), actual.getFileName());
+        }
+    }
+
+    @Test
+    public void index_countriesEqualJsonCountries() {
+        for (int i = 0; i < mJsonCountries.size(); i++) {
+            assertEquals(mJsonCountries.get(i), mIndexCountries.get(i));
+            assertEquals(mJsonCountries.get(i).hashCode(), mIndexCountries.get(i).hashCode());
+            if (i > 0) {
+                assertNotEquals(mIndexCountries.get(i - 1), mIndexCountries.get(i));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherData() throws IOException {
+        CountryIndex.read(ByteBuffer.wrap("{\"Countries\":[]}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
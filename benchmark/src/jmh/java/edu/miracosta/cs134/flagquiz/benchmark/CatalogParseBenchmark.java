@@ -0,0 +1,40 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+
+/**
+ * Parsing the country catalog: the original read-everything-then-build-a-tree loader against
+ * the streaming reader <code>JSONLoader.readCountries</code> uses now.
+ */
+@State(Scope.Benchmark)
+public class CatalogParseBenchmark {
+
+    @Param({"230", "10000", "1000000"})
+    public int catalogSize;
+
+    private byte[] mJson;
+
+    @Setup
+    public void setUp() {
+        mJson = Catalogs.json(catalogSize);
+    }
+
+    @Benchmark
+    public List<LegacyCountry> dom() throws IOException {
+        return Legacy.parseDom(Legacy.stream(mJson));
+    }
+
+    @Benchmark
+    public List<Country> streaming() throws IOException {
+        return Legacy.parseStreaming(Legacy.stream(mJson));
+    }
+}
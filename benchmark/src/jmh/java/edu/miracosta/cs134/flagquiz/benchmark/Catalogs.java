@@ -0,0 +1,100 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+/**
+ * Catalogs of any size for the benchmarks, made by repeating the entries of the real
+ * <code>Countries.json</code> (with a numeric suffix to keep names unique).  The regions
+ * therefore keep their real proportions.
+ */
+final class Catalogs {
+
+    private static List<String[]> sRealEntries;
+
+    private Catalogs() {
+    }
+
+    /**
+     * @return Name and region of every entry in the real catalog.
+     */
+    static synchronized List<String[]> realEntries() {
+        if (sRealEntries == null) {
+            File file = new File(System.getProperty("flagquiz.catalog",
+                    "../app/src/main/assets/Countries.json"));
+            try {
+                JSONArray countries = new JSONObject(new String(Files.readAllBytes(file.toPath()),
+                        StandardCharsets.UTF_8)).getJSONArray("Countries");
+                List<String[]> entries = new ArrayList<>(countries.length());
+                for (int i = 0; i < countries.length(); i++) {
+                    JSONObject country = countries.getJSONObject(i);
+                    entries.add(new String[]{country.getString("Name"), country.getString("Region")});
+                }
+                sRealEntries = entries;
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read " + file, e);
+            }
+        }
+        return sRealEntries;
+    }
+
+    /**
+     * @return Name and region of <code>size</code> entries.
+     */
+    static List<String[]> entries(int size) {
+        List<String[]> real = realEntries();
+        List<String[]> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String[] entry = real.get(i % real.size());
+            int copy = i / real.size();
+            entries.add(copy == 0 ? entry : new String[]{entry[0] + " " + copy, entry[1]});
+        }
+        return entries;
+    }
+
+    /**
+     * @return A catalog of <code>size</code> countries.
+     */
+    static List<Country> countries(int size) {
+        List<Country> countries = new ArrayList<>(size);
+        for (String[] entry : entries(size)) {
+            countries.add(new Country(countries.size(), entry[0], Region.find(entry[1])));
+        }
+        return countries;
+    }
+
+    /**
+     * @return A catalog of <code>size</code> countries in the original model.
+     */
+    static List<LegacyCountry> legacyCountries(int size) {
+        List<LegacyCountry> countries = new ArrayList<>(size);
+        for (String[] entry : entries(size)) {
+            countries.add(new LegacyCountry(entry[0], entry[1]));
+        }
+        return countries;
+    }
+
+    /**
+     * @return A <code>Countries.json</code> document with <code>size</code> countries.
+     */
+    static byte[] json(int size) {
+        StringBuilder json = new StringBuilder(size * 64).append("{\n  \"Countries\": [\n");
+        List<String[]> entries = entries(size);
+        for (int i = 0; i < entries.size(); i++) {
+            json.append("      {\n        \"Name\": ").append(JSONObject.quote(entries.get(i)[0]))
+                    .append(",\n        \"Region\": ").append(JSONObject.quote(entries.get(i)[1]))
+                    .append("\n      }").append(i + 1 < entries.size() ? ",\n" : "\n");
+        }
+        return json.append("  ]\n}\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.quiz.DistractorSampler;
+import edu.miracosta.cs134.flagquiz.quiz.FastRandom;
+import edu.miracosta.cs134.flagquiz.quiz.QuizGenerator;
+
+/**
+ * Picking the answer choices of one question: the original shuffle of the whole catalog
+ * against <code>DistractorSampler</code>'s partial shuffle of the region's pool.
+ */
+@State(Scope.Benchmark)
+public class ChoiceSelectionBenchmark {
+
+    @Param({"230", "10000", "1000000"})
+    public int catalogSize;
+
+    @Param({"4", "8"})
+    public int choices;
+
+    private final Random mLegacyRng = new Random(42);
+    private final FastRandom mRng = new FastRandom(42);
+    private List<LegacyCountry> mShuffled;
+    private LegacyCountry mLegacyCorrect;
+    private DistractorSampler mSampler;
+    private Country mCorrect;
+    private String[] mNames;
+    private int[] mOut;
+
+    @Setup
+    public void setUp() {
+        List<Country> countries = Catalogs.countries(catalogSize);
+        mShuffled = Catalogs.legacyCountries(catalogSize);
+        mLegacyCorrect = mShuffled.get(mShuffled.size() / 2);
+        mSampler = new DistractorSampler(new QuizGenerator(countries));
+        mCorrect = countries.get(countries.size() / 2);
+        mNames = new String[choices];
+        mOut = new int[choices - 1];
+    }
+
+    @Benchmark
+    public String[] shuffleAndPick() {
+        Legacy.pickChoices(mShuffled, mLegacyCorrect, choices, mLegacyRng, mNames);
+        return mNames;
+    }
+
+    @Benchmark
+    public int[] sampler() {
+        mSampler.sample(mCorrect, QuizGenerator.ALL_REGIONS, choices - 1, mRng, mOut);
+        return mOut;
+    }
+}
@@ -0,0 +1,164 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+/**
+ * The original three-string {@link LegacyCountry} against the compact <code>Country</code>
+ * (int id, {@link Region} enum, cached hash, lazy file name).  The <code>construct</code>
+ * benchmarks build a whole catalog, so the gc profiler's bytes per operation is the heap the
+ * catalog takes.  The others are the lookups quizzes make: the duplicate check of the original
+ * quiz selection, set membership, filtering by region and reading file names.
+ */
+@State(Scope.Benchmark)
+public class CountryBenchmark {
+
+    private static final int FLAGS_IN_QUIZ = 10;
+    private static final int LOOKUPS = 1024;
+
+    @Param({"230", "10000", "1000000"})
+    public int catalogSize;
+
+    private List<String[]> mEntries;
+    private List<LegacyCountry> mLegacyCountries;
+    private List<Country> mCountries;
+    private List<LegacyCountry> mLegacyQuiz;
+    private List<Country> mQuiz;
+    private Set<LegacyCountry> mLegacySet;
+    private Set<Country> mSet;
+    private int[] mProbes;
+
+    @Setup
+    public void setUp() {
+        mEntries = Catalogs.entries(catalogSize);
+        mLegacyCountries = Catalogs.legacyCountries(catalogSize);
+        mCountries = Catalogs.countries(catalogSize);
+
+        Random rng = new Random(42);
+        mLegacyQuiz = new ArrayList<>(FLAGS_IN_QUIZ);
+        mQuiz = new ArrayList<>(FLAGS_IN_QUIZ);
+        for (int i = 0; i < FLAGS_IN_QUIZ; i++) {
+            int index = rng.nextInt(catalogSize);
+            mLegacyQuiz.add(mLegacyCountries.get(index));
+            mQuiz.add(mCountries.get(index));
+        }
+        mLegacySet = new HashSet<>(mLegacyCountries.subList(0, catalogSize / 2));
+        mSet = new HashSet<>(mCountries.subList(0, catalogSize / 2));
+        mProbes = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            mProbes[i] = rng.nextInt(catalogSize);
+        }
+    }
+
+    @Benchmark
+    public List<LegacyCountry> constructLegacy() {
+        List<LegacyCountry> countries = new ArrayList<>(mEntries.size());
+        for (String[] entry : mEntries) {
+            countries.add(new LegacyCountry(entry[0], entry[1]));
+        }
+        return countries;
+    }
+
+    @Benchmark
+    public List<Country> construct() {
+        List<Country> countries = new ArrayList<>(mEntries.size());
+        for (String[] entry : mEntries) {
+            countries.add(new Country(countries.size(), entry[0], Region.find(entry[1])));
+        }
+        return countries;
+    }
+
+    @Benchmark
+    public void getFileNameLegacy(Blackhole bh) {
+        for (LegacyCountry country : mLegacyCountries) {
+            bh.consume(country.getFileName());
+        }
+    }
+
+    @Benchmark
+    public void getFileName(Blackhole bh) {
+        for (Country country : mCountries) {
+            bh.consume(country.getFileName());
+        }
+    }
+
+    @Benchmark
+    public int quizContainsLegacy() {
+        int found = 0;
+        for (int probe : mProbes) {
+            // Equal but not identical objects, as the original duplicate check saw after a reload
+            if (mLegacyQuiz.contains(mLegacyCountries.get(probe))) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int quizContains() {
+        int found = 0;
+        for (int probe : mProbes) {
+            if (mQuiz.contains(mCountries.get(probe))) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int setContainsLegacy() {
+        int found = 0;
+        for (int probe : mProbes) {
+            if (mLegacySet.contains(mLegacyCountries.get(probe))) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int setContains() {
+        int found = 0;
+        for (int probe : mProbes) {
+            if (mSet.contains(mCountries.get(probe))) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int regionFilterLegacy() {
+        int found = 0;
+        for (LegacyCountry country : mLegacyCountries) {
+            if (country.getRegion().equals("Oceania")) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int regionFilter() {
+        int found = 0;
+        for (Country country : mCountries) {
+            if (country.getRegion() == Region.OCEANIA) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
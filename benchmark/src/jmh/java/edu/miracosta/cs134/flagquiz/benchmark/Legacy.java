@@ -0,0 +1,123 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+import com.google.gson.stream.JsonReader;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+/**
+ * JVM copies of the app code being measured that depends on Android classes, and of the
+ * original algorithms they replaced (over the original {@link LegacyCountry} model), so old and
+ * new versions can be compared side by side.
+ */
+final class Legacy {
+
+    private Legacy() {
+    }
+
+    /**
+     * The original <code>JSONLoader.loadJSONFromAsset</code>: whole file into a byte[] sized by
+     * available(), then a String, then an org.json tree.
+     */
+    static List<LegacyCountry> parseDom(InputStream is) throws IOException {
+        List<LegacyCountry> allCountriesList = new ArrayList<>();
+        int size = is.available();
+        byte[] buffer = new byte[size];
+        is.read(buffer);
+        is.close();
+        String json = new String(buffer, "UTF-8");
+
+        JSONObject jsonRootObject = new JSONObject(json);
+        JSONArray allCountriesJSON = jsonRootObject.getJSONArray("Countries");
+        int count = allCountriesJSON.length();
+        for (int i = 0; i < count; i++) {
+            JSONObject countryJSON = allCountriesJSON.getJSONObject(i);
+            allCountriesList.add(new LegacyCountry(countryJSON.getString("Name"),
+                    countryJSON.getString("Region")));
+        }
+        return allCountriesList;
+    }
+
+    /**
+     * The current <code>JSONLoader.readCountries</code>, with Gson's JsonReader standing in for
+     * android.util.JsonReader (they share the same API and implementation lineage).
+     */
+    static List<Country> parseStreaming(InputStream is) throws IOException {
+        List<Country> countries = new ArrayList<>(256);
+        JsonReader reader = new JsonReader(new InputStreamReader(is, "UTF-8"));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("Countries".equals(reader.nextName())) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String name = null, region = null;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String key = reader.nextName();
+                        if ("Name".equals(key)) {
+                            name = reader.nextString();
+                        } else if ("Region".equals(key)) {
+                            region = reader.nextString();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    countries.add(new Country(countries.size(), name, Region.find(region)));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return countries;
+    }
+
+    static InputStream stream(byte[] json) {
+        return new ByteArrayInputStream(json);
+    }
+
+    /**
+     * The original <code>MainActivity.resetQuiz</code> selection: rejection sampling with a
+     * List.contains duplicate check.
+     */
+    static List<LegacyCountry> resetQuiz(List<LegacyCountry> all, String region, int flagsInQuiz,
+                                         Random rng) {
+        List<LegacyCountry> quiz = new ArrayList<>(flagsInQuiz);
+        LegacyCountry random;
+        while (quiz.size() < flagsInQuiz) {
+            random = all.get(rng.nextInt(all.size()));
+            if (!quiz.contains(random) && (random.getRegion().equals(region) || region.equals("All"))) {
+                quiz.add(random);
+            }
+        }
+        return quiz;
+    }
+
+    /**
+     * The original per-question answer selection in <code>MainActivity.loadNextFlag</code>:
+     * shuffle the whole catalog, take the first names, then overwrite a random one with the
+     * correct answer.
+     */
+    static void pickChoices(List<LegacyCountry> all, LegacyCountry correct, int choices, Random rng,
+                            String[] out) {
+        Collections.shuffle(all, rng);
+        for (int i = 0; i < choices; i++) {
+            out[i] = all.get(i).getName();
+        }
+        out[rng.nextInt(choices)] = correct.getName();
+    }
+}
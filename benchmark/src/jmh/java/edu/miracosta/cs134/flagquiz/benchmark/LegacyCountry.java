@@ -0,0 +1,52 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+/**
+ * The original <code>Country</code>: three strings, with the file name built eagerly and
+ * equals/hashCode going over all of them on every call.
+ */
+final class LegacyCountry {
+
+    private final String mName;
+    private final String mRegion;
+    private final String mFileName;
+
+    LegacyCountry(String name, String region) {
+        mName = name;
+        mRegion = region;
+        name = name.replaceAll(" ", "_");
+        region = region.replaceAll(" ", "_");
+        mFileName = region + "/" + region + "-" + name + ".png";
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    String getRegion() {
+        return mRegion;
+    }
+
+    String getFileName() {
+        return mFileName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        LegacyCountry country = (LegacyCountry) o;
+
+        if (!mName.equals(country.mName)) return false;
+        if (!mRegion.equals(country.mRegion)) return false;
+        return mFileName.equals(country.mFileName);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mName.hashCode();
+        result = 31 * result + mRegion.hashCode();
+        result = 31 * result + mFileName.hashCode();
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import edu.miracosta.cs134.flagquiz.quiz.NameIndex;
+
+/**
+ * Type-in answer lookups, which run on the main thread on every keystroke and must stay far
+ * below a frame (16 ms, the target is 2 ms) on a catalog 100 times the real one.  The gc
+ * profiler should report no allocation for these queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NameIndexBenchmark {
+
+    @Param({"223", "22300"})
+    public int catalogSize;
+
+    /** A short prefix, a longer one, one with a typo and one matching a later word. */
+    @Param({"s", "united", "soloman isl", "islands"})
+    public String query;
+
+    private final int[] mOut = new int[8];
+    private NameIndex mIndex;
+
+    @Setup
+    public void setUp() {
+        mIndex = new NameIndex(Catalogs.countries(catalogSize));
+    }
+
+    @Benchmark
+    public int suggest() {
+        return mIndex.suggest(query, mOut);
+    }
+
+    @Benchmark
+    public int match() {
+        return mIndex.match(query);
+    }
+}
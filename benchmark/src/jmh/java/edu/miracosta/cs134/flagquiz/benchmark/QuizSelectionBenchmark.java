@@ -0,0 +1,71 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.quiz.Difficulty;
+import edu.miracosta.cs134.flagquiz.quiz.DistractorSampler;
+import edu.miracosta.cs134.flagquiz.quiz.FastRandom;
+import edu.miracosta.cs134.flagquiz.quiz.QuizGenerator;
+import edu.miracosta.cs134.flagquiz.quiz.QuizSession;
+
+/**
+ * Picking the countries of a new quiz: the original rejection sampling over the whole catalog
+ * against <code>QuizGenerator</code>'s partial shuffle of the region's pool, and a whole seeded
+ * <code>QuizSession</code> start, which draws the same quiz on every invocation.
+ */
+@State(Scope.Benchmark)
+public class QuizSelectionBenchmark {
+
+    private static final int FLAGS_IN_QUIZ = 10;
+
+    @Param({"230", "10000", "1000000"})
+    public int catalogSize;
+
+    @Param({"All", "Oceania"})
+    public String region;
+
+    private final Random mLegacyRng = new Random(42);
+    private final FastRandom mRng = new FastRandom(42);
+    private final int[] mOut = new int[FLAGS_IN_QUIZ];
+    private List<LegacyCountry> mLegacyCountries;
+    private QuizGenerator mGenerator;
+    private QuizSession mSession;
+
+    @Setup
+    public void setUp() {
+        mLegacyCountries = Catalogs.legacyCountries(catalogSize);
+        mGenerator = new QuizGenerator(Catalogs.countries(catalogSize));
+        mSession = new QuizSession(mGenerator, new DistractorSampler(mGenerator), new FastRandom(42), 8);
+        mSession.setSettings(region, 4, Difficulty.EASY);
+    }
+
+    @Benchmark
+    public List<LegacyCountry> rejectionSampling() {
+        return Legacy.resetQuiz(mLegacyCountries, region, FLAGS_IN_QUIZ, mLegacyRng);
+    }
+
+    @Benchmark
+    public List<Country> generator() {
+        return mGenerator.generate(region, FLAGS_IN_QUIZ, mRng);
+    }
+
+    @Benchmark
+    public int[] generatorIndices() {
+        mGenerator.generate(region, FLAGS_IN_QUIZ, mRng, mOut);
+        return mOut;
+    }
+
+    @Benchmark
+    public Country seededSession() {
+        mSession.start(FLAGS_IN_QUIZ, 42);
+        return mSession.getCorrectCountry();
+    }
+}
@@ -0,0 +1,42 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+import edu.miracosta.cs134.flagquiz.quiz.FastRandom;
+
+/**
+ * One bounded random int, as drawn for every question and distractor: the
+ * <code>SecureRandom</code> the quiz used to use, <code>java.util.Random</code> and
+ * <code>FastRandom</code>.
+ */
+@State(Scope.Benchmark)
+public class RandomSourceBenchmark {
+
+    @Param({"4", "230", "1000000"})
+    public int bound;
+
+    private final SecureRandom mSecureRandom = new SecureRandom();
+    private final Random mRandom = new Random(42);
+    private final FastRandom mFastRandom = new FastRandom(42);
+
+    @Benchmark
+    public int secureRandom() {
+        return mSecureRandom.nextInt(bound);
+    }
+
+    @Benchmark
+    public int random() {
+        return mRandom.nextInt(bound);
+    }
+
+    @Benchmark
+    public int fastRandom() {
+        return mFastRandom.nextInt(bound);
+    }
+}
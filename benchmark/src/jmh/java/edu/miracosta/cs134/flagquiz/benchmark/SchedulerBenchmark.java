@@ -0,0 +1,61 @@
+package edu.miracosta.cs134.flagquiz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.miracosta.cs134.flagquiz.quiz.AdaptiveScheduler;
+import edu.miracosta.cs134.flagquiz.quiz.FastRandom;
+import edu.miracosta.cs134.flagquiz.quiz.QuizGenerator;
+
+/**
+ * The adaptive scheduler: drawing a weighted quiz and recording an answer, which should both
+ * stay logarithmic in the catalog size, against the uniform <code>QuizGenerator</code>.
+ */
+@State(Scope.Benchmark)
+public class SchedulerBenchmark {
+
+    private static final int FLAGS_IN_QUIZ = 10;
+
+    @Param({"230", "10000", "1000000"})
+    public int catalogSize;
+
+    @Param({"All", "Oceania"})
+    public String region;
+
+    private final FastRandom mRng = new FastRandom(42);
+    private final int[] mOut = new int[FLAGS_IN_QUIZ];
+    private QuizGenerator mGenerator;
+    private AdaptiveScheduler mScheduler;
+    private int mNext;
+
+    @Setup
+    public void setUp() {
+        mGenerator = new QuizGenerator(Catalogs.countries(catalogSize));
+        mScheduler = new AdaptiveScheduler(mGenerator.getCountries());
+        // Spread the scores out so that the weights are not all equal
+        for (int id = 0; id < catalogSize; id++) {
+            mScheduler.record(id, id % 4, 4);
+        }
+    }
+
+    @Benchmark
+    public int[] uniform() {
+        mGenerator.generate(region, FLAGS_IN_QUIZ, mRng, mOut);
+        return mOut;
+    }
+
+    @Benchmark
+    public int[] weighted() {
+        mScheduler.generate(region, FLAGS_IN_QUIZ, mRng, mOut);
+        return mOut;
+    }
+
+    @Benchmark
+    public int record() {
+        mNext = (mNext + 7919) % catalogSize;
+        return mScheduler.record(mNext, mNext % 4, 4);
+    }
+}
@@ -0,0 +1,102 @@
+package edu.miracosta.cs134.flagquiz.gradle;
+
+import groovy.json.JsonSlurper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Build time view of <code>Countries.json</code>, used by the asset generation tasks.
+ * Asset paths are derived the same way the app's <code>Country</code> class derives them.
+ */
+public class CountryCatalog {
+
+    /**
+     * One country entry from the catalog.
+     */
+    public static class Entry {
+        public final String name;
+        public final String region;
+
+        Entry(String name, String region) {
+            this.name = name;
+            this.region = region;
+        }
+
+        /**
+         * @return The region directory, e.g. North_America
+         */
+        public String getRegionDir() {
+            return region.replace(' ', '_');
+        }
+
+        /**
+         * @return The file name without directory or extension, e.g. North_America-Canada
+         */
+        public String getBaseName() {
+            return getRegionDir() + "-" + name.replace(' ', '_');
+        }
+
+        /**
+         * @return The PNG asset path, e.g. North_America/North_America-Canada.png
+         */
+        public String getFileName() {
+            return getRegionDir() + "/" + getBaseName() + ".png";
+        }
+    }
+
+    private final List<Entry> mEntries;
+
+    private CountryCatalog(List<Entry> entries) {
+        mEntries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Parses a catalog file.
+     * @param file The <code>Countries.json</code> file.
+     * @return The parsed catalog.
+     */
+    @SuppressWarnings("unchecked")
+    public static CountryCatalog parse(File file) {
+        Map<String, Object> root = (Map<String, Object>) new JsonSlurper().parse(file);
+        List<Map<String, Object>> countries = (List<Map<String, Object>>) root.get("Countries");
+        if (countries == null) {
+            throw new IllegalArgumentException(file + " has no Countries array");
+        }
+
+        List<Entry> entries = new ArrayList<>(countries.size());
+        for (Map<String, Object> country : countries) {
+            Object name = country.get("Name");
+            Object region = country.get("Region");
+            if (!(name instanceof String) || !(region instanceof String)) {
+                throw new IllegalArgumentException(file + ": entry " + entries.size()
+                        + " is missing a Name or Region");
+            }
+            entries.add(new Entry((String) name, (String) region));
+        }
+        return new CountryCatalog(entries);
+    }
+
+    /**
+     * @return All the entries, in file order.
+     */
+    public List<Entry> getEntries() {
+        return mEntries;
+    }
+
+    /**
+     * @return The distinct regions, in order of first appearance.
+     */
+    public List<String> getRegions() {
+        List<String> regions = new ArrayList<>();
+        for (Entry entry : mEntries) {
+            if (!regions.contains(entry.region)) {
+                regions.add(entry.region);
+            }
+        }
+        return regions;
+    }
+}
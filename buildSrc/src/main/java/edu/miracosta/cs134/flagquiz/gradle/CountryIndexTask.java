@@ -0,0 +1,124 @@
+package edu.miracosta.cs134.flagquiz.gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles <code>Countries.json</code> into the binary country index read by
+ * <code>edu.miracosta.cs134.flagquiz.model.CountryIndex</code>.  All values are big-endian:
+ *
+ * <pre>
+ * int    magic ('FQIX')
+ * short  version
+ * short  stringCount, then per string: short byteLength, UTF-8 bytes
+ * byte   regionCount, then per region: short stringIndex (region name)
+ * short  countryCount, then per country: short nameIndex, byte regionOrdinal, short fileNameIndex
+ * </pre>
+ *
+ * Strings are interned, so every region name is stored once.
+ */
+public class CountryIndexTask extends DefaultTask {
+
+    public static final String INDEX_FILE_NAME = "countries.idx";
+    public static final int MAGIC = 0x46514958;
+    public static final int VERSION = 1;
+
+    private File mCatalogFile;
+    private File mOutputDir;
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public File getCatalogFile() {
+        return mCatalogFile;
+    }
+
+    public void setCatalogFile(File catalogFile) {
+        mCatalogFile = catalogFile;
+    }
+
+    @OutputDirectory
+    public File getOutputDir() {
+        return mOutputDir;
+    }
+
+    public void setOutputDir(File outputDir) {
+        mOutputDir = outputDir;
+    }
+
+    @TaskAction
+    public void generate() throws IOException {
+        CountryCatalog catalog = CountryCatalog.parse(mCatalogFile);
+        List<CountryCatalog.Entry> entries = catalog.getEntries();
+        List<String> regions = catalog.getRegions();
+
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        int[] regionNames = new int[regions.size()];
+        for (int i = 0; i < regionNames.length; i++) {
+            regionNames[i] = intern(regions.get(i), strings, stringIds);
+        }
+        int[] names = new int[entries.size()];
+        int[] fileNames = new int[entries.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = intern(entries.get(i).name, strings, stringIds);
+            fileNames[i] = intern(entries.get(i).getFileName(), strings, stringIds);
+        }
+
+        if (strings.size() > 0xFFFF || entries.size() > 0xFFFF || regions.size() > 0xFF) {
+            throw new IllegalStateException("Catalog too large for index version " + VERSION);
+        }
+
+        File indexFile = new File(mOutputDir, INDEX_FILE_NAME);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+
+            out.writeShort(strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeByte(regions.size());
+            for (int regionName : regionNames) {
+                out.writeShort(regionName);
+            }
+
+            out.writeShort(entries.size());
+            for (int i = 0; i < names.length; i++) {
+                out.writeShort(names[i]);
+                out.writeByte(regions.indexOf(entries.get(i).region));
+                out.writeShort(fileNames[i]);
+            }
+        }
+        getLogger().info("Wrote {} countries ({} strings) to {}",
+                entries.size(), strings.size(), indexFile);
+    }
+
+    private static int intern(String s, List<String> strings, Map<String, Integer> ids) {
+        Integer id = ids.get(s);
+        if (id == null) {
+            id = strings.size();
+            strings.add(s);
+            ids.put(s, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,167 @@
+package edu.miracosta.cs134.flagquiz.gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Writes one table of translated country names per locale, read by
+ * <code>edu.miracosta.cs134.flagquiz.model.CountryNames</code>.  Names come from
+ * <code>Locale.getDisplayCountry</code>: each catalog name is matched to its ISO 3166 code
+ * through the English display names, or through the codes file for names that differ.
+ * Each table is <code>names/&lt;language tag&gt;.bin</code>, all values big-endian:
+ *
+ * <pre>
+ * int    magic ('FQNM')
+ * short  version
+ * short  countryCount (in Countries.json order), then per country: short byteLength, UTF-8 bytes
+ * </pre>
+ *
+ * A length of 0 means the JDK has no name for that country (or it has no code), and the
+ * catalog name is shown instead.
+ */
+public class CountryNamesTask extends DefaultTask {
+
+    public static final String NAMES_DIR = "names";
+    public static final int MAGIC = 0x46514E4D;
+    public static final int VERSION = 1;
+
+    private File mCatalogFile;
+    private File mCodesFile;
+    private List<String> mLocales = new ArrayList<>();
+    private File mOutputDir;
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public File getCatalogFile() {
+        return mCatalogFile;
+    }
+
+    public void setCatalogFile(File catalogFile) {
+        mCatalogFile = catalogFile;
+    }
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public File getCodesFile() {
+        return mCodesFile;
+    }
+
+    public void setCodesFile(File codesFile) {
+        mCodesFile = codesFile;
+    }
+
+    /**
+     * @return The BCP 47 tags of the locales to write a table for, e.g. <code>zh-TW</code>.
+     */
+    @Input
+    public List<String> getLocales() {
+        return mLocales;
+    }
+
+    public void setLocales(List<String> locales) {
+        mLocales = new ArrayList<>(locales);
+    }
+
+    @OutputDirectory
+    public File getOutputDir() {
+        return mOutputDir;
+    }
+
+    public void setOutputDir(File outputDir) {
+        mOutputDir = outputDir;
+    }
+
+    @TaskAction
+    public void generate() throws IOException {
+        List<CountryCatalog.Entry> entries = CountryCatalog.parse(mCatalogFile).getEntries();
+        if (entries.size() > 0xFFFF) {
+            throw new IllegalStateException("Catalog too large for names version " + VERSION);
+        }
+        String[] codes = findCodes(entries);
+
+        File namesDir = new File(mOutputDir, NAMES_DIR);
+        if (!namesDir.isDirectory() && !namesDir.mkdirs()) {
+            throw new IOException("Cannot create " + namesDir);
+        }
+        for (String tag : mLocales) {
+            Locale locale = Locale.forLanguageTag(tag);
+            File tableFile = new File(namesDir, locale.toLanguageTag() + ".bin");
+            int translated = 0;
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tableFile)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeShort(entries.size());
+                for (String code : codes) {
+                    String name = code == null ? null : displayName(code, locale);
+                    byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+                    if (bytes.length > 0xFFFF) {
+                        throw new IllegalStateException("Name too long: " + name);
+                    }
+                    out.writeShort(bytes.length);
+                    out.write(bytes);
+                    if (bytes.length > 0) {
+                        translated++;
+                    }
+                }
+            }
+            getLogger().info("Wrote {} of {} names for {} to {}",
+                    translated, entries.size(), tag, tableFile);
+        }
+    }
+
+    /**
+     * @return The ISO code of each entry, null if it has none.
+     */
+    private String[] findCodes(List<CountryCatalog.Entry> entries) throws IOException {
+        Map<String, String> codesByName = new HashMap<>();
+        for (String code : Locale.getISOCountries()) {
+            codesByName.put(new Locale("", code).getDisplayCountry(Locale.ENGLISH), code);
+        }
+        Properties aliases = new Properties();
+        try (Reader in = new InputStreamReader(new FileInputStream(mCodesFile), StandardCharsets.UTF_8)) {
+            aliases.load(in);
+        }
+        for (String code : aliases.stringPropertyNames()) {
+            codesByName.put(aliases.getProperty(code), code);
+        }
+
+        String[] codes = new String[entries.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = codesByName.get(entries.get(i).name);
+            if (codes[i] == null) {
+                getLogger().info("No country code for {}, its catalog name is kept", entries.get(i).name);
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * @return The name of a country in a locale, or null if the JDK only knows its code.
+     */
+    private static String displayName(String code, Locale locale) {
+        String name = new Locale("", code).getDisplayCountry(locale);
+        return name.isEmpty() || name.equals(code) ? null : name;
+    }
+}
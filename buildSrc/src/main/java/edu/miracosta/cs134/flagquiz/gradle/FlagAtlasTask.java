@@ -0,0 +1,194 @@
+package edu.miracosta.cs134.flagquiz.gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Packs the flags of each region into one WebP sprite sheet (<code>atlas/&lt;Region&gt;.webp</code>)
+ * and writes the table of where each flag is, read by
+ * <code>edu.miracosta.cs134.flagquiz.image.FlagAtlas</code>.  Flags are scaled to the same width
+ * and laid out in rows, in catalog order.  All values are big-endian:
+ *
+ * <pre>
+ * int    magic ('FQAT')
+ * short  version
+ * byte   regionCount, then per region:
+ *        short byteLength, UTF-8 atlas path,
+ *        short flagCount, then per flag: short byteLength, UTF-8 PNG path (Country.getFileName()),
+ *                                         short left, short top, short width, short height
+ * </pre>
+ */
+public class FlagAtlasTask extends DefaultTask {
+
+    public static final String TABLE_FILE_NAME = "flag_atlas.bin";
+    public static final String ATLAS_DIR = "atlas";
+    public static final int MAGIC = 0x46514154;
+    public static final int VERSION = 1;
+
+    // Largest width or height of a WebP image
+    private static final int MAX_DIMENSION = 16383;
+
+    private File mCatalogFile;
+    private File mAssetsDir;
+    private File mOutputDir;
+    private int mFlagWidth = 512;
+    private float mQuality = 0.9f;
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public File getCatalogFile() {
+        return mCatalogFile;
+    }
+
+    public void setCatalogFile(File catalogFile) {
+        mCatalogFile = catalogFile;
+    }
+
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public File getAssetsDir() {
+        return mAssetsDir;
+    }
+
+    public void setAssetsDir(File assetsDir) {
+        mAssetsDir = assetsDir;
+    }
+
+    /**
+     * @return Width every flag is scaled to (flags narrower than this keep their width).
+     */
+    @Input
+    public int getFlagWidth() {
+        return mFlagWidth;
+    }
+
+    public void setFlagWidth(int flagWidth) {
+        mFlagWidth = flagWidth;
+    }
+
+    /**
+     * @return Lossy WebP quality, 0 (smallest) to 1 (best).
+     */
+    @Input
+    public float getQuality() {
+        return mQuality;
+    }
+
+    public void setQuality(float quality) {
+        mQuality = quality;
+    }
+
+    @OutputDirectory
+    public File getOutputDir() {
+        return mOutputDir;
+    }
+
+    public void setOutputDir(File outputDir) {
+        mOutputDir = outputDir;
+    }
+
+    @TaskAction
+    public void generate() throws IOException {
+        CountryCatalog catalog = CountryCatalog.parse(mCatalogFile);
+        List<String> regions = catalog.getRegions();
+
+        File table = new File(mOutputDir, TABLE_FILE_NAME);
+        try (WebPWriter writer = new WebPWriter(mQuality);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new FileOutputStream(table)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(regions.size());
+
+            for (String region : regions) {
+                List<CountryCatalog.Entry> entries = new ArrayList<>();
+                List<BufferedImage> flags = new ArrayList<>();
+                for (CountryCatalog.Entry entry : catalog.getEntries()) {
+                    if (!entry.region.equals(region)) {
+                        continue;
+                    }
+                    File png = new File(mAssetsDir, entry.getFileName());
+                    BufferedImage image = png.isFile() ? ImageIO.read(png) : null;
+                    if (image == null) {
+                        getLogger().warn("No flag image for {} ({}), it is left out of the atlas",
+                                entry.name, png);
+                        continue;
+                    }
+                    int w = Math.min(mFlagWidth, image.getWidth());
+                    int h = Math.max(1, Math.round((float) image.getHeight() * w / image.getWidth()));
+                    entries.add(entry);
+                    flags.add(WebPWriter.scale(image, w, h));
+                }
+
+                // Rows of equal numbers of flags, about as wide as the sheet is tall
+                int columns = Math.max(1, (int) Math.ceil(Math.sqrt(flags.size())));
+                int[][] bounds = new int[flags.size()][];
+                int width = 0, height = 0, x = 0, rowHeight = 0;
+                for (int i = 0; i < flags.size(); i++) {
+                    if (i % columns == 0) {
+                        height += rowHeight;
+                        x = 0;
+                        rowHeight = 0;
+                    }
+                    BufferedImage flag = flags.get(i);
+                    bounds[i] = new int[]{x, height, flag.getWidth(), flag.getHeight()};
+                    x += flag.getWidth();
+                    width = Math.max(width, x);
+                    rowHeight = Math.max(rowHeight, flag.getHeight());
+                }
+                height += rowHeight;
+                if (width > MAX_DIMENSION || height > MAX_DIMENSION) {
+                    throw new IOException("Atlas for " + region + " would be " + width + "x" + height
+                            + ", reduce flagWidth");
+                }
+
+                BufferedImage atlas = new BufferedImage(Math.max(1, width), Math.max(1, height),
+                        BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = atlas.createGraphics();
+                for (int i = 0; i < flags.size(); i++) {
+                    g.drawImage(flags.get(i), bounds[i][0], bounds[i][1], null);
+                }
+                g.dispose();
+                String atlasPath = ATLAS_DIR + "/" + region.replace(' ', '_') + ".webp";
+                File atlasFile = new File(mOutputDir, atlasPath);
+                writer.write(atlas, atlasFile);
+
+                writeString(out, atlasPath);
+                out.writeShort(entries.size());
+                for (int i = 0; i < entries.size(); i++) {
+                    writeString(out, entries.get(i).getFileName());
+                    for (int value : bounds[i]) {
+                        out.writeShort(value);
+                    }
+                }
+                getLogger().info("{}: {} flags in {}x{} ({} KB)", atlasPath, entries.size(),
+                        width, height, atlasFile.length() / 1024);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
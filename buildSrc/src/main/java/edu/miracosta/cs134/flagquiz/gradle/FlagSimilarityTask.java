@@ -0,0 +1,228 @@
+package edu.miracosta.cs134.flagquiz.gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Precomputes how alike every pair of flags looks and writes the most similar flags of each
+ * country to a compact asset read by <code>edu.miracosta.cs134.flagquiz.quiz.FlagSimilarity</code>.
+ * Similarity combines a coarse color histogram (64 bins) with a 64-bit difference hash of the
+ * downscaled grayscale image.  All values are big-endian:
+ *
+ * <pre>
+ * int    magic ('FQSM')
+ * short  version
+ * short  countryCount (in Countries.json order)
+ * byte   neighborsPerCountry (K)
+ * per country: byte neighborCount, then per neighbor: short countryIndex, byte similarity (0-255)
+ * </pre>
+ *
+ * Neighbors are sorted most similar first.
+ */
+public class FlagSimilarityTask extends DefaultTask {
+
+    public static final String SIMILARITY_FILE_NAME = "flag_similarity.bin";
+    public static final int MAGIC = 0x4651534D;
+    public static final int VERSION = 1;
+
+    private static final int HISTOGRAM_BINS = 64; // 4 levels per channel
+    private static final double HISTOGRAM_WEIGHT = 0.6;
+
+    private File mCatalogFile;
+    private File mAssetsDir;
+    private File mOutputDir;
+    private int mNeighbors = 8;
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public File getCatalogFile() {
+        return mCatalogFile;
+    }
+
+    public void setCatalogFile(File catalogFile) {
+        mCatalogFile = catalogFile;
+    }
+
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public File getAssetsDir() {
+        return mAssetsDir;
+    }
+
+    public void setAssetsDir(File assetsDir) {
+        mAssetsDir = assetsDir;
+    }
+
+    @Input
+    public int getNeighbors() {
+        return mNeighbors;
+    }
+
+    public void setNeighbors(int neighbors) {
+        mNeighbors = neighbors;
+    }
+
+    @OutputDirectory
+    public File getOutputDir() {
+        return mOutputDir;
+    }
+
+    public void setOutputDir(File outputDir) {
+        mOutputDir = outputDir;
+    }
+
+    @TaskAction
+    public void generate() throws IOException {
+        List<CountryCatalog.Entry> entries = CountryCatalog.parse(mCatalogFile).getEntries();
+        int n = entries.size();
+
+        float[][] histograms = new float[n][];
+        long[] hashes = new long[n];
+        for (int i = 0; i < n; i++) {
+            File png = new File(mAssetsDir, entries.get(i).getFileName());
+            BufferedImage image = png.isFile() ? ImageIO.read(png) : null;
+            if (image == null) {
+                getLogger().warn("No flag image for {} ({}), it gets no look-alikes",
+                        entries.get(i).name, png);
+                continue;
+            }
+            histograms[i] = colorHistogram(image);
+            hashes[i] = differenceHash(image);
+        }
+
+        int k = Math.min(mNeighbors, n - 1);
+        File outFile = new File(mOutputDir, SIMILARITY_FILE_NAME);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(outFile)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(n);
+            out.writeByte(k);
+
+            int[] best = new int[k];
+            int[] bestScores = new int[k];
+            for (int i = 0; i < n; i++) {
+                int found = 0;
+                if (histograms[i] != null) {
+                    for (int j = 0; j < n; j++) {
+                        if (j == i || histograms[j] == null) {
+                            continue;
+                        }
+                        int score = similarity(histograms[i], hashes[i], histograms[j], hashes[j]);
+                        found = insertTopK(best, bestScores, found, j, score);
+                    }
+                }
+                out.writeByte(found);
+                for (int r = 0; r < found; r++) {
+                    out.writeShort(best[r]);
+                    out.writeByte(bestScores[r]);
+                }
+            }
+        }
+        getLogger().info("Wrote {} look-alikes per flag for {} countries to {}", k, n, outFile);
+    }
+
+    /**
+     * Keeps the k best (index, score) pairs sorted by descending score.
+     * @return The new number of pairs kept.
+     */
+    private static int insertTopK(int[] best, int[] scores, int found, int index, int score) {
+        int k = best.length;
+        if (found == k && score <= scores[k - 1]) {
+            return found;
+        }
+        int pos = found < k ? found++ : k - 1;
+        while (pos > 0 && scores[pos - 1] < score) {
+            best[pos] = best[pos - 1];
+            scores[pos] = scores[pos - 1];
+            pos--;
+        }
+        best[pos] = index;
+        scores[pos] = score;
+        return found;
+    }
+
+    /**
+     * @return Similarity quantized to 0 (nothing alike) .. 255 (identical).
+     */
+    static int similarity(float[] histA, long hashA, float[] histB, long hashB) {
+        double intersection = 0;
+        for (int b = 0; b < HISTOGRAM_BINS; b++) {
+            intersection += Math.min(histA[b], histB[b]);
+        }
+        double hashSimilarity = 1.0 - Long.bitCount(hashA ^ hashB) / 64.0;
+        double similarity = HISTOGRAM_WEIGHT * intersection + (1 - HISTOGRAM_WEIGHT) * hashSimilarity;
+        return (int) Math.round(Math.max(0, Math.min(1, similarity)) * 255);
+    }
+
+    /**
+     * Normalized histogram of the opaque pixels, with each channel quantized to 4 levels.
+     */
+    static float[] colorHistogram(BufferedImage image) {
+        BufferedImage small = scale(image, 64, 64, BufferedImage.TYPE_INT_ARGB);
+        float[] histogram = new float[HISTOGRAM_BINS];
+        int total = 0;
+        for (int y = 0; y < small.getHeight(); y++) {
+            for (int x = 0; x < small.getWidth(); x++) {
+                int argb = small.getRGB(x, y);
+                if ((argb >>> 24) < 128) {
+                    continue;
+                }
+                int r = (argb >> 22) & 3, g = (argb >> 14) & 3, b = (argb >> 6) & 3;
+                histogram[(r << 4) | (g << 2) | b]++;
+                total++;
+            }
+        }
+        if (total > 0) {
+            for (int b = 0; b < HISTOGRAM_BINS; b++) {
+                histogram[b] /= total;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * 64-bit difference hash: one bit per horizontally adjacent pair of pixels in a 9x8
+     * grayscale thumbnail, set when the left pixel is brighter.
+     */
+    static long differenceHash(BufferedImage image) {
+        BufferedImage small = scale(image, 9, 8, BufferedImage.TYPE_BYTE_GRAY);
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                int left = small.getRaster().getSample(x, y, 0);
+                int right = small.getRaster().getSample(x + 1, y, 0);
+                hash = (hash << 1) | (left > right ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width, int height, int type) {
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+}
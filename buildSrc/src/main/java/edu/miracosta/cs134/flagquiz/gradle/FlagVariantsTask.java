@@ -0,0 +1,164 @@
+package edu.miracosta.cs134.flagquiz.gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Transcodes every flag of <code>Countries.json</code> into WebP images a few fixed widths
+ * wide (never wider than the original PNG), and writes a manifest of the variants read by
+ * <code>edu.miracosta.cs134.flagquiz.image.FlagVariants</code>.  Variants are written to
+ * <code>flags/&lt;Region&gt;/&lt;Region&gt;-&lt;Name&gt;_&lt;width&gt;.webp</code>.  All values
+ * are big-endian:
+ *
+ * <pre>
+ * int    magic ('FQVR')
+ * short  version
+ * short  countryCount (in Countries.json order)
+ * per country: short byteLength, UTF-8 PNG path (Country.getFileName()),
+ *              byte variantCount, then per variant: short width, short height
+ * </pre>
+ *
+ * Variants are sorted narrowest first.  Countries without a flag image get no variants, which
+ * {@link VerifyFlagVariantsTask} reports as an error.
+ */
+public class FlagVariantsTask extends DefaultTask {
+
+    public static final String MANIFEST_FILE_NAME = "flag_variants.bin";
+    public static final String VARIANTS_DIR = "flags";
+    public static final int MAGIC = 0x46515652;
+    public static final int VERSION = 1;
+
+    private File mCatalogFile;
+    private File mAssetsDir;
+    private File mOutputDir;
+    private List<Integer> mWidths = Arrays.asList(128, 256, 512);
+    private float mQuality = 0.9f;
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public File getCatalogFile() {
+        return mCatalogFile;
+    }
+
+    public void setCatalogFile(File catalogFile) {
+        mCatalogFile = catalogFile;
+    }
+
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public File getAssetsDir() {
+        return mAssetsDir;
+    }
+
+    public void setAssetsDir(File assetsDir) {
+        mAssetsDir = assetsDir;
+    }
+
+    @Input
+    public List<Integer> getWidths() {
+        return mWidths;
+    }
+
+    public void setWidths(List<Integer> widths) {
+        mWidths = widths;
+    }
+
+    /**
+     * @return Lossy WebP quality, 0 (smallest) to 1 (best).
+     */
+    @Input
+    public float getQuality() {
+        return mQuality;
+    }
+
+    public void setQuality(float quality) {
+        mQuality = quality;
+    }
+
+    @OutputDirectory
+    public File getOutputDir() {
+        return mOutputDir;
+    }
+
+    public void setOutputDir(File outputDir) {
+        mOutputDir = outputDir;
+    }
+
+    /**
+     * @return The asset path of a variant, e.g. flags/North_America/North_America-Canada_256.webp
+     */
+    public static String getVariantPath(CountryCatalog.Entry entry, int width) {
+        return VARIANTS_DIR + "/" + entry.getRegionDir() + "/" + entry.getBaseName() + "_" + width + ".webp";
+    }
+
+    @TaskAction
+    public void generate() throws IOException {
+        List<CountryCatalog.Entry> entries = CountryCatalog.parse(mCatalogFile).getEntries();
+        List<Integer> widths = new ArrayList<>(mWidths);
+        widths.sort(null);
+
+        long sourceBytes = 0, variantBytes = 0;
+        File manifest = new File(mOutputDir, MANIFEST_FILE_NAME);
+        try (WebPWriter writer = new WebPWriter(mQuality);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new FileOutputStream(manifest)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(entries.size());
+
+            for (CountryCatalog.Entry entry : entries) {
+                byte[] path = entry.getFileName().getBytes("UTF-8");
+                out.writeShort(path.length);
+                out.write(path);
+
+                File png = new File(mAssetsDir, entry.getFileName());
+                BufferedImage image = png.isFile() ? ImageIO.read(png) : null;
+                if (image == null) {
+                    getLogger().warn("No flag image for {} ({})", entry.name, png);
+                    out.writeByte(0);
+                    continue;
+                }
+                sourceBytes += png.length();
+
+                // One variant per bucket narrower than the original, plus the original width
+                List<int[]> sizes = new ArrayList<>();
+                for (int width : widths) {
+                    int w = Math.min(width, image.getWidth());
+                    int h = Math.max(1, Math.round((float) image.getHeight() * w / image.getWidth()));
+                    sizes.add(new int[]{w, h});
+                    if (w == image.getWidth()) {
+                        break;
+                    }
+                }
+                out.writeByte(sizes.size());
+                for (int[] size : sizes) {
+                    File webp = new File(mOutputDir, getVariantPath(entry, size[0]));
+                    writer.write(WebPWriter.scale(image, size[0], size[1]), webp);
+                    variantBytes += webp.length();
+                    out.writeShort(size[0]);
+                    out.writeShort(size[1]);
+                }
+            }
+        }
+        getLogger().lifecycle("Flag variants: {} KB of PNG -> {} KB of WebP in {} widths",
+                sourceBytes / 1024, variantBytes / 1024, widths);
+    }
+}
@@ -0,0 +1,115 @@
+package edu.miracosta.cs134.flagquiz.gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fails the build if any country of <code>Countries.json</code> has no generated flag
+ * variant, so a name that does not match its image file (a typo in either) is caught at build
+ * time rather than when the flag is first shown.  Reads the manifest written by
+ * {@link FlagVariantsTask} and checks that every variant it lists exists.
+ */
+public class VerifyFlagVariantsTask extends DefaultTask {
+
+    private File mCatalogFile;
+    private File mVariantsDir;
+    private File mReportFile;
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public File getCatalogFile() {
+        return mCatalogFile;
+    }
+
+    public void setCatalogFile(File catalogFile) {
+        mCatalogFile = catalogFile;
+    }
+
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public File getVariantsDir() {
+        return mVariantsDir;
+    }
+
+    public void setVariantsDir(File variantsDir) {
+        mVariantsDir = variantsDir;
+    }
+
+    /**
+     * @return Summary written on success, so the task is up to date until its inputs change.
+     */
+    @OutputFile
+    public File getReportFile() {
+        return mReportFile;
+    }
+
+    public void setReportFile(File reportFile) {
+        mReportFile = reportFile;
+    }
+
+    @TaskAction
+    public void verify() throws IOException {
+        List<CountryCatalog.Entry> entries = CountryCatalog.parse(mCatalogFile).getEntries();
+        List<String> problems = new ArrayList<>();
+        int variants = 0;
+
+        File manifest = new File(mVariantsDir, FlagVariantsTask.MANIFEST_FILE_NAME);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(manifest)))) {
+            if (in.readInt() != FlagVariantsTask.MAGIC || in.readShort() != FlagVariantsTask.VERSION) {
+                throw new GradleException("Unrecognized flag variant manifest " + manifest);
+            }
+            int count = in.readUnsignedShort();
+            if (count != entries.size()) {
+                throw new GradleException("Flag variant manifest lists " + count + " countries, "
+                        + mCatalogFile.getName() + " has " + entries.size());
+            }
+            for (CountryCatalog.Entry entry : entries) {
+                byte[] path = new byte[in.readUnsignedShort()];
+                in.readFully(path);
+                if (!new String(path, StandardCharsets.UTF_8).equals(entry.getFileName())) {
+                    throw new GradleException("Flag variant manifest is out of date, run a clean build");
+                }
+                int variantCount = in.readUnsignedByte();
+                if (variantCount == 0) {
+                    problems.add(entry.name + " (" + entry.region + "): no image at " + entry.getFileName());
+                }
+                for (int v = 0; v < variantCount; v++) {
+                    int width = in.readUnsignedShort();
+                    in.readUnsignedShort();
+                    String variant = FlagVariantsTask.getVariantPath(entry, width);
+                    if (!new File(mVariantsDir, variant).isFile()) {
+                        problems.add(entry.name + " (" + entry.region + "): missing " + variant);
+                    }
+                    variants++;
+                }
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            StringBuilder message = new StringBuilder("Countries without a flag variant:");
+            for (String problem : problems) {
+                message.append("\n  ").append(problem);
+            }
+            throw new GradleException(message.toString());
+        }
+        Files.write(mReportFile.toPath(), (entries.size() + " countries, " + variants + " flag variants\n")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+}
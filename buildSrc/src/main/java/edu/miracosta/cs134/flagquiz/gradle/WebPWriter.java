@@ -0,0 +1,73 @@
+package edu.miracosta.cs134.flagquiz.gradle;
+
+import org.gradle.api.GradleException;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Encodes images as lossy WebP through the ImageIO plugin on the build classpath.
+ */
+class WebPWriter implements Closeable {
+
+    private final ImageWriter mWriter;
+    private final float mQuality;
+
+    /**
+     * @param quality Lossy quality, 0 (smallest) to 1 (best).
+     */
+    WebPWriter(float quality) {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType("image/webp");
+        if (!writers.hasNext()) {
+            throw new GradleException("No WebP ImageIO writer on the build classpath");
+        }
+        mWriter = writers.next();
+        mQuality = quality;
+    }
+
+    /**
+     * Writes an image, replacing the file if it exists.
+     */
+    void write(BufferedImage image, File file) throws IOException {
+        ImageWriteParam param = mWriter.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionType("Lossy");
+        param.setCompressionQuality(mQuality);
+
+        file.getParentFile().mkdirs();
+        file.delete();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            mWriter.setOutput(out);
+            mWriter.write(null, new IIOImage(image, null, null), param);
+        }
+    }
+
+    @Override
+    public void close() {
+        mWriter.dispose();
+    }
+
+    /**
+     * @return The image resampled to the given size, as ARGB.
+     */
+    static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+}
@@ -0,0 +1,80 @@
+package edu.miracosta.cs134.flagquiz.catalog;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+/**
+ * Reads <code>Countries.json</code> on the JVM, the same way the app's <code>JSONLoader</code>
+ * does on the device: ids are positions in the file and unknown regions are an error.  Used
+ * by the simulator and the quiz server.
+ */
+public final class CatalogReader {
+
+    private CatalogReader() {
+    }
+
+    /**
+     * @param file The catalog file.
+     * @return The countries in file order.
+     * @throws IOException If the file cannot be read or is not a valid catalog.
+     */
+    public static List<Country> read(File file) throws IOException {
+        List<Country> countries = new ArrayList<>(256);
+        JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("Countries".equals(reader.nextName())) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        countries.add(readCountry(reader, countries.size()));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException e) {
+            throw new IOException("Malformed country catalog " + file, e);
+        } finally {
+            reader.close();
+        }
+        return countries;
+    }
+
+    private static Country readCountry(JsonReader reader, int id) throws IOException {
+        String name = null, region = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("Name".equals(key)) {
+                name = reader.nextString();
+            } else if ("Region".equals(key)) {
+                region = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (name == null || region == null) {
+            throw new IOException("Country entry is missing a Name or Region");
+        }
+        Region knownRegion = Region.find(region);
+        if (knownRegion == null) {
+            throw new IOException("Unknown region " + region + " for " + name);
+        }
+        return new Country(id, name, knownRegion);
+    }
+}
@@ -0,0 +1,208 @@
+package edu.miracosta.cs134.flagquiz.history;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+/**
+ * Running totals over every guess ever recorded: guesses and correct guesses, and per
+ * country and per region how many questions were asked and how many were answered on the
+ * first try, plus the current and best first-try streaks.  Adding a guess is O(1), so the
+ * results screen reads these numbers instead of going through the history.
+ *
+ * Not thread-safe, {@link QuizHistory} guards it.
+ */
+public class HistoryStats {
+
+    private final List<Country> mCountries; // by id
+    private final int[] mCountryAsked;
+    private final int[] mCountryFirstTry;
+    private final int[] mRegionAsked;
+    private final int[] mRegionFirstTry;
+    private long mGuesses;
+    private long mCorrectGuesses;
+    private int mCurrentStreak;
+    private int mBestStreak;
+
+    /**
+     * Creates empty totals.
+     * @param countries The catalog, each country at the position of its id.
+     */
+    HistoryStats(List<Country> countries) {
+        mCountries = countries;
+        mCountryAsked = new int[countries.size()];
+        mCountryFirstTry = new int[countries.size()];
+        mRegionAsked = new int[Region.values().length];
+        mRegionFirstTry = new int[Region.values().length];
+    }
+
+    /**
+     * Adds one guess.
+     * @param countryId The country that was asked.
+     * @param correct Whether the guess was right.
+     * @param firstGuess Whether it was the first guess of its question.
+     */
+    void add(int countryId, boolean correct, boolean firstGuess) {
+        if (countryId < 0 || countryId >= mCountryAsked.length) {
+            return;
+        }
+        mGuesses++;
+        if (correct) {
+            mCorrectGuesses++;
+        }
+        if (!firstGuess) {
+            return;
+        }
+        int region = mCountries.get(countryId).getRegion().ordinal();
+        mCountryAsked[countryId]++;
+        mRegionAsked[region]++;
+        if (correct) {
+            mCountryFirstTry[countryId]++;
+            mRegionFirstTry[region]++;
+            mBestStreak = Math.max(mBestStreak, ++mCurrentStreak);
+        } else {
+            mCurrentStreak = 0;
+        }
+    }
+
+    /**
+     * @return The number of guesses recorded.
+     */
+    public long getGuesses() {
+        return mGuesses;
+    }
+
+    /**
+     * @return The number of correct guesses recorded.
+     */
+    public long getCorrectGuesses() {
+        return mCorrectGuesses;
+    }
+
+    /**
+     * @return The number of questions answered on the first try in a row, up to the latest.
+     */
+    public int getCurrentStreak() {
+        return mCurrentStreak;
+    }
+
+    /**
+     * @return The longest run of questions answered on the first try.
+     */
+    public int getBestStreak() {
+        return mBestStreak;
+    }
+
+    /**
+     * @param countryId A country id.
+     * @return The number of times it was asked.
+     */
+    public int getAsked(int countryId) {
+        return mCountryAsked[countryId];
+    }
+
+    /**
+     * @param countryId A country id.
+     * @return The share of the times it was asked that it was answered on the first try,
+     * NaN if it was never asked.
+     */
+    public double getAccuracy(int countryId) {
+        return ratio(mCountryFirstTry[countryId], mCountryAsked[countryId]);
+    }
+
+    /**
+     * @param region A region.
+     * @return The number of questions asked about its countries.
+     */
+    public int getAsked(Region region) {
+        return mRegionAsked[region.ordinal()];
+    }
+
+    /**
+     * @param region A region.
+     * @return The share of its questions answered on the first try, NaN if none were asked.
+     */
+    public double getAccuracy(Region region) {
+        return ratio(mRegionFirstTry[region.ordinal()], mRegionAsked[region.ordinal()]);
+    }
+
+    /**
+     * @return The share of all questions answered on the first try, NaN if none were asked.
+     */
+    public double getAccuracy() {
+        long asked = 0;
+        long firstTry = 0;
+        for (int r = 0; r < mRegionAsked.length; r++) {
+            asked += mRegionAsked[r];
+            firstTry += mRegionFirstTry[r];
+        }
+        return ratio(firstTry, asked);
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole == 0 ? Double.NaN : (double) part / whole;
+    }
+
+    /**
+     * @return A copy of these totals.
+     */
+    HistoryStats copy() {
+        HistoryStats copy = new HistoryStats(mCountries);
+        System.arraycopy(mCountryAsked, 0, copy.mCountryAsked, 0, mCountryAsked.length);
+        System.arraycopy(mCountryFirstTry, 0, copy.mCountryFirstTry, 0, mCountryFirstTry.length);
+        System.arraycopy(mRegionAsked, 0, copy.mRegionAsked, 0, mRegionAsked.length);
+        System.arraycopy(mRegionFirstTry, 0, copy.mRegionFirstTry, 0, mRegionFirstTry.length);
+        copy.mGuesses = mGuesses;
+        copy.mCorrectGuesses = mCorrectGuesses;
+        copy.mCurrentStreak = mCurrentStreak;
+        copy.mBestStreak = mBestStreak;
+        return copy;
+    }
+
+    /**
+     * Writes the totals (the part of the snapshot after its header).
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(mGuesses);
+        out.writeLong(mCorrectGuesses);
+        out.writeInt(mCurrentStreak);
+        out.writeInt(mBestStreak);
+        out.writeByte(mRegionAsked.length);
+        for (int r = 0; r < mRegionAsked.length; r++) {
+            out.writeInt(mRegionAsked[r]);
+            out.writeInt(mRegionFirstTry[r]);
+        }
+        for (int id = 0; id < mCountryAsked.length; id++) {
+            out.writeInt(mCountryAsked[id]);
+            out.writeInt(mCountryFirstTry[id]);
+        }
+    }
+
+    /**
+     * Reads totals written by {@link #write}.
+     * @throws IOException If they do not match the catalog.
+     */
+    void read(DataInputStream in) throws IOException {
+        mGuesses = in.readLong();
+        mCorrectGuesses = in.readLong();
+        mCurrentStreak = in.readInt();
+        mBestStreak = in.readInt();
+        int regions = in.readUnsignedByte();
+        if (regions != mRegionAsked.length) {
+            throw new IOException("Snapshot has " + regions + " regions, expected "
+                    + mRegionAsked.length);
+        }
+        for (int r = 0; r < regions; r++) {
+            mRegionAsked[r] = in.readInt();
+            mRegionFirstTry[r] = in.readInt();
+        }
+        for (int id = 0; id < mCountryAsked.length; id++) {
+            mCountryAsked[id] = in.readInt();
+            mCountryFirstTry[id] = in.readInt();
+        }
+    }
+}
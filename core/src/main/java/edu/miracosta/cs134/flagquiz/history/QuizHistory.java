@@ -0,0 +1,418 @@
+package edu.miracosta.cs134.flagquiz.history;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+
+/**
+ * Every guess ever made, kept in two files of the app's files directory:
+ * <ul>
+ * <li><code>history.log</code>, an append-only log of fixed-size guess records, and</li>
+ * <li><code>history_stats.bin</code>, a snapshot of the {@link HistoryStats} totals and of how
+ * much of the log they already include.</li>
+ * </ul>
+ * Guesses are recorded on the calling thread in O(1): the totals are updated in memory and the
+ * record is queued.  A single background thread appends queued records in batches, so the
+ * main thread never waits on the disk.  Opening replays only the part of the log written
+ * after the snapshot.
+ *
+ * Once the log grows past a limit it is compacted: the totals are saved in a new snapshot
+ * and the log is emptied, so storage stays bounded however long the app is used.  Both files
+ * carry a generation number, so a compaction interrupted between the two steps is detected
+ * and finished on the next open rather than counting guesses twice.
+ *
+ * All values are big-endian.  The log header is the magic number, version, country count,
+ * catalog hash and generation (all ints).  Each record is a long timestamp, the int country
+ * id, the int latency in milliseconds (-1 if unknown) and int flags.  The snapshot header is
+ * the magic number, version, country count, catalog hash and generation, then the long log
+ * offset its totals cover, followed by the totals.
+ */
+public class QuizHistory implements Closeable {
+
+    /** Name of the log in the app's files directory. */
+    public static final String LOG_FILE = "history.log";
+    /** Name of the snapshot in the app's files directory. */
+    public static final String STATS_FILE = "history_stats.bin";
+
+    static final int LOG_MAGIC = 0x4651484C;   // "FQHL"
+    static final int STATS_MAGIC = 0x46514853; // "FQHS"
+    static final int VERSION = 1;
+    static final int LOG_HEADER_SIZE = 20;
+    static final int RECORD_SIZE = 20;
+
+    private static final int FLAG_CORRECT = 1;
+    private static final int FLAG_FIRST_GUESS = 2;
+
+    private static final long DEFAULT_MAX_LOG_SIZE = 1 << 20; // about 50000 guesses
+    private static final long FLUSH_DELAY = 1000;             // milliseconds
+    private static final int BATCH_SIZE = 64;                 // records that trigger a flush
+
+    private final File mLogFile;
+    private final File mStatsFile;
+    private final List<Country> mCountries;
+    private final int mCatalogHash;
+    private final long mMaxLogSize;
+    private final ScheduledExecutorService mWriter =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    // A history that is never closed must not keep the process alive
+                    Thread thread = new Thread(runnable, "QuizHistory");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    // Guarded by this
+    private HistoryStats mStats;
+    private ByteBuffer mPending = newBuffer(BATCH_SIZE);
+    private boolean mFlushScheduled;
+
+    // Used on mWriter only
+    private ByteBuffer mWriting = newBuffer(BATCH_SIZE);
+    private RandomAccessFile mLog;
+    private int mGeneration;
+
+    /**
+     * Opens the history in a directory.  The files are read in the background; guesses
+     * recorded meanwhile are kept and added once the saved totals are in.
+     * @param directory The directory holding the files.
+     * @param countries The catalog, each country at the position of its id.
+     */
+    public QuizHistory(File directory, List<Country> countries) {
+        this(directory, countries, DEFAULT_MAX_LOG_SIZE);
+    }
+
+    QuizHistory(File directory, List<Country> countries, long maxLogSize) {
+        mLogFile = new File(directory, LOG_FILE);
+        mStatsFile = new File(directory, STATS_FILE);
+        mCountries = countries;
+        mCatalogHash = countries.hashCode();
+        mMaxLogSize = maxLogSize;
+        mStats = new HistoryStats(countries);
+        mWriter.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                try {
+                    open();
+                } catch (IOException e) {
+                    // Keep counting in memory, but nothing is saved this time
+                    if (mLog != null) {
+                        mLog.close();
+                        mLog = null;
+                    }
+                    throw e;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Records a guess.
+     * @param countryId The country that was asked.
+     * @param correct Whether the guess was right.
+     * @param firstGuess Whether it was the first guess of its question.
+     * @param latencyMillis Milliseconds from the flag being shown to the guess, or -1.
+     * @param timeMillis When the guess was made, in milliseconds since the epoch.
+     */
+    public synchronized void record(int countryId, boolean correct, boolean firstGuess,
+                                    long latencyMillis, long timeMillis) {
+        mStats.add(countryId, correct, firstGuess);
+
+        if (!mPending.hasRemaining()) {
+            mPending = grow(mPending);
+        }
+        mPending.putLong(timeMillis);
+        mPending.putInt(countryId);
+        mPending.putInt((int) Math.max(-1, Math.min(latencyMillis, Integer.MAX_VALUE)));
+        mPending.putInt((correct ? FLAG_CORRECT : 0) | (firstGuess ? FLAG_FIRST_GUESS : 0));
+
+        if (mPending.position() >= BATCH_SIZE * RECORD_SIZE) {
+            mWriter.submit(mFlush);
+        } else if (!mFlushScheduled) {
+            mFlushScheduled = true;
+            mWriter.schedule(mFlush, FLUSH_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return A copy of the totals over every guess recorded so far.
+     */
+    public synchronized HistoryStats getStats() {
+        return mStats.copy();
+    }
+
+    /**
+     * Writes the queued guesses now.
+     * @return Completes once they are in the log.
+     */
+    public Future<?> flush() {
+        return mWriter.submit(mFlush);
+    }
+
+    /**
+     * Writes the queued guesses and a fresh snapshot, then stops the writer thread.  Does not
+     * wait: see {@link #awaitClose}.
+     */
+    @Override
+    public void close() {
+        mWriter.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                if (mLog != null) {
+                    write(true);
+                    mLog.close();
+                    mLog = null;
+                }
+                return null;
+            }
+        });
+        mWriter.shutdown();
+    }
+
+    /**
+     * Waits for {@link #close} to finish writing.
+     * @param timeout The longest time to wait.
+     * @param unit The unit of the timeout.
+     * @return False if it is still writing after the timeout.
+     */
+    public boolean awaitClose(long timeout, TimeUnit unit) throws InterruptedException {
+        return mWriter.awaitTermination(timeout, unit);
+    }
+
+    private final Callable<Void> mFlush = new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+            if (mLog != null) {
+                write(false);
+            } else {
+                synchronized (QuizHistory.this) {
+                    mPending.clear();
+                    mFlushScheduled = false;
+                }
+            }
+            return null;
+        }
+    };
+
+    /**
+     * Appends the queued records, on the writer thread, and compacts the log if it has grown
+     * too large.
+     * @param closing True to also save a snapshot, so the next open has nothing to replay.
+     */
+    private void write(boolean closing) throws IOException {
+        byte[] snapshot = null;
+        boolean compact;
+        long logSize = mLog.length();
+        synchronized (this) {
+            ByteBuffer swap = mPending;
+            mPending = mWriting;
+            mWriting = swap;
+            mFlushScheduled = false;
+            compact = logSize + mWriting.position() > mMaxLogSize;
+            if (compact || closing) {
+                // Taken together with the records, so it covers exactly what is in the log
+                snapshot = toBytes(mStats);
+            }
+        }
+
+        mWriting.flip();
+        FileChannel channel = mLog.getChannel();
+        channel.position(logSize);
+        while (mWriting.hasRemaining()) {
+            channel.write(mWriting);
+        }
+        mWriting.clear();
+
+        if (compact) {
+            // Snapshot first: if we stop before the log is emptied, the next open sees an
+            // older log generation and knows every record in it is already counted
+            writeSnapshot(snapshot, mGeneration + 1, LOG_HEADER_SIZE);
+            resetLog(mGeneration + 1);
+        } else if (closing) {
+            writeSnapshot(snapshot, mGeneration, mLog.length());
+        }
+    }
+
+    /**
+     * Loads the snapshot, replays the log after it and adds the guesses recorded meanwhile,
+     * on the writer thread.
+     */
+    private void open() throws IOException {
+        HistoryStats stats = new HistoryStats(mCountries);
+        int statsGeneration = -1;
+        long offset = LOG_HEADER_SIZE;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(mStatsFile)));
+            try {
+                if (in.readInt() == STATS_MAGIC && in.readInt() == VERSION
+                        && in.readInt() == mCountries.size() && in.readInt() == mCatalogHash) {
+                    int generation = in.readInt();
+                    offset = in.readLong();
+                    stats.read(in);
+                    statsGeneration = generation;
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // Missing or damaged: the totals are rebuilt from the log alone
+            stats = new HistoryStats(mCountries);
+            offset = LOG_HEADER_SIZE;
+        }
+
+        mLog = new RandomAccessFile(mLogFile, "rw");
+        int logGeneration = readLogHeader();
+        if (logGeneration < 0 || logGeneration < statsGeneration) {
+            // No usable log, or a compaction stopped after its snapshot: nothing to replay
+            mGeneration = Math.max(statsGeneration, 0);
+            resetLog(mGeneration);
+        } else {
+            if (logGeneration > statsGeneration) {
+                // The snapshot is older than the log (or missing), count the whole log
+                stats = new HistoryStats(mCountries);
+                offset = LOG_HEADER_SIZE;
+            }
+            mGeneration = logGeneration;
+            replay(stats, offset);
+        }
+
+        synchronized (this) {
+            ByteBuffer pending = mPending.duplicate();
+            pending.flip();
+            replay(stats, pending);
+            mStats = stats;
+        }
+    }
+
+    /**
+     * @return The generation of the open log, or -1 if it has no valid header for this catalog.
+     */
+    private int readLogHeader() throws IOException {
+        if (mLog.length() < LOG_HEADER_SIZE) {
+            return -1;
+        }
+        mLog.seek(0);
+        if (mLog.readInt() != LOG_MAGIC || mLog.readInt() != VERSION
+                || mLog.readInt() != mCountries.size() || mLog.readInt() != mCatalogHash) {
+            return -1;
+        }
+        return mLog.readInt();
+    }
+
+    /**
+     * Adds the log records from an offset to the totals, dropping a partly written last record.
+     */
+    private void replay(HistoryStats stats, long offset) throws IOException {
+        long length = mLog.length();
+        long end = LOG_HEADER_SIZE + (length - LOG_HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+        if (end != length) {
+            mLog.setLength(end);
+        }
+        ByteBuffer buffer = newBuffer(256);
+        FileChannel channel = mLog.getChannel();
+        long position = Math.max(offset, LOG_HEADER_SIZE);
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            buffer.flip();
+            replay(stats, buffer);
+            position += read - buffer.remaining(); // a record cut off is read again
+        }
+    }
+
+    private static void replay(HistoryStats stats, ByteBuffer records) {
+        while (records.remaining() >= RECORD_SIZE) {
+            records.getLong(); // time
+            int countryId = records.getInt();
+            records.getInt();  // latency
+            int flags = records.getInt();
+            stats.add(countryId, (flags & FLAG_CORRECT) != 0, (flags & FLAG_FIRST_GUESS) != 0);
+        }
+    }
+
+    /**
+     * Empties the log, leaving only a header with a generation.
+     */
+    private void resetLog(int generation) throws IOException {
+        mLog.setLength(0);
+        mLog.seek(0);
+        mLog.writeInt(LOG_MAGIC);
+        mLog.writeInt(VERSION);
+        mLog.writeInt(mCountries.size());
+        mLog.writeInt(mCatalogHash);
+        mLog.writeInt(generation);
+        mLog.getFD().sync();
+        mGeneration = generation;
+    }
+
+    private byte[] toBytes(HistoryStats stats) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 8 * mCountries.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        stats.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Replaces the snapshot, through a temporary file so that a crash leaves the old one.
+     */
+    private void writeSnapshot(byte[] totals, int generation, long offset) throws IOException {
+        File temp = new File(mStatsFile.getPath() + ".tmp");
+        FileOutputStream file = new FileOutputStream(temp);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+            out.writeInt(STATS_MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(mCountries.size());
+            out.writeInt(mCatalogHash);
+            out.writeInt(generation);
+            out.writeLong(offset);
+            out.write(totals);
+            out.flush();
+            file.getFD().sync();
+        } finally {
+            file.close();
+        }
+        if (!temp.renameTo(mStatsFile)) {
+            throw new IOException("Could not replace " + mStatsFile);
+        }
+    }
+
+    private static ByteBuffer newBuffer(int records) {
+        return ByteBuffer.allocate(records * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer bigger = ByteBuffer.allocate(2 * buffer.capacity()).order(ByteOrder.BIG_ENDIAN);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+}
@@ -0,0 +1,149 @@
+package edu.miracosta.cs134.flagquiz.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative longs (durations in nanoseconds) with log-linear buckets:
+ * every power of two is split into 8 buckets, so percentiles are accurate to 12.5% over the
+ * whole range of a long with a fixed 496 counters.  Recording a value is a few shifts and
+ * allocates nothing.
+ */
+public class Histogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] mCounts = new long[BUCKETS];
+    private long mCount;
+    private long mSum;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax;
+
+    /**
+     * Adds a value.
+     * @param value The value, negative values count as 0.
+     */
+    public synchronized void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        mCounts[indexOf(value)]++;
+        mCount++;
+        mSum += value;
+        mMin = Math.min(mMin, value);
+        mMax = Math.max(mMax, value);
+    }
+
+    /**
+     * Adds every value of another histogram, as if each had been recorded here too.
+     * @param other The histogram to add, left unchanged.
+     */
+    public void add(Histogram other) {
+        long[] counts;
+        long count, sum, min, max;
+        synchronized (other) {
+            counts = other.mCounts.clone();
+            count = other.mCount;
+            sum = other.mSum;
+            min = other.mMin;
+            max = other.mMax;
+        }
+        synchronized (this) {
+            for (int i = 0; i < BUCKETS; i++) {
+                mCounts[i] += counts[i];
+            }
+            mCount += count;
+            mSum += sum;
+            mMin = Math.min(mMin, min);
+            mMax = Math.max(mMax, max);
+        }
+    }
+
+    /**
+     * Forgets every value.
+     */
+    public synchronized void reset() {
+        Arrays.fill(mCounts, 0);
+        mCount = 0;
+        mSum = 0;
+        mMin = Long.MAX_VALUE;
+        mMax = 0;
+    }
+
+    public synchronized long getCount() {
+        return mCount;
+    }
+
+    public synchronized long getSum() {
+        return mSum;
+    }
+
+    /**
+     * @return The smallest value, 0 if there are none.
+     */
+    public synchronized long getMin() {
+        return mCount == 0 ? 0 : mMin;
+    }
+
+    /**
+     * @return The largest value, 0 if there are none.
+     */
+    public synchronized long getMax() {
+        return mMax;
+    }
+
+    /**
+     * @return The average value, 0 if there are none.
+     */
+    public synchronized double getMean() {
+        return mCount == 0 ? 0 : (double) mSum / mCount;
+    }
+
+    /**
+     * @param quantile A fraction between 0 and 1, 0.5 for the median.
+     * @return An upper bound of the value at that quantile, within 12.5% of it and never
+     * above the largest value; 0 if there are none.
+     */
+    public synchronized long getPercentile(double quantile) {
+        if (mCount == 0) {
+            return 0;
+        } else if (quantile <= 0) {
+            return mMin;
+        }
+        long target = Math.max(1, (long) Math.ceil(quantile * mCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += mCounts[i];
+            if (seen >= target) {
+                return Math.max(mMin, Math.min(mMax, highestValue(i)));
+            }
+        }
+        return mMax;
+    }
+
+    /**
+     * @return The bucket of a value: values below 8 have one each, then each power of two is
+     * split into 8 equal buckets.
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @return The largest value that falls in a bucket.
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,123 @@
+package edu.miracosta.cs134.flagquiz.model;
+
+/**
+ * Represents a Country for the purposes of the FlagQuiz, including the country's name,
+ * region and the file name (including path) for its image.
+ *
+ * Each <code>Country</code> has an int id, its position in the catalog, so it can be
+ * identified and compared without touching its strings.  The hash code is computed once, and
+ * the file name is only built when it is first asked for.
+ *
+ * @author Michael Paulding
+ * @version 1.0
+ */
+public class Country {
+
+    private final int mId;
+    private final String mName;
+    private final Region mRegion;
+    private final int mHashCode;
+    private String mFileName; // derived on first use unless known up front
+
+    /**
+     * Instantiates a new <code>Country</code> given its id, name and region.
+     * @param id The position of the <code>Country</code> in the catalog
+     * @param name The name of the <code>Country</code>
+     * @param region The region of the <code>Country</code>
+     */
+    public Country(int id, String name, Region region) {
+        this(id, name, region, null);
+    }
+
+    /**
+     * Instantiates a new <code>Country</code> whose file name has already been worked out
+     * (for example when read from the precompiled country index).
+     * @param id The position of the <code>Country</code> in the catalog
+     * @param name The name of the <code>Country</code>
+     * @param region The region of the <code>Country</code>
+     * @param fileName The file name (with path) of the <code>Country</code>'s flag, or null to
+     *                 derive it from the name and region
+     */
+    public Country(int id, String name, Region region, String fileName) {
+        mId = id;
+        mName = name;
+        mRegion = region;
+        mFileName = fileName;
+        mHashCode = 31 * id + name.hashCode();
+    }
+
+    /**
+     * Gets the id of the <code>Country</code>.
+     * @return The position of the <code>Country</code> in the catalog
+     */
+    public int getId() {
+        return mId;
+    }
+
+    /**
+     * Gets the name of the <code>Country</code>.
+     * @return The name of the <code>Country</code>
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Gets the region of the <code>Country</code>.
+     * @return The region of the <code>Country</code>
+     */
+    public Region getRegion() {
+        return mRegion;
+    }
+
+    /**
+     * Gets the file name of the <code>Country</code> with its path. For example:
+     * Africa/Africa-Algeria.png
+     * @return The file name of the <code>Country</code>
+     */
+    public String getFileName() {
+        if (mFileName == null) {
+            String directory = mRegion.getDirectory();
+            mFileName = directory + "/" + directory + "-" + mName.replace(' ', '_') + ".png";
+        }
+        return mFileName;
+    }
+
+    /**
+     * Compares two Countries for equality based on id and name.
+     * @param o The other country.
+     * @return True if the countries are the same, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Country country = (Country) o;
+
+        return mId == country.mId && mHashCode == country.mHashCode && mName.equals(country.mName);
+    }
+
+    /**
+     * Generates an integer based hash code to uniquely represent this <code>Country</code>.
+     * @return An integer based hash code to represent this <code>Country</code>.
+     */
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    /**
+     * Generates a text based representation of this <code>Country</code>.
+     * @return A text based representation of this <code>Country</code>.
+     */
+    @Override
+    public String toString() {
+        return "Country{" +
+                "Id=" + mId +
+                ", Name='" + mName + '\'' +
+                ", Region='" + mRegion + '\'' +
+                ", FileName='" + getFileName() + '\'' +
+                '}';
+    }
+}
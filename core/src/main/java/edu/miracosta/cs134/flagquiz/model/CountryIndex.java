@@ -0,0 +1,78 @@
+package edu.miracosta.cs134.flagquiz.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the binary country index that the build generates from <code>Countries.json</code>
+ * (see the <code>generateCountryIndex</code> task).  The index already contains each country's
+ * asset path and shares one copy of each region name, so no JSON parsing or string
+ * manipulation happens at runtime.
+ */
+public class CountryIndex {
+
+    /** Name of the index file in the assets directory. */
+    public static final String ASSET_NAME = "countries.idx";
+
+    private static final int MAGIC = 0x46514958; // 'FQIX'
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Reads all the countries from an index.
+     *
+     * @param buffer The index contents, from the current position (for example a memory-mapped asset).
+     * @return The countries, in the same order as in <code>Countries.json</code>.
+     * @throws IOException If the buffer does not contain a valid index.
+     */
+    public static List<Country> read(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a country index");
+            }
+            int version = in.getShort() & 0xFFFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported country index version " + version);
+            }
+
+            // Interned string table
+            String[] strings = new String[in.getShort() & 0xFFFF];
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < strings.length; i++) {
+                int length = in.getShort() & 0xFFFF;
+                if (length > scratch.length) {
+                    scratch = new byte[length];
+                }
+                in.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, UTF_8);
+            }
+
+            Region[] regions = new Region[in.get() & 0xFF];
+            for (int i = 0; i < regions.length; i++) {
+                String name = strings[in.getShort() & 0xFFFF];
+                regions[i] = Region.find(name);
+                if (regions[i] == null) {
+                    throw new IOException("Unknown region " + name);
+                }
+            }
+
+            int count = in.getShort() & 0xFFFF;
+            List<Country> countries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = strings[in.getShort() & 0xFFFF];
+                Region region = regions[in.get() & 0xFF];
+                String fileName = strings[in.getShort() & 0xFFFF];
+                countries.add(new Country(i, name, region, fileName));
+            }
+            return countries;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt country index", e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package edu.miracosta.cs134.flagquiz.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The names of the countries in one locale, read from a table the build generates per locale
+ * (see the <code>generateCountryNames</code> task).  Tables are keyed by country id, so the
+ * catalog itself is shared by every language, and a country the table has no name for keeps
+ * its catalog (English) name.  Only the table of the locale in use needs to be read.
+ *
+ * The collation key of every name is computed when the table is read, so sorting names or
+ * looking one up compares bytes instead of running the locale's collation rules each time.
+ * Keys compare at primary strength: case and accents are ignored.
+ */
+public class CountryNames {
+
+    /** Directory of the name tables in the assets. */
+    public static final String ASSET_DIR = "names";
+
+    /** Returned by {@link #find} when no country has the name. */
+    public static final int NOT_FOUND = -1;
+
+    private static final int MAGIC = 0x46514E4D; // 'FQNM'
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Locale mLocale;
+    private final String[] mNames;        // country id -> name in the locale
+    private final Collator mCollator;     // guarded by itself
+    private final CollationKey[] mKeys;   // country id -> key of its name
+    private final int[] mSorted;          // country ids in collation order
+
+    private CountryNames(Locale locale, String[] names) {
+        mLocale = locale;
+        mNames = names;
+        mCollator = Collator.getInstance(locale);
+        mCollator.setStrength(Collator.PRIMARY);
+        mKeys = new CollationKey[names.length];
+        Integer[] order = new Integer[names.length];
+        for (int id = 0; id < names.length; id++) {
+            mKeys[id] = mCollator.getCollationKey(names[id]);
+            order[id] = id;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return CountryNames.this.compare(a, b);
+            }
+        });
+        mSorted = new int[names.length];
+        for (int i = 0; i < mSorted.length; i++) {
+            mSorted[i] = order[i];
+        }
+    }
+
+    /**
+     * Uses the catalog names, for a locale with no table of its own (such as English).
+     * @param countries The catalog, each country at the position of its id.
+     * @param locale The locale that sorts the names.
+     * @return The names.
+     */
+    public static CountryNames fromCatalog(List<Country> countries, Locale locale) {
+        String[] names = new String[countries.size()];
+        for (int id = 0; id < names.length; id++) {
+            names[id] = countries.get(id).getName();
+        }
+        return new CountryNames(locale, names);
+    }
+
+    /**
+     * Reads a locale's table.
+     * @param buffer The table contents, from the current position (for example a memory-mapped asset).
+     * @param countries The catalog the table was generated from.
+     * @param locale The locale of the table.
+     * @return The names.
+     * @throws IOException If the buffer does not contain a valid table for this catalog.
+     */
+    public static CountryNames read(ByteBuffer buffer, List<Country> countries, Locale locale)
+            throws IOException {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a country name table");
+            }
+            int version = in.getShort() & 0xFFFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported country name table version " + version);
+            }
+            int count = in.getShort() & 0xFFFF;
+            if (count != countries.size()) {
+                throw new IOException("Name table has " + count + " countries, the catalog "
+                        + countries.size());
+            }
+
+            String[] names = new String[count];
+            byte[] scratch = new byte[64];
+            for (int id = 0; id < count; id++) {
+                int length = in.getShort() & 0xFFFF;
+                if (length == 0) {
+                    names[id] = countries.get(id).getName();
+                    continue;
+                }
+                if (length > scratch.length) {
+                    scratch = new byte[length];
+                }
+                in.get(scratch, 0, length);
+                names[id] = new String(scratch, 0, length, UTF_8);
+            }
+            return new CountryNames(locale, names);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt country name table", e);
+        }
+    }
+
+    /**
+     * Lists the assets that may hold a locale's table, most specific first: the full language
+     * tag, then language and country, then the language alone (<code>zh-Hant-TW</code>,
+     * <code>zh-TW</code>, <code>zh</code>).
+     * @param locale The locale.
+     * @return The asset names to try.
+     */
+    public static List<String> getAssetNames(Locale locale) {
+        List<String> tags = new ArrayList<>(3);
+        tags.add(locale.toLanguageTag());
+        String language = new Locale(locale.getLanguage()).toLanguageTag();
+        if (!locale.getCountry().isEmpty()) {
+            String tag = language + "-" + locale.getCountry();
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        if (!tags.contains(language)) {
+            tags.add(language);
+        }
+        List<String> names = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            names.add(ASSET_DIR + "/" + tag + ".bin");
+        }
+        return names;
+    }
+
+    /**
+     * @return The locale of the names.
+     */
+    public Locale getLocale() {
+        return mLocale;
+    }
+
+    /**
+     * @param country A country of the catalog.
+     * @return Its name in this locale.
+     */
+    public String getName(Country country) {
+        return mNames[country.getId()];
+    }
+
+    /**
+     * @param id A country id.
+     * @return The name of that country in this locale.
+     */
+    public String getName(int id) {
+        return mNames[id];
+    }
+
+    /**
+     * Compares two countries by name in this locale's order.
+     * @return Negative, zero or positive as the first name sorts before, with or after the second.
+     */
+    public int compare(int id1, int id2) {
+        return mKeys[id1].compareTo(mKeys[id2]);
+    }
+
+    /**
+     * @return The country ids sorted by name in this locale's order.
+     */
+    public int[] getSortedIds() {
+        return mSorted.clone();
+    }
+
+    /**
+     * Finds the country with a name, ignoring case and accents the way the locale does
+     * ("agypten" is &Auml;gypten in German).
+     * @param name The name to look for.
+     * @return The id of the country, or {@link #NOT_FOUND}.
+     */
+    public int find(CharSequence name) {
+        CollationKey key;
+        synchronized (mCollator) {
+            key = mCollator.getCollationKey(name.toString().trim());
+        }
+        int lo = 0;
+        int hi = mSorted.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = mKeys[mSorted[mid]].compareTo(key);
+            if (c < 0) {
+                lo = mid + 1;
+            } else if (c > 0) {
+                hi = mid - 1;
+            } else {
+                return mSorted[mid];
+            }
+        }
+        return NOT_FOUND;
+    }
+}
@@ -0,0 +1,64 @@
+package edu.miracosta.cs134.flagquiz.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The world regions countries are grouped by.  Regions are compared by identity (or ordinal),
+ * and the name and asset directory of each are computed once.
+ */
+public enum Region {
+    AFRICA("Africa"),
+    ASIA("Asia"),
+    EUROPE("Europe"),
+    NORTH_AMERICA("North America"),
+    OCEANIA("Oceania"),
+    SOUTH_AMERICA("South America");
+
+    private static final Map<String, Region> BY_NAME = new HashMap<>();
+
+    static {
+        for (Region region : values()) {
+            BY_NAME.put(region.mName, region);
+            BY_NAME.put(region.mDirectory, region);
+        }
+    }
+
+    private final String mName;
+    private final String mDirectory;
+
+    Region(String name) {
+        mName = name;
+        mDirectory = name.replace(' ', '_');
+    }
+
+    /**
+     * Gets the name of the <code>Region</code>, as in <code>Countries.json</code>.
+     * @return The name, e.g. North America
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Gets the assets directory holding the <code>Region</code>'s flags.
+     * @return The directory, e.g. North_America
+     */
+    public String getDirectory() {
+        return mDirectory;
+    }
+
+    /**
+     * Looks up a region by name.
+     * @param name A region name (North America) or directory (North_America).
+     * @return The region, or null if there is no such region.
+     */
+    public static Region find(String name) {
+        return BY_NAME.get(name);
+    }
+
+    @Override
+    public String toString() {
+        return mName;
+    }
+}
@@ -0,0 +1,175 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import java.util.Arrays;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+/**
+ * Chooses quiz countries by how well the user knows them.  Every country has a mastery score
+ * from 0 (always missed) to {@link #MASTERED}, which moves a quarter of the way towards the
+ * result of each question it is asked in: full marks for a first-try answer, less for every
+ * wrong try.  Countries are drawn with a weight that falls linearly with mastery, so missed
+ * flags come back about 17 times as often as mastered ones and new flags in between.
+ *
+ * The weights live in {@link WeightedSampler}s, one for the whole catalog and one per region,
+ * so recording an answer costs O(log n) and drawing a quiz O(k log n), whatever the size of
+ * the catalog.  Scores are indexed by country id and fit in a byte, see {@link MasteryStore}.
+ */
+public class AdaptiveScheduler {
+
+    /** Mastery of a country that is always answered on the first try. */
+    public static final int MASTERED = 255;
+    /** Mastery of a country that has never been asked. */
+    public static final int UNSEEN = 128;
+
+    private static final int MIN_WEIGHT = 16;
+
+    private final List<Country> mCountries; // by id
+    private final byte[] mMastery;          // by id, unsigned
+    private final WeightedSampler mAll;     // by id
+    private final WeightedSampler[] mRegions; // by region ordinal, then position in mMembers
+    private final int[][] mMembers;         // by region ordinal, ids in ascending order
+    private final int[] mPositions;         // by id, position in its region's mMembers
+
+    /**
+     * Creates a scheduler with every country unseen.
+     * @param countries The catalog, each country at the position of its id.
+     */
+    public AdaptiveScheduler(List<Country> countries) {
+        mCountries = countries;
+        int n = countries.size();
+        mMastery = new byte[n];
+        mAll = new WeightedSampler(n);
+        mPositions = new int[n];
+
+        int regions = Region.values().length;
+        int[] sizes = new int[regions];
+        for (Country country : countries) {
+            mPositions[country.getId()] = sizes[country.getRegion().ordinal()]++;
+        }
+        mRegions = new WeightedSampler[regions];
+        mMembers = new int[regions][];
+        for (int r = 0; r < regions; r++) {
+            mRegions[r] = new WeightedSampler(sizes[r]);
+            mMembers[r] = new int[sizes[r]];
+        }
+        for (int id = 0; id < n; id++) {
+            mMembers[countries.get(id).getRegion().ordinal()][mPositions[id]] = id;
+        }
+
+        byte[] unseen = new byte[n];
+        Arrays.fill(unseen, (byte) UNSEEN);
+        setMastery(unseen);
+    }
+
+    /**
+     * Replaces every score, in O(n).
+     * @param mastery The scores by country id, as unsigned bytes.
+     */
+    public void setMastery(byte[] mastery) {
+        if (mastery.length != mMastery.length) {
+            throw new IllegalArgumentException("Expected " + mMastery.length + " scores, got "
+                    + mastery.length);
+        }
+        System.arraycopy(mastery, 0, mMastery, 0, mastery.length);
+
+        long[] all = new long[mMastery.length];
+        for (int id = 0; id < all.length; id++) {
+            all[id] = getWeight(id);
+        }
+        mAll.setAll(all);
+        for (int r = 0; r < mMembers.length; r++) {
+            long[] weights = new long[mMembers[r].length];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = all[mMembers[r][i]];
+            }
+            mRegions[r].setAll(weights);
+        }
+    }
+
+    /**
+     * @return A copy of the scores by country id, as unsigned bytes.
+     */
+    public byte[] getMastery() {
+        return mMastery.clone();
+    }
+
+    /**
+     * @param id A country id.
+     * @return Its mastery, from 0 to {@link #MASTERED}.
+     */
+    public int getMastery(int id) {
+        return mMastery[id] & 0xFF;
+    }
+
+    /**
+     * @param id A country id.
+     * @return How likely it is to be drawn, relative to the other countries.
+     */
+    public long getWeight(int id) {
+        return MIN_WEIGHT + MASTERED - getMastery(id);
+    }
+
+    /**
+     * Updates a country's score after it has been answered, in O(log n).
+     * @param id The country asked.
+     * @param wrongGuesses The number of wrong tries before the right answer.
+     * @param choices The number of answer choices the question had.
+     * @return The country's new mastery.
+     */
+    public int record(int id, int wrongGuesses, int choices) {
+        int wrongChoices = Math.max(1, choices - 1);
+        int result = MASTERED * Math.max(0, wrongChoices - wrongGuesses) / wrongChoices;
+        int mastery = getMastery(id);
+        // Round away from the current score so that it always moves, even when close
+        int step = (result - mastery) / 4;
+        if (step == 0 && result != mastery) {
+            step = result > mastery ? 1 : -1;
+        }
+        mastery += step;
+        mMastery[id] = (byte) mastery;
+
+        long weight = getWeight(id);
+        mAll.set(id, weight);
+        mRegions[mCountries.get(id).getRegion().ordinal()].set(mPositions[id], weight);
+        return mastery;
+    }
+
+    /**
+     * Draws a quiz: distinct countries from one region, weakest ones most likely first.
+     *
+     * @param region A region name, or {@link QuizGenerator#ALL_REGIONS}.
+     * @param count The number of questions wanted.
+     * @param rng Source of randomness.
+     * @param out Receives the drawn country ids.
+     * @return The number drawn: <code>count</code>, or the region's size if smaller.
+     * @throws IllegalArgumentException If the region has no countries or count is not positive.
+     */
+    public int generate(String region, int count, RandomSource rng, int[] out) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("A quiz needs at least one question, not " + count);
+        }
+        if (QuizGenerator.ALL_REGIONS.equals(region)) {
+            return check(region, mAll.sample(count, rng, out));
+        }
+        Region known = Region.find(region);
+        if (known == null) {
+            throw new IllegalArgumentException("No countries in region " + region);
+        }
+        int drawn = check(region, mRegions[known.ordinal()].sample(count, rng, out));
+        int[] members = mMembers[known.ordinal()];
+        for (int i = 0; i < drawn; i++) {
+            out[i] = members[out[i]];
+        }
+        return drawn;
+    }
+
+    private static int check(String region, int drawn) {
+        if (drawn == 0) {
+            throw new IllegalArgumentException("No countries in region " + region);
+        }
+        return drawn;
+    }
+}
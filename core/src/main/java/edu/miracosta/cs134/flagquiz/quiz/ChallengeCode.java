@@ -0,0 +1,165 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+/**
+ * A short code that describes a quiz completely: its seed and settings.  Starting a quiz from
+ * a friend's code asks the same flags with the same answer choices in the same order.
+ *
+ * The code packs 50 bits into ten Crockford base32 characters, written as two groups of five
+ * (<code>7K3QD-1XB9M</code>): a 36 bit seed, the region (3 bits), the number of choices
+ * (3 bits), the difficulty (2 bits) and a 6 bit checksum that catches most typos.  Decoding
+ * ignores case, dashes and spaces, and reads O as 0 and I or L as 1.
+ */
+public class ChallengeCode {
+
+    /** The bits of a seed that fit in a code.  Seeds of shared quizzes must stay within them. */
+    public static final long SEED_MASK = (1L << 36) - 1;
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int LENGTH = 10;
+    private static final int MIN_CHOICES = 2;
+    private static final int MAX_CHOICES = MIN_CHOICES + 7;
+
+    private final long mSeed;
+    private final String mRegion;
+    private final int mChoices;
+    private final Difficulty mDifficulty;
+
+    /**
+     * @param seed The seed the quiz was started with, within {@link #SEED_MASK}.
+     * @param region A region name, or {@link QuizGenerator#ALL_REGIONS}.
+     * @param choices The number of answer choices per question, 2 to 9.
+     * @param difficulty The quiz difficulty.
+     * @throws IllegalArgumentException If a value does not fit in a code.
+     */
+    public ChallengeCode(long seed, String region, int choices, Difficulty difficulty) {
+        if ((seed & ~SEED_MASK) != 0) {
+            throw new IllegalArgumentException("Seed " + seed + " does not fit in a code");
+        }
+        if (!QuizGenerator.ALL_REGIONS.equals(region) && Region.find(region) == null) {
+            throw new IllegalArgumentException("Unknown region " + region);
+        }
+        if (choices < MIN_CHOICES || choices > MAX_CHOICES) {
+            throw new IllegalArgumentException("Cannot encode " + choices + " choices");
+        }
+        mSeed = seed;
+        mRegion = region;
+        mChoices = choices;
+        mDifficulty = difficulty;
+    }
+
+    public long getSeed() {
+        return mSeed;
+    }
+
+    public String getRegion() {
+        return mRegion;
+    }
+
+    public int getChoices() {
+        return mChoices;
+    }
+
+    public Difficulty getDifficulty() {
+        return mDifficulty;
+    }
+
+    /**
+     * Reads a code typed or pasted by the user.
+     * @param code The code.
+     * @return The challenge it describes, or null if it is not a valid code.
+     */
+    public static ChallengeCode parse(String code) {
+        if (code == null) {
+            return null;
+        }
+        long bits = 0;
+        int digits = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = Character.toUpperCase(code.charAt(i));
+            if (c == '-' || Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c == 'O') {
+                c = '0';
+            } else if (c == 'I' || c == 'L') {
+                c = '1';
+            }
+            int value = ALPHABET.indexOf(c);
+            if (value < 0 || ++digits > LENGTH) {
+                return null;
+            }
+            bits = bits << 5 | value;
+        }
+        if (digits != LENGTH) {
+            return null;
+        }
+
+        long payload = bits >>> 6;
+        if (checksum(payload) != (bits & 0x3F)) {
+            return null;
+        }
+        int regionBits = (int) (payload >>> 39) & 0x7;
+        int choiceBits = (int) (payload >>> 36) & 0x7;
+        int difficultyBits = (int) (payload >>> 42) & 0x3;
+        if (regionBits > Region.values().length || difficultyBits >= Difficulty.values().length) {
+            return null;
+        }
+        String region = regionBits == 0 ? QuizGenerator.ALL_REGIONS
+                : Region.values()[regionBits - 1].getName();
+        return new ChallengeCode(payload & SEED_MASK, region, choiceBits + MIN_CHOICES,
+                Difficulty.values()[difficultyBits]);
+    }
+
+    /**
+     * @return The code, as ten characters in two groups of five.
+     */
+    @Override
+    public String toString() {
+        Region region = Region.find(mRegion);
+        long payload = (long) mDifficulty.ordinal() << 42
+                | (long) (region == null ? 0 : region.ordinal() + 1) << 39
+                | (long) (mChoices - MIN_CHOICES) << 36
+                | mSeed;
+        long bits = payload << 6 | checksum(payload);
+
+        StringBuilder code = new StringBuilder(LENGTH + 1);
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            code.append(ALPHABET.charAt((int) (bits >>> (5 * i)) & 0x1F));
+            if (i == LENGTH / 2) {
+                code.append('-');
+            }
+        }
+        return code.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChallengeCode)) {
+            return false;
+        }
+        ChallengeCode that = (ChallengeCode) o;
+        return mSeed == that.mSeed && mChoices == that.mChoices
+                && mDifficulty == that.mDifficulty && mRegion.equals(that.mRegion);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * Long.valueOf(mSeed).hashCode() + mRegion.hashCode()) + mChoices)
+                + mDifficulty.hashCode();
+    }
+
+    /**
+     * Six bits that change with every bit of the payload, so a mistyped character is caught
+     * 63 times in 64.
+     */
+    private static long checksum(long payload) {
+        long z = (payload ^ (payload >>> 31)) * 0x7FB5D329728EA185L;
+        z = (z ^ (z >>> 27)) * 0x81DADEF4BC2DD44DL;
+        return (z ^ (z >>> 33)) & 0x3F;
+    }
+}
@@ -0,0 +1,43 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+/**
+ * How hard the wrong answers of a question are, set by the <code>pref_difficulty</code>
+ * preference.  Harder questions use more look-alike flags as distractors.
+ */
+public enum Difficulty {
+    /** Distractors are picked at random. */
+    EASY,
+    /** About half of the distractors are look-alikes. */
+    MEDIUM,
+    /** Distractors are look-alikes whenever there are enough of them. */
+    HARD;
+
+    /**
+     * @param choices The number of distractors in a question.
+     * @return How many of them should be look-alikes.
+     */
+    public int getLookAlikes(int choices) {
+        switch (this) {
+            case HARD:
+                return choices;
+            case MEDIUM:
+                return (choices + 1) / 2;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Parses a value of the <code>pref_difficulty</code> preference.
+     * @param value The preference value (easy, medium or hard).
+     * @return The matching difficulty, EASY if the value is not recognized.
+     */
+    public static Difficulty fromPreference(String value) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.name().equalsIgnoreCase(value)) {
+                return difficulty;
+            }
+        }
+        return EASY;
+    }
+}
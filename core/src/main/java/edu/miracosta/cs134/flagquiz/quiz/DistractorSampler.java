@@ -0,0 +1,154 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+/**
+ * Picks the wrong answers shown next to the correct country.  Distractors are drawn without
+ * replacement with a partial Fisher-Yates shuffle over the generator's region pools, so a
+ * question costs O(choices) and allocates nothing: results go into a caller-supplied array
+ * and the country list itself is never reordered.
+ *
+ * With {@link FlagSimilarity} data, harder questions swap some random distractors for
+ * look-alike flags, which are looked up in constant time per candidate.
+ */
+public class DistractorSampler {
+
+    private final List<Country> mCountries;
+    private final RegionPools mPools;
+    private final QuizGenerator mGenerator;
+
+    private FlagSimilarity mSimilarity; // guarded by this
+    private int[] mCandidates;          // look-alike scratch buffer, guarded by this
+
+    /**
+     * Creates a sampler over the same catalog as a quiz generator.
+     * @param generator The generator whose countries the distractors are taken from.
+     */
+    public DistractorSampler(QuizGenerator generator) {
+        mGenerator = generator;
+        mCountries = generator.getCountries();
+        mPools = generator.getPools();
+    }
+
+    /**
+     * Sets the look-alike data used for medium and hard questions.
+     * @param similarity Similarity data for the same catalog, or null to pick at random only.
+     */
+    public synchronized void setSimilarity(FlagSimilarity similarity) {
+        if (similarity != null && similarity.getCountryCount() != mCountries.size()) {
+            throw new IllegalArgumentException("Similarity data covers " + similarity.getCountryCount()
+                    + " countries, catalog has " + mCountries.size());
+        }
+        mSimilarity = similarity;
+        mCandidates = new int[mCountries.size()];
+    }
+
+    /**
+     * Draws distinct wrong answers for a question.  When restricted to a region that does not
+     * have enough other countries, distractors are taken from the whole catalog instead.
+     *
+     * @param correct The correct answer, which is never drawn.
+     * @param region Region to take distractors from, or {@link QuizGenerator#ALL_REGIONS}.
+     * @param count The number of distractors wanted.
+     * @param rng Source of randomness.
+     * @param out Receives the indices (in {@link QuizGenerator#getCountries()}) of the distractors.
+     * @return The number of distractors drawn, less than <code>count</code> only if the
+     * catalog is too small.
+     */
+    public int sample(Country correct, String region, int count, RandomSource rng, int[] out) {
+        return sample(correct, region, count, Difficulty.EASY, rng, out);
+    }
+
+    /**
+     * Draws distinct wrong answers for a question, using look-alike flags for part of them
+     * depending on the difficulty.  The rest are drawn at random as in
+     * {@link #sample(Country, String, int, RandomSource, int[])}.
+     *
+     * @param correct The correct answer, which is never drawn.
+     * @param region Region to take distractors from, or {@link QuizGenerator#ALL_REGIONS}.
+     * @param count The number of distractors wanted.
+     * @param difficulty How many of the distractors should be look-alikes.
+     * @param rng Source of randomness.
+     * @param out Receives the indices (in {@link QuizGenerator#getCountries()}) of the distractors.
+     * @return The number of distractors drawn.
+     */
+    public synchronized int sample(Country correct, String region, int count, Difficulty difficulty,
+                                   RandomSource rng, int[] out) {
+        int drawn = 0;
+        int lookAlikes = difficulty.getLookAlikes(count);
+        if (lookAlikes > 0 && mSimilarity != null) {
+            drawn = sampleLookAlikes(mGenerator.indexOf(correct), region, lookAlikes, rng, out);
+        }
+
+        int[] pool = mPools.get(region);
+        if (pool == null || pool.length - 1 < count) {
+            pool = mPools.getAll();
+        }
+
+        synchronized (mPools) {
+            int n = pool.length;
+            int first = drawn;
+            // The correct answer (and any look-alike already chosen) is swapped to the front like
+            // any other pick and then skipped, so at most count + 1 draws are made
+            for (int i = 0; i < n && drawn < count; i++) {
+                mPools.swap(pool, i, i + rng.nextInt(n - i));
+                int picked = pool[i];
+                if (mCountries.get(picked) != correct && !contains(out, first, picked)) {
+                    out[drawn++] = picked;
+                }
+            }
+            return drawn;
+        }
+    }
+
+    /**
+     * Picks look-alikes at random from the most similar flags that are in the region, favoring
+     * the closest ones: candidates are limited to twice the number wanted.
+     */
+    private int sampleLookAlikes(int correct, String region, int count, RandomSource rng,
+                                 int[] out) {
+        if (correct < 0) {
+            return 0;
+        }
+        boolean allRegions = QuizGenerator.ALL_REGIONS.equals(region);
+        Region wanted = Region.find(region);
+        int candidates = 0;
+        int neighbors = mSimilarity.getNeighborCount(correct);
+        for (int rank = 0; rank < neighbors && candidates < 2 * count; rank++) {
+            int neighbor = mSimilarity.getNeighbor(correct, rank);
+            if (allRegions || mCountries.get(neighbor).getRegion() == wanted) {
+                mCandidates[candidates++] = neighbor;
+            }
+        }
+
+        int drawn = Math.min(count, candidates);
+        for (int i = 0; i < drawn; i++) {
+            int j = i + rng.nextInt(candidates - i);
+            int picked = mCandidates[j];
+            mCandidates[j] = mCandidates[i];
+            mCandidates[i] = picked;
+            out[i] = picked;
+        }
+        return drawn;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param index An index returned by {@link #sample}.
+     * @return The country at that index.
+     */
+    public Country getCountry(int index) {
+        return mCountries.get(index);
+    }
+}
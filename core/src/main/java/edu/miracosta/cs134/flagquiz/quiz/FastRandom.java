@@ -0,0 +1,89 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The default {@link RandomSource}: a xoshiro256++ generator, seeded through SplitMix64 so
+ * that any 64-bit seed (0 included) gives a well mixed state.  A number costs a few shifts and
+ * xors, with no locking and no entropy gathering, unlike <code>SecureRandom</code>.  Bounded
+ * ints use Lemire's multiply-shift method, which is unbiased and almost never needs a
+ * second draw.
+ *
+ * Not suitable for anything security related.
+ */
+public class FastRandom implements RandomSource {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final AtomicLong sSeedUniquifier = new AtomicLong(System.currentTimeMillis());
+
+    private long mS0;
+    private long mS1;
+    private long mS2;
+    private long mS3;
+
+    /**
+     * Creates a generator with a seed that differs between calls and between runs.
+     */
+    public FastRandom() {
+        this(sSeedUniquifier.addAndGet(GOLDEN_GAMMA) ^ System.nanoTime());
+    }
+
+    /**
+     * Creates a generator that always produces the same sequence for the same seed.
+     * @param seed Any value.
+     */
+    public FastRandom(long seed) {
+        setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        mS0 = splitMix64(seed += GOLDEN_GAMMA);
+        mS1 = splitMix64(seed += GOLDEN_GAMMA);
+        mS2 = splitMix64(seed += GOLDEN_GAMMA);
+        mS3 = splitMix64(seed + GOLDEN_GAMMA);
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(mS0 + mS3, 23) + mS0;
+        long t = mS1 << 17;
+        mS2 ^= mS0;
+        mS3 ^= mS1;
+        mS1 ^= mS2;
+        mS0 ^= mS3;
+        mS2 ^= t;
+        mS3 = Long.rotateLeft(mS3, 45);
+        return result;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive, not " + bound);
+        }
+        // The high 32 bits of a 32x32 bit product are uniform in [0, bound) once the few
+        // products whose low half falls below 2^32 mod bound are rejected
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    @Override
+    public RandomSource split() {
+        return new FastRandom(nextLong());
+    }
+
+    private static long splitMix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
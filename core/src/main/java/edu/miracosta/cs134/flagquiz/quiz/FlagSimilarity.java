@@ -0,0 +1,106 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The most similar looking flags of every country, precomputed at build time (see the
+ * <code>generateFlagSimilarity</code> task).  Each country keeps its top K look-alikes as
+ * catalog indices with a similarity quantized to a byte, stored in flat arrays so a lookup is
+ * a single array access.
+ */
+public class FlagSimilarity {
+
+    /** Name of the similarity file in the assets directory. */
+    public static final String ASSET_NAME = "flag_similarity.bin";
+
+    private static final int MAGIC = 0x4651534D; // 'FQSM'
+    private static final int VERSION = 1;
+
+    private final int mNeighborsPerCountry;
+    private final byte[] mCounts;    // look-alikes known for each country
+    private final short[] mNeighbors; // country * K + rank -> catalog index
+    private final byte[] mScores;     // country * K + rank -> similarity 0..255
+
+    private FlagSimilarity(int neighborsPerCountry, byte[] counts, short[] neighbors, byte[] scores) {
+        mNeighborsPerCountry = neighborsPerCountry;
+        mCounts = counts;
+        mNeighbors = neighbors;
+        mScores = scores;
+    }
+
+    /**
+     * Reads the similarity data.
+     *
+     * @param buffer The file contents, from the current position.
+     * @return The similarity data.
+     * @throws IOException If the buffer does not contain valid similarity data.
+     */
+    public static FlagSimilarity read(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a flag similarity file");
+            }
+            int version = in.getShort() & 0xFFFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported flag similarity version " + version);
+            }
+            int countries = in.getShort() & 0xFFFF;
+            int k = in.get() & 0xFF;
+
+            byte[] counts = new byte[countries];
+            short[] neighbors = new short[countries * k];
+            byte[] scores = new byte[countries * k];
+            for (int i = 0; i < countries; i++) {
+                int count = in.get() & 0xFF;
+                if (count > k) {
+                    throw new IOException("Country " + i + " has " + count + " look-alikes, more than " + k);
+                }
+                counts[i] = (byte) count;
+                for (int r = 0; r < count; r++) {
+                    neighbors[i * k + r] = in.getShort();
+                    scores[i * k + r] = in.get();
+                }
+            }
+            return new FlagSimilarity(k, counts, neighbors, scores);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt flag similarity file", e);
+        }
+    }
+
+    /**
+     * @return The number of countries covered (the catalog size at build time).
+     */
+    public int getCountryCount() {
+        return mCounts.length;
+    }
+
+    /**
+     * @param country A catalog index.
+     * @return How many look-alikes are known for the country (0 for unknown indices).
+     */
+    public int getNeighborCount(int country) {
+        return country >= 0 && country < mCounts.length ? mCounts[country] & 0xFF : 0;
+    }
+
+    /**
+     * @param country A catalog index.
+     * @param rank 0 for the most similar flag, up to {@link #getNeighborCount(int)} - 1.
+     * @return The catalog index of the look-alike.
+     */
+    public int getNeighbor(int country, int rank) {
+        return mNeighbors[country * mNeighborsPerCountry + rank] & 0xFFFF;
+    }
+
+    /**
+     * @param country A catalog index.
+     * @param rank 0 for the most similar flag, up to {@link #getNeighborCount(int)} - 1.
+     * @return How similar the look-alike is, from 0 (nothing alike) to 255 (identical).
+     */
+    public int getScore(int country, int rank) {
+        return mScores[country * mNeighborsPerCountry + rank] & 0xFF;
+    }
+}
@@ -0,0 +1,121 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+
+/**
+ * Keeps the {@link AdaptiveScheduler} scores in a small file: a header, then one byte per
+ * country in id order.  Recording an answer rewrites only that country's byte, so saving
+ * costs one seek and one write however large the catalog is.
+ *
+ * The header holds a magic number, a version, the country count and a hash of the catalog,
+ * so scores saved for a different catalog are ignored rather than given to the wrong flags.
+ * All ints are big-endian.  Not thread-safe: use it from one background thread.
+ */
+public class MasteryStore implements Closeable {
+
+    /** Name of the file in the app's files directory. */
+    public static final String FILE_NAME = "mastery.bin";
+
+    static final int MAGIC = 0x46514D53; // "FQMS"
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private final File mFile;
+    private final int mCount;
+    private final int mCatalogHash;
+    private RandomAccessFile mOut; // opened by the first write
+
+    /**
+     * @param file The file holding the scores, which need not exist yet.
+     * @param countries The catalog the scores are for.
+     */
+    public MasteryStore(File file, List<Country> countries) {
+        mFile = file;
+        mCount = countries.size();
+        mCatalogHash = countries.hashCode();
+    }
+
+    /**
+     * Reads the saved scores.
+     * @return The scores by country id, or null if none were saved for this catalog.
+     * @throws IOException If the file exists but cannot be read.
+     */
+    public byte[] load() throws IOException {
+        if (!mFile.exists()) {
+            return null;
+        }
+        RandomAccessFile in = new RandomAccessFile(mFile, "r");
+        try {
+            if (!hasHeader(in)) {
+                return null;
+            }
+            byte[] mastery = new byte[mCount];
+            in.readFully(mastery);
+            return mastery;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Saves one country's score.  A missing file, or one for another catalog, is first
+     * replaced by one where every country is unseen.
+     * @param id The country id.
+     * @param mastery Its score, from 0 to {@link AdaptiveScheduler#MASTERED}.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(int id, int mastery) throws IOException {
+        if (id < 0 || id >= mCount) {
+            throw new IllegalArgumentException("No country with id " + id);
+        }
+        if (mOut == null) {
+            mOut = open();
+        }
+        mOut.seek(HEADER_SIZE + id);
+        mOut.write(mastery);
+    }
+
+    private RandomAccessFile open() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+        try {
+            if (file.length() != HEADER_SIZE + mCount || !hasHeader(file)) {
+                byte[] unseen = new byte[mCount];
+                Arrays.fill(unseen, (byte) AdaptiveScheduler.UNSEEN);
+                file.setLength(0);
+                file.writeInt(MAGIC);
+                file.writeInt(VERSION);
+                file.writeInt(mCount);
+                file.writeInt(mCatalogHash);
+                file.write(unseen);
+            }
+            return file;
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private boolean hasHeader(RandomAccessFile file) throws IOException {
+        if (file.length() < HEADER_SIZE + mCount) {
+            return false;
+        }
+        file.seek(0);
+        return file.readInt() == MAGIC && file.readInt() == VERSION
+                && file.readInt() == mCount && file.readInt() == mCatalogHash;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mOut != null) {
+            mOut.close();
+            mOut = null;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.CountryNames;
+
+/**
+ * Looks up countries by typed name, for the type-in answer mode: suggestions while typing and
+ * the country an answer names.  Matching ignores case, accents and punctuation, and a typed
+ * name may start at any word of a country's name ("islands" finds Solomon Islands).
+ *
+ * The index is built once from the catalog names, or from the names of one locale (see
+ * {@link CountryNames}).  Every name, and every word suffix of it, is a key
+ * in a path-compressed prefix trie stored in flat arrays, so the keys starting with what was
+ * typed are one contiguous range found in a few steps per character.  When nothing starts with
+ * the query, or too little does, keys sharing enough trigrams with it are checked with a
+ * bounded edit distance against their prefixes, which tolerates a typo or two ("Soloman Isl").
+ *
+ * Lookups reuse the index's own buffers and allocate nothing for ASCII input, so an index must
+ * only be used from one thread (the main thread, in the app).
+ */
+public class NameIndex {
+
+    /** Returned by {@link #match} when no country is named. */
+    public static final int NOT_FOUND = -1;
+
+    /** Queries are cut to this many characters after normalizing. */
+    static final int MAX_QUERY = 64;
+
+    // Start-of-key padding of trigrams, so the first letters count too
+    private static final char PAD = 0;
+
+    private final List<Country> mCountries;
+    private final String[] mNames;   // country id -> normalized name
+
+    // Every normalized name and word suffix of one, sorted
+    private final String[] mKeys;
+    private final int[] mKeyCountry; // key -> country id
+    private final boolean[] mKeyWord; // key starts at a later word of the name
+
+    // Radix trie in breadth-first order: the children of a node are contiguous and sorted, and
+    // the keys below a node are the range [lo, hi).  Edge labels are read from the keys.
+    private final int[] mNodeDepth;
+    private final int[] mNodeLo;
+    private final int[] mNodeHi;
+    private final int[] mFirstChild;
+    private final int[] mChildCount;
+
+    // Trigram -> keys containing it, in compressed rows
+    private final int[] mGrams;
+    private final int[] mGramOffsets;
+    private final int[] mPostings;
+
+    // Lookup buffers
+    private final char[] mQuery = new char[MAX_QUERY];
+    private final int[] mGramCounts;
+    private final int[] mGramStamps;
+    private final int[] mTouched;
+    private int mGramStamp;
+    private final long[] mSeenScores;
+    private final int[] mSeenStamps;
+    private int mSeenStamp;
+    private long[] mResultScores = new long[0];
+    private int[] mResults;
+    private final int[] mMatches = new int[2];
+    private int mResultCount;
+    private int mResultLimit;
+    private int[] mRow0 = new int[0];
+    private int[] mRow1 = new int[0];
+    private int[] mRow2 = new int[0];
+
+    /**
+     * Builds the index of the catalog names.
+     * @param countries The catalog, each country at the position of its id.
+     */
+    public NameIndex(List<Country> countries) {
+        this(countries, null);
+    }
+
+    /**
+     * Builds the index of the names in one locale.
+     * @param countries The catalog, each country at the position of its id.
+     * @param names The names to index, or null for the catalog names.
+     */
+    public NameIndex(List<Country> countries, CountryNames names) {
+        mCountries = countries;
+        int size = countries.size();
+        mNames = new String[size];
+
+        final List<String> keys = new ArrayList<>(size * 2);
+        List<Integer> keyCountries = new ArrayList<>(size * 2);
+        List<Boolean> keyWords = new ArrayList<>(size * 2);
+        char[] buffer = new char[MAX_QUERY];
+        for (int id = 0; id < size; id++) {
+            int length = normalize(names == null ? countries.get(id).getName() : names.getName(id), buffer);
+            String name = new String(buffer, 0, length);
+            mNames[id] = name;
+            for (int start = 0; start < length; start++) {
+                if (start == 0 || name.charAt(start - 1) == ' ') {
+                    keys.add(name.substring(start));
+                    keyCountries.add(id);
+                    keyWords.add(start > 0);
+                }
+            }
+        }
+
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return keys.get(a).compareTo(keys.get(b));
+            }
+        });
+        mKeys = new String[order.length];
+        mKeyCountry = new int[order.length];
+        mKeyWord = new boolean[order.length];
+        for (int i = 0; i < order.length; i++) {
+            mKeys[i] = keys.get(order[i]);
+            mKeyCountry[i] = keyCountries.get(order[i]);
+            mKeyWord[i] = keyWords.get(order[i]);
+        }
+
+        // A radix trie has fewer than two nodes per key
+        int capacity = 2 * mKeys.length + 1;
+        int[] depth = new int[capacity], lo = new int[capacity], hi = new int[capacity];
+        int[] firstChild = new int[capacity], childCount = new int[capacity];
+        int nodes = 1;
+        hi[0] = mKeys.length;
+        for (int node = 0; node < nodes; node++) {
+            int d = depth[node];
+            int i = lo[node];
+            // Keys ending at this node sort first
+            while (i < hi[node] && mKeys[i].length() == d) {
+                i++;
+            }
+            firstChild[node] = nodes;
+            while (i < hi[node]) {
+                char c = mKeys[i].charAt(d);
+                int j = i + 1;
+                while (j < hi[node] && mKeys[j].charAt(d) == c) {
+                    j++;
+                }
+                depth[nodes] = commonPrefix(mKeys[i], mKeys[j - 1]);
+                lo[nodes] = i;
+                hi[nodes] = j;
+                nodes++;
+                i = j;
+            }
+            childCount[node] = nodes - firstChild[node];
+        }
+        mNodeDepth = Arrays.copyOf(depth, nodes);
+        mNodeLo = Arrays.copyOf(lo, nodes);
+        mNodeHi = Arrays.copyOf(hi, nodes);
+        mFirstChild = Arrays.copyOf(firstChild, nodes);
+        mChildCount = Arrays.copyOf(childCount, nodes);
+
+        // (trigram, key) pairs, sorted and without repeats, become the posting lists
+        int pairCount = 0;
+        for (String key : mKeys) {
+            pairCount += key.length();
+        }
+        long[] pairs = new long[pairCount];
+        int p = 0;
+        for (int k = 0; k < mKeys.length; k++) {
+            String key = mKeys[k];
+            for (int i = 0; i < key.length(); i++) {
+                pairs[p++] = (long) gram(i >= 2 ? key.charAt(i - 2) : PAD,
+                        i >= 1 ? key.charAt(i - 1) : PAD, key.charAt(i)) << 32 | k;
+            }
+        }
+        Arrays.sort(pairs);
+        int[] grams = new int[pairCount];
+        int[] offsets = new int[pairCount + 1];
+        int[] postings = new int[pairCount];
+        int gramCount = 0, postingCount = 0;
+        for (int i = 0; i < pairCount; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) {
+                continue;
+            }
+            int gram = (int) (pairs[i] >>> 32);
+            if (gramCount == 0 || grams[gramCount - 1] != gram) {
+                grams[gramCount] = gram;
+                offsets[gramCount++] = postingCount;
+            }
+            postings[postingCount++] = (int) pairs[i];
+        }
+        offsets[gramCount] = postingCount;
+        mGrams = Arrays.copyOf(grams, gramCount);
+        mGramOffsets = Arrays.copyOf(offsets, gramCount + 1);
+        mPostings = Arrays.copyOf(postings, postingCount);
+
+        mGramCounts = new int[mKeys.length];
+        mGramStamps = new int[mKeys.length];
+        mTouched = new int[mKeys.length];
+        mSeenScores = new long[size];
+        mSeenStamps = new int[size];
+    }
+
+    /**
+     * @return The catalog the index was built from.
+     */
+    public List<Country> getCountries() {
+        return Collections.unmodifiableList(mCountries);
+    }
+
+    /**
+     * Finds the countries whose name (or a word of it) starts with what has been typed so far,
+     * best first: matches of the whole name before matches of a later word, shorter names
+     * first.  If fewer than <code>out.length</code> are found, names within a typo or two of
+     * the query follow, closest first.
+     * @param query The text typed so far.
+     * @param out Receives the ids of the suggested countries.
+     * @return The number of suggestions, 0 for an empty query.
+     */
+    public int suggest(CharSequence query, int[] out) {
+        int length = normalize(query, mQuery);
+        beginResults(out);
+        if (length == 0 || out.length == 0) {
+            return 0;
+        }
+
+        int node = findPrefix(mQuery, length);
+        if (node >= 0) {
+            for (int k = mNodeLo[node]; k < mNodeHi[node]; k++) {
+                offer(mKeyCountry[k], score(0, mKeyWord[k], mKeyCountry[k]));
+            }
+        }
+        if (mResultCount < mResultLimit) {
+            searchFuzzy(length, false);
+        }
+        return mResultCount;
+    }
+
+    /**
+     * Finds the country an answer names: the country with exactly that name (ignoring case,
+     * accents and punctuation), or failing that, the only country within a typo or two of it.
+     * @param answer The typed answer.
+     * @return The id of the country, or {@link #NOT_FOUND} if none or several are as close.
+     */
+    public int match(CharSequence answer) {
+        int length = normalize(answer, mQuery);
+        if (length == 0) {
+            return NOT_FOUND;
+        }
+        int node = findPrefix(mQuery, length);
+        if (node >= 0 && mNodeDepth[node] == length) {
+            for (int k = mNodeLo[node]; k < mNodeHi[node] && mKeys[k].length() == length; k++) {
+                if (!mKeyWord[k]) {
+                    return mKeyCountry[k];
+                }
+            }
+        }
+
+        // Keep the two closest whole names: a tie means the answer is ambiguous
+        beginResults(mMatches);
+        searchFuzzy(length, true);
+        if (mResultCount == 0) {
+            return NOT_FOUND;
+        }
+        if (mResultCount == 2 && mResultScores[0] >> 40 == mResultScores[1] >> 40) {
+            return NOT_FOUND;
+        }
+        return mResults[0];
+    }
+
+    /**
+     * @param id A country id.
+     * @return Its name as the index compares it: lower case, no accents or punctuation.
+     */
+    public String getNormalizedName(int id) {
+        return mNames[id];
+    }
+
+    /**
+     * Writes the form of a name the index compares: lower case letters and digits without
+     * accents, words separated by single spaces.  Hyphens and commas separate words, other
+     * punctuation is dropped ("Dem. Rep." becomes "dem rep", "Timor-Leste" "timor leste").
+     * @param text The text to normalize.
+     * @param out Receives the normalized characters, which are cut to its length.
+     * @return The number of characters written.
+     */
+    static int normalize(CharSequence text, char[] out) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                // Split accented letters into letter + mark, the marks are dropped below
+                text = Normalizer.normalize(text, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        int length = 0;
+        boolean space = false;
+        for (int i = 0; i < text.length() && length < out.length; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && length > 0) {
+                    out[length++] = ' ';
+                    if (length == out.length) {
+                        break;
+                    }
+                }
+                space = false;
+                out[length++] = Character.toLowerCase(c);
+            } else if (c == '-' || c == ',' || c == '/' || Character.isWhitespace(c)) {
+                space = true;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return The node whose keys all start with the query, or -1 if no key does.
+     */
+    private int findPrefix(char[] query, int length) {
+        int node = 0;
+        int d = 0;
+        while (d < length) {
+            int child = findChild(node, query[d]);
+            if (child < 0) {
+                return -1;
+            }
+            String key = mKeys[mNodeLo[child]];
+            int end = Math.min(length, mNodeDepth[child]);
+            for (int i = d + 1; i < end; i++) {
+                if (key.charAt(i) != query[i]) {
+                    return -1;
+                }
+            }
+            d = end;
+            node = child;
+        }
+        return node;
+    }
+
+    private int findChild(int node, char c) {
+        int d = mNodeDepth[node];
+        int low = mFirstChild[node], high = low + mChildCount[node] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char label = mKeys[mNodeLo[middle]].charAt(d);
+            if (label < c) {
+                low = middle + 1;
+            } else if (label > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Offers every key within the allowed number of typos of the query (as a prefix, or as a
+     * whole name if <code>whole</code>) that shares enough trigrams with it to possibly be.
+     */
+    private void searchFuzzy(int length, boolean whole) {
+        int typos = getTypos(length);
+        if (typos == 0) {
+            return;
+        }
+        // An edit changes at most 3 of the query's trigrams, a swap of two letters 4.  Typos
+        // packed into a short stretch could leave fewer, but requiring a third of them to
+        // match keeps the candidates few in large catalogs.
+        int needed = Math.max(Math.max(1, length / 3), length - 4 * typos);
+        if (++mGramStamp == 0) {
+            Arrays.fill(mGramStamps, 0);
+            mGramStamp = 1;
+        }
+        int touched = 0;
+        for (int i = 0; i < length; i++) {
+            int g = Arrays.binarySearch(mGrams, gram(i >= 2 ? mQuery[i - 2] : PAD,
+                    i >= 1 ? mQuery[i - 1] : PAD, mQuery[i]));
+            if (g < 0) {
+                continue;
+            }
+            for (int p = mGramOffsets[g]; p < mGramOffsets[g + 1]; p++) {
+                int key = mPostings[p];
+                if (mGramStamps[key] != mGramStamp) {
+                    mGramStamps[key] = mGramStamp;
+                    mGramCounts[key] = 0;
+                    mTouched[touched++] = key;
+                }
+                mGramCounts[key]++;
+            }
+        }
+
+        for (int t = 0; t < touched; t++) {
+            int key = mTouched[t];
+            if (mGramCounts[key] < needed || (whole && mKeyWord[key])) {
+                continue;
+            }
+            int distance = distance(mQuery, length, mKeys[key], typos, whole);
+            if (distance <= typos) {
+                offer(mKeyCountry[key], score(distance, mKeyWord[key], mKeyCountry[key]));
+            }
+        }
+    }
+
+    /**
+     * @return The number of typos tolerated in a query: none in very short ones.
+     */
+    static int getTypos(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    /**
+     * Optimal string alignment distance (edits and swaps of neighbors) between the query and
+     * the whole key, or the closest prefix of the key if <code>whole</code> is false.
+     * @return The distance, or <code>limit + 1</code> if it is more than the limit.
+     */
+    private int distance(char[] query, int length, String key, int limit, boolean whole) {
+        int n = key.length();
+        if (whole && Math.abs(n - length) > limit) {
+            return limit + 1;
+        }
+        // Longer key prefixes cannot be within the limit
+        int columns = whole ? n : Math.min(n, length + limit);
+        if (mRow0.length <= columns) {
+            int size = Math.max(columns + 1, MAX_QUERY + 1);
+            mRow0 = new int[size];
+            mRow1 = new int[size];
+            mRow2 = new int[size];
+        }
+        int[] older = mRow2, previous = mRow1, current = mRow0;
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= length; i++) {
+            char q = query[i - 1];
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= columns; j++) {
+                char k = key.charAt(j - 1);
+                int cost = q == k ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && q == key.charAt(j - 2) && query[i - 2] == k) {
+                    d = Math.min(d, older[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = older;
+            older = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = previous[columns];
+        if (!whole) {
+            for (int j = 0; j < columns; j++) {
+                best = Math.min(best, previous[j]);
+            }
+        }
+        return Math.min(best, limit + 1);
+    }
+
+    /**
+     * @return The rank of a match, lower is better: fewest typos, then a match of the whole
+     * name rather than a later word, then the shortest name.
+     */
+    private long score(int distance, boolean word, int country) {
+        return (long) distance << 40 | (word ? 1L << 32 : 0) | mNames[country].length();
+    }
+
+    private void beginResults(int[] out) {
+        mResults = out;
+        mResultCount = 0;
+        mResultLimit = out.length;
+        if (mResultScores.length < mResultLimit) {
+            mResultScores = new long[mResultLimit];
+        }
+        if (++mSeenStamp == 0) {
+            Arrays.fill(mSeenStamps, 0);
+            mSeenStamp = 1;
+        }
+    }
+
+    /**
+     * Adds a country to the results, kept sorted by score, if it ranks high enough.  A country
+     * found again through another key keeps its best score.
+     */
+    private void offer(int country, long score) {
+        if (mSeenStamps[country] == mSeenStamp) {
+            if (score >= mSeenScores[country]) {
+                return;
+            }
+            for (int i = 0; i < mResultCount; i++) {
+                if (mResults[i] == country) {
+                    System.arraycopy(mResults, i + 1, mResults, i, mResultCount - i - 1);
+                    System.arraycopy(mResultScores, i + 1, mResultScores, i, mResultCount - i - 1);
+                    mResultCount--;
+                    break;
+                }
+            }
+        }
+        mSeenStamps[country] = mSeenStamp;
+        mSeenScores[country] = score;
+        if (mResultCount == mResultLimit && score >= mResultScores[mResultCount - 1]) {
+            return;
+        }
+        int i = Math.min(mResultCount, mResultLimit - 1);
+        while (i > 0 && mResultScores[i - 1] > score) {
+            mResults[i] = mResults[i - 1];
+            mResultScores[i] = mResultScores[i - 1];
+            i--;
+        }
+        mResults[i] = country;
+        mResultScores[i] = score;
+        if (mResultCount < mResultLimit) {
+            mResultCount++;
+        }
+    }
+
+    private static int gram(char a, char b, char c) {
+        return (a & 0x3FF) << 20 | (b & 0x3FF) << 10 | (c & 0x3FF);
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,171 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+/**
+ * The answer choices of one question, bound to option indices: each option holds the id of
+ * a country (see {@link edu.miracosta.cs134.flagquiz.model.Country#getId()}), so checking a
+ * guess is one int comparison.  It also times the question, from when its flag is first shown
+ * to the first guess and to the correct one.
+ */
+public class QuestionChoices {
+
+    /** Latency of a question whose flag was never reported shown, or that is not answered yet. */
+    public static final long UNKNOWN = -1;
+
+    private final int[] mIds;         // option -> country id
+    private final boolean[] mGuessed; // options already guessed
+    private int mCount;
+    private int mCorrectId = -1;
+
+    private long mShownAt;
+    private long mFirstGuessLatency;
+    private long mAnswerLatency;
+    private long mLastGuessLatency;
+    private int mGuesses;
+
+    /**
+     * @param maxChoices The most options a question can have.
+     */
+    QuestionChoices(int maxChoices) {
+        mIds = new int[maxChoices];
+        mGuessed = new boolean[maxChoices];
+    }
+
+    /**
+     * Starts a new question with no options yet.
+     * @param correctId The id of the country being asked.
+     */
+    void reset(int correctId) {
+        mCorrectId = correctId;
+        mCount = 0;
+        mShownAt = UNKNOWN;
+        mFirstGuessLatency = UNKNOWN;
+        mAnswerLatency = UNKNOWN;
+        mLastGuessLatency = UNKNOWN;
+        mGuesses = 0;
+    }
+
+    /**
+     * Adds the next option.
+     * @param id The id of the country the option shows.
+     */
+    void add(int id) {
+        mIds[mCount] = id;
+        mGuessed[mCount] = false;
+        mCount++;
+    }
+
+    /**
+     * Records when the question's flag appeared.  Only the first call counts, so showing the
+     * flag again (after a configuration change) does not restart the clock.
+     * @param timeMillis The time the flag was shown, in milliseconds of any monotonic clock.
+     */
+    void markShown(long timeMillis) {
+        if (mShownAt == UNKNOWN) {
+            mShownAt = timeMillis;
+        }
+    }
+
+    /**
+     * Records a guess.
+     * @param option The index of the chosen option.
+     * @param timeMillis The time of the guess, on the same clock as {@link #markShown}.
+     * @return True if the option is the correct answer.
+     */
+    boolean guess(int option, long timeMillis) {
+        long latency = recordGuess(timeMillis);
+        mGuessed[option] = true;
+        if (mIds[option] == mCorrectId) {
+            mAnswerLatency = latency;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records a guess given as a country, as in the type-in mode.  A country shown as an
+     * option counts as guessing that option, any other country is simply wrong.
+     * @param id The id of the guessed country.
+     * @param timeMillis The time of the guess, on the same clock as {@link #markShown}.
+     * @return True if the country is the correct answer.
+     */
+    boolean guessId(int id, long timeMillis) {
+        for (int option = 0; option < mCount; option++) {
+            if (mIds[option] == id) {
+                return guess(option, timeMillis);
+            }
+        }
+        long latency = recordGuess(timeMillis);
+        if (id == mCorrectId) {
+            mAnswerLatency = latency;
+            return true;
+        }
+        return false;
+    }
+
+    private long recordGuess(long timeMillis) {
+        long latency = mShownAt == UNKNOWN ? UNKNOWN : timeMillis - mShownAt;
+        mLastGuessLatency = latency;
+        if (mGuesses++ == 0) {
+            mFirstGuessLatency = latency;
+        }
+        return latency;
+    }
+
+    /**
+     * @return The number of options.
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @param option The index of an option.
+     * @return The id of the country it shows.
+     */
+    public int getId(int option) {
+        return mIds[option];
+    }
+
+    /**
+     * @return The id of the country being asked.
+     */
+    public int getCorrectId() {
+        return mCorrectId;
+    }
+
+    /**
+     * @param option The index of an option.
+     * @return True if the option has been guessed.
+     */
+    public boolean isGuessed(int option) {
+        return mGuessed[option];
+    }
+
+    /**
+     * @return The number of guesses made on this question.
+     */
+    public int getGuessCount() {
+        return mGuesses;
+    }
+
+    /**
+     * @return Milliseconds from the flag being shown to the latest guess, or {@link #UNKNOWN}.
+     */
+    public long getLastGuessLatency() {
+        return mLastGuessLatency;
+    }
+
+    /**
+     * @return Milliseconds from the flag being shown to the first guess, or {@link #UNKNOWN}.
+     */
+    public long getFirstGuessLatency() {
+        return mFirstGuessLatency;
+    }
+
+    /**
+     * @return Milliseconds from the flag being shown to the correct guess, or {@link #UNKNOWN}.
+     */
+    public long getAnswerLatency() {
+        return mAnswerLatency;
+    }
+}
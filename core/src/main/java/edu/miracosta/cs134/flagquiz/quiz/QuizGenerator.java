@@ -0,0 +1,132 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+
+/**
+ * Picks the countries for a quiz.  The index of every country is grouped by region once, when
+ * the generator is created, and a quiz is drawn from its region's indices with a partial
+ * Fisher-Yates shuffle: each question costs one random number and one swap, with no retries
+ * and no duplicate checks.
+ */
+public class QuizGenerator {
+
+    /** Region name that selects countries from every region. */
+    public static final String ALL_REGIONS = "All";
+
+    private final List<Country> mCountries;
+    private final RegionPools mPools;
+
+    /**
+     * Creates a generator for a catalog of countries.
+     * @param countries All the countries that quizzes can be drawn from.
+     * @throws IllegalArgumentException If a country's id is not its position in the list.
+     */
+    public QuizGenerator(List<Country> countries) {
+        mCountries = Collections.unmodifiableList(new ArrayList<>(countries));
+        for (int i = 0; i < mCountries.size(); i++) {
+            if (mCountries.get(i).getId() != i) {
+                throw new IllegalArgumentException("Country " + mCountries.get(i).getName()
+                        + " has id " + mCountries.get(i).getId() + " but is at position " + i);
+            }
+        }
+        mPools = new RegionPools(mCountries);
+    }
+
+    /**
+     * @return The region pools, shared with samplers created from this generator.
+     */
+    RegionPools getPools() {
+        return mPools;
+    }
+
+    /**
+     * @return All the countries in the catalog, in their original order.
+     */
+    public List<Country> getCountries() {
+        return mCountries;
+    }
+
+    /**
+     * @param country One of the countries in the catalog (compared by identity).
+     * @return The country's position in {@link #getCountries()}, or -1 if it is not in the catalog.
+     */
+    public int indexOf(Country country) {
+        int id = country.getId();
+        return id >= 0 && id < mCountries.size() && mCountries.get(id) == country ? id : -1;
+    }
+
+    /**
+     * Gets the number of countries a quiz for a region can choose from.
+     * @param region A region name, or {@link #ALL_REGIONS}.
+     * @return The number of countries in the region (0 if there are none).
+     */
+    public int getPoolSize(String region) {
+        int[] pool = mPools.get(region);
+        return pool == null ? 0 : pool.length;
+    }
+
+    /**
+     * Draws a quiz: distinct countries from one region, in random order.  If the region has
+     * fewer countries than requested, the quiz is shortened to the size of the region.
+     *
+     * @param region A region name, or {@link #ALL_REGIONS}.
+     * @param count The number of questions wanted.
+     * @param rng Source of randomness.
+     * @return The countries for the quiz, between 1 and <code>count</code> of them.
+     * @throws IllegalArgumentException If the region has no countries or count is not positive.
+     */
+    public List<Country> generate(String region, int count, RandomSource rng) {
+        int[] indices = new int[Math.min(count, getPool(region, count).length)];
+        int size = generate(region, count, rng, indices);
+        List<Country> quiz = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            quiz.add(mCountries.get(indices[i]));
+        }
+        return quiz;
+    }
+
+    /**
+     * Checks the arguments of a quiz before anything is drawn or allocated for it.
+     * @return The pool of the region, never empty.
+     */
+    private int[] getPool(String region, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("A quiz needs at least one question, not " + count);
+        }
+        int[] pool = mPools.get(region);
+        if (pool == null || pool.length == 0) {
+            throw new IllegalArgumentException("No countries in region " + region);
+        }
+        return pool;
+    }
+
+    /**
+     * Draws a quiz into an array of country indices (positions in {@link #getCountries()}).
+     *
+     * @param region A region name, or {@link #ALL_REGIONS}.
+     * @param count The number of questions wanted.
+     * @param rng Source of randomness.
+     * @param out Receives the drawn indices, must hold at least the returned number of them.
+     * @return The number of questions drawn: <code>count</code>, or the region's size if smaller.
+     * @throws IllegalArgumentException If the region has no countries or count is not positive.
+     */
+    public int generate(String region, int count, RandomSource rng, int[] out) {
+        int[] pool = getPool(region, count);
+
+        // Partial Fisher-Yates: the first k slots of the pool become a uniform random sample.
+        // The pool is left permuted, which is as good a starting order as any for the next quiz
+        // (a seeded quiz resets the pools first, see QuizSession#start(int, long)).
+        int k = Math.min(count, pool.length);
+        synchronized (mPools) {
+            for (int i = 0; i < k; i++) {
+                mPools.swap(pool, i, i + rng.nextInt(pool.length - i));
+                out[i] = pool[i];
+            }
+        }
+        return k;
+    }
+}
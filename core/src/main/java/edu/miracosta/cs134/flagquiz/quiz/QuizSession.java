@@ -0,0 +1,375 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+
+/**
+ * The rules and state of one quiz: which countries are asked, the answer choices shown for
+ * the current question, which of them have already been guessed, the score and how long each
+ * question took.  It has no Android dependencies, so it can be kept across activity
+ * recreation and tested on the JVM.
+ */
+public class QuizSession {
+
+    /**
+     * Outcome of a guess.
+     */
+    public enum Guess {
+        CORRECT, INCORRECT
+    }
+
+    private final QuizGenerator mGenerator;
+    private final List<Country> mCountries; // by id
+    private final DistractorSampler mSampler;
+    private final RandomSource mSeeds; // seeds of new quizzes, never reseeded
+    private final RandomSource mRng;   // reseeded for every quiz
+
+    private String mRegion = QuizGenerator.ALL_REGIONS;
+    private int mChoicesPerQuestion = 4;
+    private Difficulty mDifficulty = Difficulty.EASY;
+    private long mSeed;
+    private AdaptiveScheduler mScheduler; // null to keep no scores
+    private boolean mAdaptive;            // draw the next quiz from the scheduler
+    private boolean mAdaptiveQuiz;        // the current quiz was drawn from the scheduler
+    private int[] mQuizIds = new int[0];
+
+    private final List<Country> mQuizCountriesList = new ArrayList<>(); // countries still to come
+    private int mFlagsInQuiz;       // length of the current quiz (less for small regions)
+    private Country mCorrectCountry; // correct country for the current question
+    private int mTotalGuesses;      // number of total guesses made
+    private int mCorrectGuesses;    // number of correct guesses
+
+    private final int[] mDistractors;
+    private final QuestionChoices mChoices;   // answer choices of the current question
+    private Guess mLastGuess;                 // null until a guess is made this question
+
+    // Per question of the current quiz, see QuestionChoices
+    private long[] mFirstGuessLatencies = new long[0];
+    private long[] mAnswerLatencies = new long[0];
+
+    /**
+     * Creates a session over a catalog.
+     * @param generator Picks the countries of each quiz.
+     * @param sampler Picks the wrong answers of each question.
+     * @param rng Source of the seeds of new quizzes.
+     * @param maxChoices The most answer choices a question can have.
+     */
+    public QuizSession(QuizGenerator generator, DistractorSampler sampler, RandomSource rng,
+                       int maxChoices) {
+        mGenerator = generator;
+        mCountries = generator.getCountries();
+        mSampler = sampler;
+        mSeeds = rng;
+        mRng = rng.split();
+        mDistractors = new int[maxChoices - 1];
+        mChoices = new QuestionChoices(maxChoices);
+    }
+
+    /**
+     * Changes the quiz settings.  They take effect at the next {@link #start}.
+     * @param region Region to quiz on, or {@link QuizGenerator#ALL_REGIONS}.
+     * @param choices Number of answer choices per question.
+     * @param difficulty How many of the wrong answers are look-alike flags.
+     */
+    public void setSettings(String region, int choices, Difficulty difficulty) {
+        mRegion = region;
+        mChoicesPerQuestion = Math.max(2, Math.min(choices, mDistractors.length + 1));
+        mDifficulty = difficulty;
+    }
+
+    /**
+     * Sets the scheduler that scores every answered question.
+     * @param scheduler The scheduler for the same catalog, or null to keep no scores.
+     */
+    public void setScheduler(AdaptiveScheduler scheduler) {
+        mScheduler = scheduler;
+    }
+
+    /**
+     * Chooses how the next quiz is drawn.  Takes effect at the next {@link #start}.
+     * @param adaptive True to favor the countries the user knows least (if there is a
+     * scheduler), false to draw uniformly so that the quiz can be shared as a challenge.
+     */
+    public void setAdaptive(boolean adaptive) {
+        mAdaptive = adaptive;
+    }
+
+    /**
+     * Sets up a new quiz with a fresh seed and moves to its first question.
+     * @param questions The number of questions wanted (fewer if the region is small).
+     */
+    public void start(int questions) {
+        start(questions, mSeeds.nextLong() & ChallengeCode.SEED_MASK);
+    }
+
+    /**
+     * Sets up the quiz for a seed and moves to its first question.  The same seed, settings
+     * and catalog always give the same questions and answer choices, as long as look-alike
+     * data is loaded in both cases (or in neither) and the quiz is not adaptive.
+     * @param questions The number of questions wanted (fewer if the region is small).
+     * @param seed The seed, within {@link ChallengeCode#SEED_MASK} for the quiz to be shared.
+     */
+    public void start(int questions, long seed) {
+        mSeed = seed;
+        mRng.setSeed(seed);
+        mGenerator.getPools().reset();
+
+        mCorrectGuesses = 0;
+        mTotalGuesses = 0;
+        mQuizCountriesList.clear();
+        mAdaptiveQuiz = mAdaptive && mScheduler != null;
+        if (mAdaptiveQuiz) {
+            if (mQuizIds.length < questions) {
+                mQuizIds = new int[questions];
+            }
+            int drawn = mScheduler.generate(mRegion, questions, mRng, mQuizIds);
+            for (int i = 0; i < drawn; i++) {
+                mQuizCountriesList.add(mCountries.get(mQuizIds[i]));
+            }
+        } else {
+            mQuizCountriesList.addAll(mGenerator.generate(mRegion, questions, mRng));
+        }
+        mFlagsInQuiz = mQuizCountriesList.size();
+        if (mAnswerLatencies.length < mFlagsInQuiz) {
+            mFirstGuessLatencies = new long[mFlagsInQuiz];
+            mAnswerLatencies = new long[mFlagsInQuiz];
+        }
+        nextQuestion();
+    }
+
+    /**
+     * @return The seed of the current quiz.
+     */
+    public long getSeed() {
+        return mSeed;
+    }
+
+    /**
+     * @return The code that replays the current quiz, or null if it was drawn adaptively or
+     * its seed or settings cannot be put in a code.
+     */
+    public ChallengeCode getChallengeCode() {
+        if (mAdaptiveQuiz) {
+            return null;
+        }
+        try {
+            return new ChallengeCode(mSeed, mRegion, mChoicesPerQuestion, mDifficulty);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return True if the current question has been answered and another one follows.
+     */
+    public boolean hasNextQuestion() {
+        return !mQuizCountriesList.isEmpty();
+    }
+
+    /**
+     * Moves to the next question: takes the next country and picks its answer choices.
+     */
+    public void nextQuestion() {
+        mCorrectCountry = mQuizCountriesList.remove(0);
+        mLastGuess = null;
+
+        int distractors = mSampler.sample(mCorrectCountry, mRegion, mChoicesPerQuestion - 1, mDifficulty,
+                mRng, mDistractors);
+
+        // Randomly pick the choice that holds the correct country
+        int correctChoice = mRng.nextInt(distractors + 1);
+        mChoices.reset(mCorrectCountry.getId());
+        for (int i = 0, d = 0; i <= distractors; i++) {
+            mChoices.add(i == correctChoice ? mCorrectCountry.getId()
+                    : mSampler.getCountry(mDistractors[d++]).getId());
+        }
+        int question = getQuestionNumber() - 1;
+        mFirstGuessLatencies[question] = QuestionChoices.UNKNOWN;
+        mAnswerLatencies[question] = QuestionChoices.UNKNOWN;
+    }
+
+    /**
+     * Records that the current question's flag is now on screen, which starts its clock.
+     * Later calls for the same question are ignored.
+     * @param timeMillis The current time, in milliseconds of a monotonic clock.
+     */
+    public void markFlagShown(long timeMillis) {
+        mChoices.markShown(timeMillis);
+    }
+
+    /**
+     * Records a guess for the current question.
+     * @param choice The index of the chosen answer.
+     * @param timeMillis The time of the guess, on the same clock as {@link #markFlagShown}.
+     * @return Whether the guess was correct.
+     */
+    public Guess guess(int choice, long timeMillis) {
+        return recordGuess(mChoices.guess(choice, timeMillis));
+    }
+
+    /**
+     * Records a typed guess for the current question.  The country does not have to be one of
+     * the answer choices, but if it is, that choice counts as guessed.
+     * @param countryId The id of the country named by the answer.
+     * @param timeMillis The time of the guess, on the same clock as {@link #markFlagShown}.
+     * @return Whether the guess was correct.
+     */
+    public Guess guessCountry(int countryId, long timeMillis) {
+        return recordGuess(mChoices.guessId(countryId, timeMillis));
+    }
+
+    private Guess recordGuess(boolean correct) {
+        mTotalGuesses++;
+        int question = getQuestionNumber() - 1;
+        mFirstGuessLatencies[question] = mChoices.getFirstGuessLatency();
+        if (correct) {
+            mCorrectGuesses++;
+            mAnswerLatencies[question] = mChoices.getAnswerLatency();
+            mLastGuess = Guess.CORRECT;
+            if (mScheduler != null) {
+                mScheduler.record(mCorrectCountry.getId(), mChoices.getGuessCount() - 1,
+                        mChoices.getCount());
+            }
+        } else {
+            mLastGuess = Guess.INCORRECT;
+        }
+        return mLastGuess;
+    }
+
+    /**
+     * @return The country of the current question.
+     */
+    public Country getCorrectCountry() {
+        return mCorrectCountry;
+    }
+
+    /**
+     * @return The country of the next question, or null if this is the last one.
+     */
+    public Country getNextCountry() {
+        return mQuizCountriesList.isEmpty() ? null : mQuizCountriesList.get(0);
+    }
+
+    /**
+     * @return The 1-based number of the current question.
+     */
+    public int getQuestionNumber() {
+        return mFlagsInQuiz - mQuizCountriesList.size();
+    }
+
+    /**
+     * @return The number of questions in the quiz.
+     */
+    public int getQuestionCount() {
+        return mFlagsInQuiz;
+    }
+
+    /**
+     * @return The number of answer choices of the current question.
+     */
+    public int getChoiceCount() {
+        return mChoices.getCount();
+    }
+
+    /**
+     * @return The answer choices of the current question, by country id.
+     */
+    public QuestionChoices getChoices() {
+        return mChoices;
+    }
+
+    /**
+     * @param choice The index of an answer choice.
+     * @return The country shown for that choice.
+     */
+    public Country getChoice(int choice) {
+        return mCountries.get(mChoices.getId(choice));
+    }
+
+    /**
+     * @param id A country id.
+     * @return The country with that id, from the catalog of the quiz.
+     */
+    public Country getCountry(int id) {
+        return mCountries.get(id);
+    }
+
+    /**
+     * @param choice The index of an answer choice.
+     * @return True if the choice can still be guessed.
+     */
+    public boolean isChoiceEnabled(int choice) {
+        return !isAnswered() && !mChoices.isGuessed(choice);
+    }
+
+    /**
+     * @return The result of the latest guess on the current question, or null if none was made.
+     */
+    public Guess getLastGuess() {
+        return mLastGuess;
+    }
+
+    /**
+     * @return True if the current question has been answered correctly.
+     */
+    public boolean isAnswered() {
+        return mLastGuess == Guess.CORRECT;
+    }
+
+    /**
+     * @return True if the last question has been answered correctly.
+     */
+    public boolean isFinished() {
+        return isAnswered() && !hasNextQuestion();
+    }
+
+    /**
+     * @return The number of guesses made in the quiz.
+     */
+    public int getTotalGuesses() {
+        return mTotalGuesses;
+    }
+
+    /**
+     * @return The number of correct guesses made in the quiz.
+     */
+    public int getCorrectGuesses() {
+        return mCorrectGuesses;
+    }
+
+    /**
+     * @param question The 0-based index of a question asked so far.
+     * @return Milliseconds from its flag being shown to the first guess, or
+     * {@link QuestionChoices#UNKNOWN}.
+     */
+    public long getFirstGuessLatency(int question) {
+        return mFirstGuessLatencies[question];
+    }
+
+    /**
+     * @param question The 0-based index of a question asked so far.
+     * @return Milliseconds from its flag being shown to the correct guess, or
+     * {@link QuestionChoices#UNKNOWN}.
+     */
+    public long getAnswerLatency(int question) {
+        return mAnswerLatencies[question];
+    }
+
+    /**
+     * @return The average time to the correct answer over the questions answered so far whose
+     * flag was shown, in milliseconds, or {@link QuestionChoices#UNKNOWN} if there are none.
+     */
+    public long getMeanAnswerLatency() {
+        long total = 0;
+        int known = 0;
+        for (int q = 0; q < getQuestionNumber(); q++) {
+            if (mAnswerLatencies[q] != QuestionChoices.UNKNOWN) {
+                total += mAnswerLatencies[q];
+                known++;
+            }
+        }
+        return known == 0 ? QuestionChoices.UNKNOWN : total / known;
+    }
+}
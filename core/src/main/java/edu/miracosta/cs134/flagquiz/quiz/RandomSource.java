@@ -0,0 +1,33 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+/**
+ * The random numbers behind a quiz: which countries are asked, the distractors and where the
+ * correct answer goes.  Every randomized step of the quiz draws from one source, so seeding it
+ * replays a quiz exactly.  Implementations are not thread-safe; give each thread its own
+ * source with {@link #split()}.
+ */
+public interface RandomSource {
+
+    /**
+     * @param bound The upper bound (exclusive), must be positive.
+     * @return A uniformly distributed int in [0, <code>bound</code>).
+     * @throws IllegalArgumentException If bound is not positive.
+     */
+    int nextInt(int bound);
+
+    /**
+     * @return A uniformly distributed long.
+     */
+    long nextLong();
+
+    /**
+     * Restarts the sequence: after the same seed, the same numbers follow.
+     * @param seed Any value.
+     */
+    void setSeed(long seed);
+
+    /**
+     * @return A new, independent source seeded from this one, for use on another thread.
+     */
+    RandomSource split();
+}
@@ -0,0 +1,120 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import java.util.Arrays;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+/**
+ * The index of every country in a catalog, grouped by region (plus one pool holding every
+ * index).  Pools are found by region ordinal.  Samplers permute the pools in place through
+ * {@link #swap}, so callers synchronize on this object.  A seeded quiz {@link #reset}s the
+ * pools first so that its draws do not depend on the quizzes before it; swaps are logged so
+ * that a reset only undoes them instead of rebuilding every pool.
+ */
+class RegionPools {
+
+    private final int[][] mPools = new int[Region.values().length][];
+    private final int[] mAll;
+
+    // Swaps since the last reset, undone in reverse order.  Past MAX_LOG swaps the log is
+    // dropped and reset sorts the pools instead.
+    private static final int MAX_LOG = 1 << 16;
+    private int[][] mLogPools = new int[64][];
+    private int[] mLogPositions = new int[2 * 64];
+    private int mLogSize;
+    private boolean mLogOverflowed;
+
+    RegionPools(List<Country> countries) {
+        int[] sizes = new int[mPools.length];
+        for (Country country : countries) {
+            sizes[country.getRegion().ordinal()]++;
+        }
+        for (int r = 0; r < mPools.length; r++) {
+            mPools[r] = new int[sizes[r]];
+        }
+
+        int[] filled = new int[mPools.length];
+        mAll = new int[countries.size()];
+        for (int i = 0; i < mAll.length; i++) {
+            int r = countries.get(i).getRegion().ordinal();
+            mPools[r][filled[r]++] = i;
+            mAll[i] = i;
+        }
+    }
+
+    /**
+     * Swaps two entries of a pool, remembering the swap for {@link #reset}.
+     */
+    void swap(int[] pool, int i, int j) {
+        int value = pool[i];
+        pool[i] = pool[j];
+        pool[j] = value;
+        if (mLogOverflowed || i == j) {
+            return;
+        }
+        if (mLogSize == MAX_LOG) {
+            mLogOverflowed = true;
+            return;
+        }
+        if (mLogSize == mLogPools.length) {
+            mLogPools = Arrays.copyOf(mLogPools, 2 * mLogSize);
+            mLogPositions = Arrays.copyOf(mLogPositions, 4 * mLogSize);
+        }
+        mLogPools[mLogSize] = pool;
+        mLogPositions[2 * mLogSize] = i;
+        mLogPositions[2 * mLogSize + 1] = j;
+        mLogSize++;
+    }
+
+    /**
+     * Puts every pool back in its original, ascending order.
+     */
+    synchronized void reset() {
+        if (mLogOverflowed) {
+            for (int[] pool : mPools) {
+                Arrays.sort(pool);
+            }
+            Arrays.sort(mAll);
+        } else {
+            for (int k = mLogSize - 1; k >= 0; k--) {
+                int[] pool = mLogPools[k];
+                int i = mLogPositions[2 * k];
+                int j = mLogPositions[2 * k + 1];
+                int value = pool[i];
+                pool[i] = pool[j];
+                pool[j] = value;
+            }
+        }
+        Arrays.fill(mLogPools, 0, mLogSize, null);
+        mLogSize = 0;
+        mLogOverflowed = false;
+    }
+
+    /**
+     * @return The pool for a region name (or {@link QuizGenerator#ALL_REGIONS}), null if there
+     * is no such region.
+     */
+    int[] get(String region) {
+        if (QuizGenerator.ALL_REGIONS.equals(region)) {
+            return mAll;
+        }
+        Region known = Region.find(region);
+        return known == null ? null : get(known);
+    }
+
+    /**
+     * @return The pool for a region, empty if the catalog has none of its countries.
+     */
+    int[] get(Region region) {
+        return mPools[region.ordinal()];
+    }
+
+    /**
+     * @return The pool holding every country.
+     */
+    int[] getAll() {
+        return mAll;
+    }
+}
@@ -0,0 +1,151 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+/**
+ * Draws indices with probability proportional to their weights, using a Fenwick tree over
+ * the weights: changing one weight and drawing one index both cost O(log n), so weights can
+ * be updated after every answer without rebuilding anything.  Weights are integers, so
+ * repeated updates never drift the way summed doubles would.
+ */
+public class WeightedSampler {
+
+    private final long[] mWeights;
+    private final long[] mTree; // 1-based Fenwick tree of partial sums
+    private final int mTopBit;  // highest power of two not above the size
+    private long mTotal;
+    private long[] mRemoved = new long[0]; // weights of the indices drawn by sample
+
+    /**
+     * Creates a sampler with every weight 0.
+     * @param size The number of indices.
+     */
+    public WeightedSampler(int size) {
+        mWeights = new long[size];
+        mTree = new long[size + 1];
+        mTopBit = size == 0 ? 0 : Integer.highestOneBit(size);
+    }
+
+    /**
+     * @return The number of indices.
+     */
+    public int size() {
+        return mWeights.length;
+    }
+
+    /**
+     * Sets every weight at once, in O(n).
+     * @param weights The weight of every index, none negative.
+     */
+    public void setAll(long[] weights) {
+        if (weights.length != mWeights.length) {
+            throw new IllegalArgumentException("Expected " + mWeights.length + " weights, got "
+                    + weights.length);
+        }
+        mTotal = 0;
+        for (int i = 0; i < weights.length; i++) {
+            checkWeight(weights[i]);
+            mWeights[i] = weights[i];
+            mTree[i + 1] = weights[i];
+            mTotal += weights[i];
+        }
+        for (int i = 1; i < mTree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < mTree.length) {
+                mTree[parent] += mTree[i];
+            }
+        }
+    }
+
+    /**
+     * @param index An index.
+     * @return Its weight.
+     */
+    public long get(int index) {
+        return mWeights[index];
+    }
+
+    /**
+     * Changes one weight, in O(log n).
+     * @param index An index.
+     * @param weight Its new weight, not negative.
+     */
+    public void set(int index, long weight) {
+        checkWeight(weight);
+        long delta = weight - mWeights[index];
+        mWeights[index] = weight;
+        mTotal += delta;
+        for (int i = index + 1; i < mTree.length; i += i & -i) {
+            mTree[i] += delta;
+        }
+    }
+
+    /**
+     * @return The sum of all the weights.
+     */
+    public long getTotal() {
+        return mTotal;
+    }
+
+    /**
+     * Finds the index whose share of the total covers a point, in O(log n).
+     * @param point A value in [0, {@link #getTotal()}).
+     * @return The first index whose cumulative weight is greater than <code>point</code>.
+     */
+    public int find(long point) {
+        int position = 0;
+        for (int bit = mTopBit; bit != 0; bit >>= 1) {
+            int next = position + bit;
+            if (next < mTree.length && mTree[next] <= point) {
+                position = next;
+                point -= mTree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Draws distinct indices, each with probability proportional to its weight among those not
+     * drawn yet, in O(count log n).  Indices of weight 0 are never drawn.
+     *
+     * @param count The number of indices wanted.
+     * @param rng Source of randomness.
+     * @param out Receives the drawn indices.
+     * @return The number drawn: <code>count</code>, or fewer if fewer indices have a weight.
+     */
+    public int sample(int count, RandomSource rng, int[] out) {
+        // Drawn indices are set to 0 so they cannot come up again, then restored
+        int wanted = Math.min(count, mWeights.length);
+        if (mRemoved.length < wanted) {
+            mRemoved = new long[wanted];
+        }
+        int drawn = 0;
+        while (drawn < wanted && mTotal > 0) {
+            int index = find(nextLong(rng, mTotal));
+            mRemoved[drawn] = mWeights[index];
+            set(index, 0);
+            out[drawn++] = index;
+        }
+        for (int i = 0; i < drawn; i++) {
+            set(out[i], mRemoved[i]);
+        }
+        return drawn;
+    }
+
+    /**
+     * @return A uniform long in [0, bound), rejecting the top partial range of 63-bit values.
+     */
+    private static long nextLong(RandomSource rng, long bound) {
+        long r = rng.nextLong() >>> 1;
+        long value = r % bound;
+        while (r - value + (bound - 1) < 0) {
+            r = rng.nextLong() >>> 1;
+            value = r % bound;
+        }
+        return value;
+    }
+
+    private static void checkWeight(long weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight " + weight);
+        }
+    }
+}
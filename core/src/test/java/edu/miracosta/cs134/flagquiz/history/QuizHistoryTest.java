@@ -0,0 +1,164 @@
+package edu.miracosta.cs134.flagquiz.history;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link QuizHistory} and {@link HistoryStats}.
+ */
+public class QuizHistoryTest {
+
+    private List<Country> mCountries;
+    private File mDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        mCountries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            mCountries.add(new Country(i, "Country " + i, i < 5 ? Region.ASIA : Region.EUROPE));
+        }
+        mDirectory = File.createTempFile("history", "");
+        assertTrue(mDirectory.delete());
+        assertTrue(mDirectory.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : mDirectory.listFiles()) {
+            file.delete();
+        }
+        mDirectory.delete();
+    }
+
+    @Test
+    public void stats_areUpdatedAsGuessesAreRecorded() {
+        QuizHistory history = new QuizHistory(mDirectory, mCountries);
+        history.record(1, true, true, 900, 0);
+        history.record(2, false, true, 1200, 0);
+        history.record(2, true, false, 1500, 0);
+        history.record(7, true, true, 600, 0);
+
+        HistoryStats stats = history.getStats();
+        assertEquals(4, stats.getGuesses());
+        assertEquals(3, stats.getCorrectGuesses());
+        assertEquals(1, stats.getAsked(2));
+        assertEquals(0.0, stats.getAccuracy(2), 0);
+        assertEquals(2, stats.getAsked(Region.ASIA));
+        assertEquals(0.5, stats.getAccuracy(Region.ASIA), 0);
+        assertEquals(1.0, stats.getAccuracy(Region.EUROPE), 0);
+        assertTrue(Double.isNaN(stats.getAccuracy(5)));
+        assertEquals(1, stats.getCurrentStreak());
+        assertEquals(1, stats.getBestStreak());
+        history.close();
+    }
+
+    @Test
+    public void history_survivesReopening() throws Exception {
+        QuizHistory history = new QuizHistory(mDirectory, mCountries);
+        for (int i = 0; i < 100; i++) {
+            history.record(i % 10, i % 3 != 0, true, i, i);
+        }
+        history.flush().get();
+        // Not closed: the next open replays the log without a snapshot
+        HistoryStats expected = history.getStats();
+        assertSameStats(expected, reopen());
+
+        history = new QuizHistory(mDirectory, mCountries);
+        history.record(4, true, true, 10, 10);
+        history.flush().get(); // the saved totals are in once the load is done
+        expected = history.getStats();
+        close(history);
+        assertSameStats(expected, reopen());
+    }
+
+    @Test
+    public void log_isCompactedAndStaysSmall() throws Exception {
+        long maxLogSize = QuizHistory.LOG_HEADER_SIZE + 50 * QuizHistory.RECORD_SIZE;
+        QuizHistory history = new QuizHistory(mDirectory, mCountries, maxLogSize);
+        for (int i = 0; i < 1000; i++) {
+            history.record(i % 10, i % 4 != 0, i % 2 == 0, i, i);
+            if (i % 10 == 0) {
+                history.flush().get();
+            }
+        }
+        HistoryStats expected = history.getStats();
+        history.flush().get();
+        assertTrue(new File(mDirectory, QuizHistory.LOG_FILE).length() <= maxLogSize);
+        close(history);
+        assertSameStats(expected, reopen());
+    }
+
+    @Test
+    public void tornRecord_isDropped() throws Exception {
+        QuizHistory history = new QuizHistory(mDirectory, mCountries);
+        history.record(3, true, true, 10, 10);
+        history.flush().get();
+        close(history);
+
+        // A half written record after the snapshot
+        RandomAccessFile log = new RandomAccessFile(new File(mDirectory, QuizHistory.LOG_FILE), "rw");
+        log.seek(log.length());
+        log.write(new byte[QuizHistory.RECORD_SIZE / 2]);
+        log.close();
+
+        HistoryStats stats = reopenStats();
+        assertEquals(1, stats.getGuesses());
+    }
+
+    @Test
+    public void otherCatalog_startsOver() throws Exception {
+        QuizHistory history = new QuizHistory(mDirectory, mCountries);
+        history.record(3, true, true, 10, 10);
+        close(history);
+
+        mCountries.set(9, new Country(9, "Renamed", Region.EUROPE));
+        assertEquals(0, reopenStats().getGuesses());
+    }
+
+    private void close(QuizHistory history) throws InterruptedException {
+        history.close();
+        assertTrue(history.awaitClose(5, TimeUnit.SECONDS));
+    }
+
+    private HistoryStats reopenStats() throws Exception {
+        QuizHistory history = new QuizHistory(mDirectory, mCountries);
+        history.flush().get(); // runs after the load
+        HistoryStats stats = history.getStats();
+        close(history);
+        return stats;
+    }
+
+    private String reopen() throws Exception {
+        return describe(reopenStats());
+    }
+
+    private void assertSameStats(HistoryStats expected, String actual) {
+        assertEquals(describe(expected), actual);
+    }
+
+    private String describe(HistoryStats stats) {
+        StringBuilder text = new StringBuilder();
+        text.append(stats.getGuesses()).append(' ').append(stats.getCorrectGuesses()).append(' ')
+                .append(stats.getCurrentStreak()).append(' ').append(stats.getBestStreak());
+        for (Region region : Region.values()) {
+            text.append(' ').append(stats.getAsked(region)).append('/').append(stats.getAccuracy(region));
+        }
+        for (int id = 0; id < mCountries.size(); id++) {
+            text.append(' ').append(stats.getAsked(id)).append('/').append(stats.getAccuracy(id));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package edu.miracosta.cs134.flagquiz.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link Histogram}.
+ */
+public class HistogramTest {
+
+    @Test
+    public void buckets_coverEveryValueInOrder() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789L, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = Histogram.indexOf(value);
+            assertTrue("value " + value, index >= 0 && index < Histogram.BUCKETS);
+            assertTrue("value " + value, Histogram.highestValue(index) >= value);
+            if (index > 0) {
+                assertTrue("value " + value, Histogram.highestValue(index - 1) < value);
+            }
+        }
+        for (int index = 1; index <= Histogram.indexOf(Long.MAX_VALUE); index++) {
+            assertEquals(index, Histogram.indexOf(Histogram.highestValue(index)));
+            assertEquals(index, Histogram.indexOf(Histogram.highestValue(index - 1) + 1));
+        }
+    }
+
+    @Test
+    public void percentiles_areWithinABucket() {
+        Histogram histogram = new Histogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMin());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500.0, histogram.getMean(), 1e-9);
+
+        double[] quantiles = {0.5, 0.9, 0.99};
+        for (double quantile : quantiles) {
+            long exact = (long) (quantile * 1000) * 1000;
+            long estimate = histogram.getPercentile(quantile);
+            assertTrue(quantile + ": " + estimate, estimate >= exact);
+            assertTrue(quantile + ": " + estimate, estimate <= exact * 1.125);
+        }
+        assertEquals(1000000, histogram.getPercentile(1));
+        assertEquals(1000, histogram.getPercentile(0));
+    }
+
+    @Test
+    public void add_combinesBothHistograms() {
+        Histogram low = new Histogram();
+        Histogram high = new Histogram();
+        for (long i = 1; i <= 100; i++) {
+            low.record(i);
+            high.record(1000 + i);
+        }
+        Histogram all = new Histogram();
+        all.add(low);
+        all.add(high);
+        assertEquals(200, all.getCount());
+        assertEquals(low.getSum() + high.getSum(), all.getSum());
+        assertEquals(1, all.getMin());
+        assertEquals(1100, all.getMax());
+        assertTrue(all.getPercentile(0.5) <= 112);
+        assertTrue(all.getPercentile(0.51) > 1000);
+        assertEquals(100, low.getCount());
+    }
+
+    @Test
+    public void reset_forgetsEverything() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getPercentile(0.5));
+        histogram.record(42);
+        histogram.record(-5);
+        assertEquals(0, histogram.getMin());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getPercentile(0.99));
+    }
+}
@@ -0,0 +1,103 @@
+package edu.miracosta.cs134.flagquiz.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link CountryNames}.
+ */
+public class CountryNamesTest {
+
+    private static final String[] CATALOG = {"Austria", "Tibet", "Germany", "Egypt", "Oman"};
+    // German names in the layout written by the generateCountryNames task, "" for none
+    private static final String[] GERMAN = {"\u00d6sterreich", "", "Deutschland", "\u00c4gypten", "Oman"};
+
+    private List<Country> mCountries;
+
+    @Before
+    public void setUp() {
+        mCountries = new ArrayList<>();
+        for (String name : CATALOG) {
+            mCountries.add(new Country(mCountries.size(), name, Region.EUROPE));
+        }
+    }
+
+    private static ByteBuffer table(String[] names) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x46514E4D);
+        out.writeShort(1);
+        out.writeShort(names.length);
+        for (String name : names) {
+            byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(utf8.length);
+            out.write(utf8);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    @Test
+    public void read_namesCountriesById() throws IOException {
+        CountryNames names = CountryNames.read(table(GERMAN), mCountries, Locale.GERMAN);
+        assertEquals(Locale.GERMAN, names.getLocale());
+        assertEquals("\u00d6sterreich", names.getName(mCountries.get(0)));
+        assertEquals("Deutschland", names.getName(2));
+        // No translation: the catalog name
+        assertEquals("Tibet", names.getName(1));
+    }
+
+    @Test
+    public void sortedIds_followTheLocale() throws IOException {
+        CountryNames names = CountryNames.read(table(GERMAN), mCountries, Locale.GERMAN);
+        // Umlauts sort with their base letter in German, not after Z as in code point order
+        assertArrayEquals(new int[]{3, 2, 4, 0, 1}, names.getSortedIds());
+        assertTrue(names.compare(3, 2) < 0);
+        assertEquals(0, names.compare(4, 4));
+
+        CountryNames english = CountryNames.fromCatalog(mCountries, Locale.ENGLISH);
+        assertArrayEquals(new int[]{0, 3, 2, 4, 1}, english.getSortedIds());
+    }
+
+    @Test
+    public void find_ignoresCaseAndAccents() throws IOException {
+        CountryNames names = CountryNames.read(table(GERMAN), mCountries, Locale.GERMAN);
+        assertEquals(0, names.find("osterreich"));
+        assertEquals(3, names.find(" \u00c4GYPTEN"));
+        assertEquals(1, names.find("tibet"));
+        assertEquals(CountryNames.NOT_FOUND, names.find("Austria"));
+        assertEquals(CountryNames.NOT_FOUND, names.find(""));
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsTableOfAnotherCatalog() throws IOException {
+        CountryNames.read(table(Arrays.copyOf(GERMAN, 4)), mCountries, Locale.GERMAN);
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsTruncatedTable() throws IOException {
+        ByteBuffer table = table(GERMAN);
+        table.limit(table.limit() - 3);
+        CountryNames.read(table, mCountries, Locale.GERMAN);
+    }
+
+    @Test
+    public void assetNames_mostSpecificFirst() {
+        assertEquals(Arrays.asList("names/zh-Hant-TW.bin", "names/zh-TW.bin", "names/zh.bin"),
+                CountryNames.getAssetNames(Locale.forLanguageTag("zh-Hant-TW")));
+        assertEquals(Arrays.asList("names/de-AT.bin", "names/de.bin"),
+                CountryNames.getAssetNames(new Locale("de", "AT")));
+        assertEquals(Arrays.asList("names/fr.bin"), CountryNames.getAssetNames(Locale.FRENCH));
+    }
+}
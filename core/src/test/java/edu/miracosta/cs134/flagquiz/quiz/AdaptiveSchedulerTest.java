@@ -0,0 +1,101 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link AdaptiveScheduler} and {@link MasteryStore}.
+ */
+public class AdaptiveSchedulerTest {
+
+    private List<Country> mCountries;
+    private AdaptiveScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        mCountries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            mCountries.add(new Country(i, "Country " + i, i % 2 == 0 ? Region.ASIA : Region.EUROPE));
+        }
+        mScheduler = new AdaptiveScheduler(mCountries);
+    }
+
+    @Test
+    public void record_movesMasteryTowardsTheResult() {
+        assertEquals(AdaptiveScheduler.UNSEEN, mScheduler.getMastery(3));
+        int up = mScheduler.record(3, 0, 4);
+        assertTrue(up > AdaptiveScheduler.UNSEEN);
+        int down = mScheduler.record(3, 3, 4);
+        assertTrue(down < up);
+
+        for (int i = 0; i < 100; i++) {
+            mScheduler.record(5, 0, 4);
+            mScheduler.record(7, 3, 4);
+        }
+        assertEquals(AdaptiveScheduler.MASTERED, mScheduler.getMastery(5));
+        assertEquals(0, mScheduler.getMastery(7));
+        assertTrue(mScheduler.getWeight(7) > 10 * mScheduler.getWeight(5));
+    }
+
+    @Test
+    public void generate_favorsWeakCountriesInTheRegion() {
+        for (int id = 0; id < mCountries.size(); id++) {
+            for (int i = 0; i < 50; i++) {
+                mScheduler.record(id, id == 4 ? 3 : 0, 4);
+            }
+        }
+        RandomSource rng = new FastRandom(1);
+        int[] out = new int[3];
+        int asked = 0;
+        for (int quiz = 0; quiz < 1000; quiz++) {
+            assertEquals(3, mScheduler.generate("Asia", 3, rng, out));
+            for (int i = 0; i < 3; i++) {
+                assertSame(Region.ASIA, mCountries.get(out[i]).getRegion());
+                if (out[i] == 4) {
+                    asked++;
+                }
+            }
+        }
+        // Uniform draws would ask it in 300 quizzes out of 1000
+        assertTrue("asked " + asked, asked > 800);
+        assertEquals(10, mScheduler.generate(QuizGenerator.ALL_REGIONS, 10, rng, new int[10]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void generate_rejectsUnknownRegion() {
+        mScheduler.generate("Atlantis", 3, new FastRandom(2), new int[3]);
+    }
+
+    @Test
+    public void store_savesScoresOneByOne() throws IOException {
+        File file = File.createTempFile("mastery", ".bin");
+        assertTrue(file.delete());
+        try {
+            MasteryStore store = new MasteryStore(file, mCountries);
+            assertNull(store.load());
+            store.write(2, mScheduler.record(2, 0, 4));
+            store.write(9, mScheduler.record(9, 3, 4));
+            store.close();
+
+            byte[] loaded = new MasteryStore(file, mCountries).load();
+            assertArrayEquals(mScheduler.getMastery(), loaded);
+
+            // Scores for another catalog are not used
+            List<Country> other = new ArrayList<>(mCountries);
+            other.set(0, new Country(0, "Renamed", Region.ASIA));
+            assertNull(new MasteryStore(file, other).load());
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ChallengeCode}.
+ */
+public class ChallengeCodeTest {
+
+    @Test
+    public void code_roundTrips() {
+        ChallengeCode code = new ChallengeCode(ChallengeCode.SEED_MASK, "South America", 8,
+                Difficulty.MEDIUM);
+        String text = code.toString();
+        assertTrue(text, text.matches("[0-9A-Z]{5}-[0-9A-Z]{5}"));
+        assertEquals(code, ChallengeCode.parse(text));
+
+        code = new ChallengeCode(0, QuizGenerator.ALL_REGIONS, 2, Difficulty.EASY);
+        assertEquals(code, ChallengeCode.parse(code.toString()));
+    }
+
+    @Test
+    public void parse_toleratesHowCodesAreTyped() {
+        ChallengeCode code = new ChallengeCode(1011, "Europe", 4, Difficulty.HARD);
+        String text = code.toString();
+        assertEquals(code, ChallengeCode.parse(" " + text.toLowerCase().replace("-", " ") + " "));
+        assertEquals(code, ChallengeCode.parse(text.replace('0', 'O').replace('1', 'l')));
+    }
+
+    @Test
+    public void parse_rejectsTyposAndJunk() {
+        String text = new ChallengeCode(987654321L, "Asia", 6, Difficulty.EASY).toString();
+        int caught = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '-') {
+                String typo = text.substring(0, i) + (c == 'Z' ? 'Y' : c == '9' ? 'A' : (char) (c + 1))
+                        + text.substring(i + 1);
+                if (ChallengeCode.parse(typo) == null) {
+                    caught++;
+                }
+            }
+        }
+        assertTrue("caught " + caught, caught >= 8);
+        assertNull(ChallengeCode.parse(null));
+        assertNull(ChallengeCode.parse(""));
+        assertNull(ChallengeCode.parse(text.substring(1)));
+        assertNull(ChallengeCode.parse(text + "0"));
+        assertNull(ChallengeCode.parse("UUUUU-UUUUU"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void seed_mustFit() {
+        new ChallengeCode(ChallengeCode.SEED_MASK + 1, "Asia", 4, Difficulty.EASY);
+    }
+}
@@ -0,0 +1,74 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link DistractorSampler}.
+ */
+public class DistractorSamplerTest {
+
+    private List<Country> mCountries;
+    private DistractorSampler mSampler;
+
+    @Before
+    public void setUp() {
+        mCountries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            mCountries.add(new Country(mCountries.size(), "Big " + i, Region.ASIA));
+        }
+        for (int i = 0; i < 3; i++) {
+            mCountries.add(new Country(mCountries.size(), "Small " + i, Region.OCEANIA));
+        }
+        mSampler = new DistractorSampler(new QuizGenerator(mCountries));
+    }
+
+    @Test
+    public void sample_neverReturnsCorrectOrDuplicates() {
+        RandomSource rng = new FastRandom(1);
+        int[] out = new int[7];
+        List<Country> before = new ArrayList<>(mCountries);
+        for (int run = 0; run < 10000; run++) {
+            Country correct = mCountries.get(rng.nextInt(20));
+            assertEquals(7, mSampler.sample(correct, "Asia", 7, rng, out));
+            Set<Country> seen = new HashSet<>();
+            for (int index : out) {
+                Country distractor = mSampler.getCountry(index);
+                assertNotSame(correct, distractor);
+                assertSame(Region.ASIA, distractor.getRegion());
+                assertTrue(seen.add(distractor));
+            }
+        }
+        assertEquals(before, mCountries);
+    }
+
+    @Test
+    public void sample_fallsBackToCatalogForSmallRegion() {
+        int[] out = new int[5];
+        Country correct = mCountries.get(20);
+        assertEquals(5, mSampler.sample(correct, "Oceania", 5, new FastRandom(2), out));
+        Set<Integer> distinct = new HashSet<>();
+        for (int index : out) {
+            assertNotSame(correct, mSampler.getCountry(index));
+            distinct.add(index);
+        }
+        assertEquals(5, distinct.size());
+    }
+
+    @Test
+    public void sample_isLimitedByCatalogSize() {
+        int[] out = new int[mCountries.size()];
+        assertEquals(mCountries.size() - 1, mSampler.sample(mCountries.get(0),
+                QuizGenerator.ALL_REGIONS, mCountries.size(), new FastRandom(3), out));
+    }
+}
@@ -0,0 +1,56 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link FastRandom}.
+ */
+public class FastRandomTest {
+
+    @Test
+    public void sameSeed_sameSequence() {
+        FastRandom a = new FastRandom(42);
+        FastRandom b = new FastRandom(7);
+        b.setSeed(42);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextLong(), b.nextLong());
+        }
+    }
+
+    @Test
+    public void differentSeeds_differentSequences() {
+        assertNotEquals(new FastRandom(0).nextLong(), new FastRandom(1).nextLong());
+        assertNotEquals(new FastRandom().nextLong(), new FastRandom().nextLong());
+    }
+
+    @Test
+    public void nextInt_isWithinBoundAndUniform() {
+        FastRandom rng = new FastRandom(3);
+        int[] counts = new int[6];
+        for (int i = 0; i < 60000; i++) {
+            counts[rng.nextInt(6)]++;
+        }
+        for (int count : counts) {
+            assertTrue("count " + count, Math.abs(count - 10000) < 500);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int value = rng.nextInt(Integer.MAX_VALUE);
+            assertTrue(value >= 0);
+        }
+        assertEquals(0, rng.nextInt(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nextInt_rejectsZeroBound() {
+        new FastRandom(4).nextInt(0);
+    }
+
+    @Test
+    public void split_isIndependent() {
+        FastRandom rng = new FastRandom(5);
+        RandomSource split = rng.split();
+        assertNotEquals(rng.nextLong(), split.nextLong());
+    }
+}
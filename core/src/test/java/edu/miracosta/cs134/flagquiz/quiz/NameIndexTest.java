@@ -0,0 +1,177 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.CountryNames;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link NameIndex}.
+ */
+public class NameIndexTest {
+
+    private static final String[] NAMES = {
+            "Solomon Islands", "Cook Islands", "Marshall Islands", "Somalia", "Spain", "Sweden",
+            "Switzerland", "Congo", "Dem. Rep. of the Congo", "C\u00f4te d'Ivoire", "Timor-Leste",
+            "Niger", "Nigeria", "Austria", "Australia", "Iceland", "Ireland", "S\u00e3o Tom\u00e9 and Pr\u00edncipe",
+            "St. Vincent and Grenadines", "Guinea", "Eq. Guinea", "Guinea-Bissau", "Papua New Guinea"
+    };
+
+    private static List<Country> sCountries;
+    private static NameIndex sIndex;
+
+    @BeforeClass
+    public static void setUp() {
+        sCountries = new ArrayList<>();
+        for (String name : NAMES) {
+            sCountries.add(new Country(sCountries.size(), name, Region.AFRICA));
+        }
+        sIndex = new NameIndex(sCountries);
+    }
+
+    private static List<String> suggest(String query, int max) {
+        int[] out = new int[max];
+        int count = sIndex.suggest(query, out);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(sCountries.get(out[i]).getName());
+        }
+        return names;
+    }
+
+    private static int id(String name) {
+        return Arrays.asList(NAMES).indexOf(name);
+    }
+
+    @Test
+    public void localizedNames_areIndexedInsteadOfCatalogNames() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x46514E4D);
+        out.writeShort(1);
+        out.writeShort(NAMES.length);
+        for (String name : NAMES) {
+            byte[] localized = ("Spain".equals(name) ? "Espa\u00f1a" : "").getBytes(StandardCharsets.UTF_8);
+            out.writeShort(localized.length);
+            out.write(localized);
+        }
+        CountryNames names = CountryNames.read(ByteBuffer.wrap(bytes.toByteArray()), sCountries,
+                new Locale("es"));
+        NameIndex index = new NameIndex(sCountries, names);
+
+        assertEquals(id("Spain"), index.match("espana"));
+        // Countries without a translation keep their catalog name
+        assertEquals(id("Sweden"), index.match("Sweden"));
+    }
+
+    @Test
+    public void normalize_dropsCaseAccentsAndPunctuation() {
+        char[] out = new char[NameIndex.MAX_QUERY];
+        assertEquals("cote divoire", new String(out, 0, NameIndex.normalize("C\u00f4te d'Ivoire", out)));
+        assertEquals("dem rep of the congo",
+                new String(out, 0, NameIndex.normalize("  Dem. Rep. of the  Congo ", out)));
+        assertEquals("timor leste", new String(out, 0, NameIndex.normalize("TIMOR-leste", out)));
+        assertEquals("sao tome and principe", sIndex.getNormalizedName(id("S\u00e3o Tom\u00e9 and Pr\u00edncipe")));
+        assertEquals(0, NameIndex.normalize(" .-'", out));
+    }
+
+    @Test
+    public void suggest_ranksPrefixMatches() {
+        assertEquals(Arrays.asList("Spain", "Sweden", "Somalia"), suggest("s", 3));
+        assertEquals(Arrays.asList("Niger", "Nigeria"), suggest("NIGE", 8));
+        assertEquals(Arrays.asList("Somalia", "Solomon Islands"), suggest("so", 2));
+        // Whole names first, then names with a later word starting with the query
+        assertEquals(Arrays.asList("Guinea", "Guinea-Bissau", "Eq. Guinea", "Papua New Guinea"),
+                suggest("guin", 8));
+        assertEquals(Arrays.asList("Cook Islands", "Solomon Islands", "Marshall Islands"),
+                suggest("islands", 8));
+        assertEquals(Arrays.asList("C\u00f4te d'Ivoire"), suggest("cote d'iv", 8));
+        assertEquals(Arrays.asList("S\u00e3o Tom\u00e9 and Pr\u00edncipe"), suggest("Sao To", 8));
+        assertEquals(0, suggest("", 8).size());
+        assertEquals(0, suggest("xyz", 8).size());
+    }
+
+    @Test
+    public void suggest_toleratesTypos() {
+        assertEquals("Solomon Islands", suggest("Soloman Isl", 8).get(0));
+        assertEquals("Solomon Islands", suggest("Soloman Islands", 8).get(0));
+        assertEquals("Switzerland", suggest("swtizer", 8).get(0));
+        assertEquals("Australia", suggest("Astralia", 1).get(0));
+        // Prefix matches come first, typos only fill the remaining places
+        List<String> mixed = suggest("austr", 8);
+        assertEquals(Arrays.asList("Austria", "Australia"), mixed.subList(0, 2));
+    }
+
+    @Test
+    public void match_findsTheNamedCountry() {
+        assertEquals(id("Congo"), sIndex.match("congo"));
+        assertEquals(id("Dem. Rep. of the Congo"), sIndex.match("Dem Rep of the Congo"));
+        assertEquals(id("C\u00f4te d'Ivoire"), sIndex.match("COTE D'IVOIRE"));
+        assertEquals(id("Solomon Islands"), sIndex.match("Soloman Islands"));
+        assertEquals(id("Switzerland"), sIndex.match("Swizterland"));
+        assertEquals(NameIndex.NOT_FOUND, sIndex.match("Swi"));
+        assertEquals(NameIndex.NOT_FOUND, sIndex.match("Atlantis"));
+        assertEquals(NameIndex.NOT_FOUND, sIndex.match(""));
+        // As close to Iceland as to Ireland
+        assertEquals(NameIndex.NOT_FOUND, sIndex.match("Irceland"));
+    }
+
+    @Test
+    public void lookups_takeMuchLessThanAFrameOnAHugeCatalog() {
+        // 100 times the real catalog, with made up names
+        RandomSource rng = new FastRandom(1);
+        String[] syllables = {"ba", "ri", "to", "nia", "sta", "lan", "gu", "e", "mon", "dor",
+                "ka", "zi", "que", "ur", "sh", "an", "is", "land", "el", "o"};
+        List<Country> countries = new ArrayList<>();
+        for (int i = 0; i < 22300; i++) {
+            StringBuilder name = new StringBuilder();
+            int words = 1 + rng.nextInt(3);
+            for (int w = 0; w < words; w++) {
+                name.append(w > 0 ? " " : "");
+                int parts = 2 + rng.nextInt(3);
+                for (int p = 0; p < parts; p++) {
+                    name.append(syllables[rng.nextInt(syllables.length)]);
+                }
+            }
+            countries.add(new Country(i, name.toString(), Region.values()[i % Region.values().length]));
+        }
+        NameIndex index = new NameIndex(countries);
+
+        String[] queries = new String[1000];
+        for (int i = 0; i < queries.length; i++) {
+            String name = countries.get(rng.nextInt(countries.size())).getName();
+            String query = name.substring(0, 1 + rng.nextInt(name.length()));
+            if (query.length() > 4 && rng.nextInt(2) == 0) {
+                // A typo: one letter replaced
+                int at = rng.nextInt(query.length());
+                query = query.substring(0, at) + 'x' + query.substring(at + 1);
+            }
+            queries[i] = query;
+        }
+        int[] out = new int[8];
+        for (int warmUp = 0; warmUp < 5; warmUp++) {
+            for (String query : queries) {
+                index.suggest(query, out);
+            }
+        }
+        long start = System.nanoTime();
+        for (String query : queries) {
+            assertTrue(query, index.suggest(query, out) > 0 || query.indexOf('x') >= 0);
+        }
+        long meanNanos = (System.nanoTime() - start) / queries.length;
+        assertTrue("Mean lookup took " + meanNanos + " ns", meanNanos < 2000000);
+    }
+}
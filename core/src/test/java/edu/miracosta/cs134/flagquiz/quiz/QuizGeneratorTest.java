@@ -0,0 +1,106 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link QuizGenerator}.
+ */
+public class QuizGeneratorTest {
+
+    private List<Country> mCountries;
+    private QuizGenerator mGenerator;
+
+    @Before
+    public void setUp() {
+        mCountries = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            mCountries.add(new Country(mCountries.size(), "Big " + i, Region.ASIA));
+        }
+        for (int i = 0; i < 5; i++) {
+            mCountries.add(new Country(mCountries.size(), "Small " + i, Region.OCEANIA));
+        }
+        mGenerator = new QuizGenerator(mCountries);
+    }
+
+    @Test
+    public void generate_drawsDistinctCountriesFromRegion() {
+        RandomSource rng = new FastRandom(1);
+        for (int run = 0; run < 1000; run++) {
+            List<Country> quiz = mGenerator.generate("Asia", 10, rng);
+            assertEquals(10, quiz.size());
+            assertEquals(10, new HashSet<>(quiz).size());
+            for (Country country : quiz) {
+                assertSame(Region.ASIA, country.getRegion());
+            }
+        }
+    }
+
+    @Test
+    public void generate_allRegionsUsesWholeCatalog() {
+        assertEquals(mCountries.size(), mGenerator.getPoolSize(QuizGenerator.ALL_REGIONS));
+        List<Country> quiz = mGenerator.generate(QuizGenerator.ALL_REGIONS, mCountries.size(),
+                new FastRandom(2));
+        assertEquals(new HashSet<>(mCountries), new HashSet<>(quiz));
+    }
+
+    @Test(timeout = 1000)
+    public void generate_capsQuizToSmallRegion() {
+        List<Country> quiz = mGenerator.generate("Oceania", 10, new FastRandom(3));
+        assertEquals(5, quiz.size());
+        assertEquals(5, new HashSet<>(quiz).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void generate_failsForEmptyRegion() {
+        mGenerator.generate("Atlantis", 10, new FastRandom(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void generate_failsForNegativeCount() {
+        mGenerator.generate("Oceania", -1, new FastRandom(4));
+    }
+
+    @Test
+    public void generate_isUniform() {
+        // Draw 2 of the 5 small countries many times; every country should appear in every
+        // position about equally often
+        final int runs = 100000;
+        int[][] counts = new int[2][5];
+        RandomSource rng = new FastRandom(5);
+        int[] out = new int[2];
+        Set<Integer> smallIndices = new HashSet<>();
+        for (int i = 40; i < 45; i++) {
+            smallIndices.add(i);
+        }
+
+        for (int run = 0; run < runs; run++) {
+            assertEquals(2, mGenerator.generate("Oceania", 2, rng, out));
+            assertNotEquals(out[0], out[1]);
+            for (int position = 0; position < 2; position++) {
+                assertTrue(smallIndices.contains(out[position]));
+                counts[position][out[position] - 40]++;
+            }
+        }
+
+        double expected = runs / 5.0;
+        for (int[] position : counts) {
+            double chiSquare = 0;
+            for (int count : position) {
+                chiSquare += (count - expected) * (count - expected) / expected;
+            }
+            // 4 degrees of freedom, p = 0.001
+            assertTrue("chi-square " + chiSquare, chiSquare < 18.47);
+        }
+    }
+}
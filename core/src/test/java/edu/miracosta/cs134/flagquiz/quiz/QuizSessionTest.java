@@ -0,0 +1,194 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link QuizSession}.
+ */
+public class QuizSessionTest {
+
+    private QuizSession mSession;
+
+    @Before
+    public void setUp() {
+        List<Country> countries = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            countries.add(new Country(i, "Country " + i, i % 2 == 0 ? Region.EUROPE : Region.AFRICA));
+        }
+        QuizGenerator generator = new QuizGenerator(countries);
+        mSession = new QuizSession(generator, new DistractorSampler(generator), new FastRandom(1), 8);
+        mSession.setSettings("Europe", 4, Difficulty.EASY);
+    }
+
+    @Test
+    public void quiz_runsToTheEnd() {
+        mSession.start(10);
+        Set<Country> asked = new HashSet<>();
+        int questions = 0;
+        while (true) {
+            questions++;
+            assertEquals(questions, mSession.getQuestionNumber());
+            assertTrue(asked.add(mSession.getCorrectCountry()));
+            assertEquals(4, mSession.getChoiceCount());
+
+            // Guess every wrong choice first, then the right one
+            int correct = -1;
+            for (int i = 0; i < mSession.getChoiceCount(); i++) {
+                if (mSession.getChoice(i) == mSession.getCorrectCountry()) {
+                    correct = i;
+                } else {
+                    assertEquals(QuizSession.Guess.INCORRECT, mSession.guess(i, 0));
+                    assertFalse(mSession.isChoiceEnabled(i));
+                }
+            }
+            assertNotEquals(-1, correct);
+            assertEquals(QuizSession.Guess.CORRECT, mSession.guess(correct, 0));
+            assertTrue(mSession.isAnswered());
+
+            if (!mSession.hasNextQuestion()) {
+                break;
+            }
+            mSession.nextQuestion();
+        }
+
+        assertTrue(mSession.isFinished());
+        assertEquals(10, questions);
+        assertEquals(10, mSession.getCorrectGuesses());
+        assertEquals(40, mSession.getTotalGuesses());
+    }
+
+    @Test
+    public void start_resetsScore() {
+        mSession.start(10);
+        mSession.guess(0, 0);
+        mSession.start(10);
+        assertEquals(0, mSession.getTotalGuesses());
+        assertEquals(1, mSession.getQuestionNumber());
+        assertNull(mSession.getLastGuess());
+    }
+
+    @Test
+    public void start_withSeedReplaysTheQuiz() {
+        mSession.start(10, 12345);
+        List<Integer> first = recordQuiz();
+
+        // Another quiz in between leaves the shared pools permuted differently
+        mSession.start(10);
+        mSession.start(10, 12345);
+        assertEquals(12345, mSession.getSeed());
+        assertEquals(first, recordQuiz());
+
+        mSession.start(10, 54321);
+        assertNotEquals(first, recordQuiz());
+    }
+
+    @Test
+    public void challengeCode_describesTheQuiz() {
+        mSession.setSettings("Africa", 6, Difficulty.HARD);
+        mSession.start(10);
+        ChallengeCode code = ChallengeCode.parse(mSession.getChallengeCode().toString());
+        assertEquals(mSession.getSeed(), code.getSeed());
+        assertEquals("Africa", code.getRegion());
+        assertEquals(6, code.getChoices());
+        assertEquals(Difficulty.HARD, code.getDifficulty());
+    }
+
+    @Test
+    public void scheduler_scoresAnswersAndDrawsAdaptiveQuizzes() {
+        List<Country> countries = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            countries.add(new Country(i, "Country " + i, i % 2 == 0 ? Region.EUROPE : Region.AFRICA));
+        }
+        AdaptiveScheduler scheduler = new AdaptiveScheduler(countries);
+        mSession.setScheduler(scheduler);
+        mSession.setAdaptive(true);
+        mSession.start(3);
+        assertNull(mSession.getChallengeCode());
+
+        int id = mSession.getCorrectCountry().getId();
+        mSession.guess(correctChoice(), 0);
+        assertTrue(scheduler.getMastery(id) > AdaptiveScheduler.UNSEEN);
+
+        mSession.setAdaptive(false);
+        mSession.start(3);
+        assertNotNull(mSession.getChallengeCode());
+    }
+
+    @Test
+    public void guess_comparesIdsNotNames() {
+        // Two countries with the same name: only the one asked is the right answer
+        List<Country> countries = new ArrayList<>();
+        countries.add(new Country(0, "Congo", Region.AFRICA));
+        countries.add(new Country(1, "Congo", Region.AFRICA));
+        QuizGenerator generator = new QuizGenerator(countries);
+        QuizSession session = new QuizSession(generator, new DistractorSampler(generator),
+                new FastRandom(2), 2);
+        session.setSettings("Africa", 2, Difficulty.EASY);
+        session.start(1);
+
+        QuestionChoices choices = session.getChoices();
+        int wrong = choices.getId(0) == choices.getCorrectId() ? 1 : 0;
+        assertEquals(QuizSession.Guess.INCORRECT, session.guess(wrong, 0));
+        assertEquals(QuizSession.Guess.CORRECT, session.guess(1 - wrong, 0));
+    }
+
+    @Test
+    public void guess_recordsLatencyFromFlagShown() {
+        mSession.start(2);
+        mSession.guess(wrongChoice(), 100); // flag not shown yet
+        mSession.markFlagShown(1000);
+        mSession.markFlagShown(1500); // shown again after a rotation, ignored
+        mSession.guess(correctChoice(), 1800);
+        assertEquals(QuestionChoices.UNKNOWN, mSession.getFirstGuessLatency(0));
+        assertEquals(800, mSession.getAnswerLatency(0));
+
+        mSession.nextQuestion();
+        mSession.markFlagShown(5000);
+        mSession.guess(wrongChoice(), 5300);
+        mSession.guess(correctChoice(), 5600);
+        assertEquals(300, mSession.getFirstGuessLatency(1));
+        assertEquals(600, mSession.getAnswerLatency(1));
+        assertEquals(700, mSession.getMeanAnswerLatency());
+    }
+
+    /**
+     * Answers every question of the current quiz, recording the choices shown by country id.
+     */
+    private List<Integer> recordQuiz() {
+        List<Integer> ids = new ArrayList<>();
+        while (true) {
+            for (int i = 0; i < mSession.getChoiceCount(); i++) {
+                ids.add(mSession.getChoices().getId(i));
+            }
+            mSession.guess(correctChoice(), 0);
+            if (!mSession.hasNextQuestion()) {
+                return ids;
+            }
+            mSession.nextQuestion();
+        }
+    }
+
+    private int correctChoice() {
+        for (int i = 0; i < mSession.getChoiceCount(); i++) {
+            if (mSession.getChoices().getId(i) == mSession.getChoices().getCorrectId()) {
+                return i;
+            }
+        }
+        throw new AssertionError("No correct choice");
+    }
+
+    private int wrongChoice() {
+        return correctChoice() == 0 ? 1 : 0;
+    }
+}
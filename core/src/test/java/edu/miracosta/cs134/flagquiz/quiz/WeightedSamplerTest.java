@@ -0,0 +1,68 @@
+package edu.miracosta.cs134.flagquiz.quiz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link WeightedSampler}.
+ */
+public class WeightedSamplerTest {
+
+    @Test
+    public void find_mapsPointsToWeights() {
+        WeightedSampler sampler = new WeightedSampler(5);
+        sampler.setAll(new long[] {3, 0, 2, 5, 1});
+        assertEquals(11, sampler.getTotal());
+        int[] expected = {0, 0, 0, 2, 2, 3, 3, 3, 3, 3, 4};
+        for (int point = 0; point < expected.length; point++) {
+            assertEquals("point " + point, expected[point], sampler.find(point));
+        }
+
+        sampler.set(1, 4);
+        sampler.set(3, 0);
+        assertEquals(10, sampler.getTotal());
+        assertEquals(1, sampler.find(3));
+        assertEquals(4, sampler.find(9));
+    }
+
+    @Test
+    public void sample_followsWeights() {
+        WeightedSampler sampler = new WeightedSampler(3);
+        sampler.setAll(new long[] {1, 3, 0});
+        RandomSource rng = new FastRandom(1);
+        int[] out = new int[1];
+        int[] counts = new int[3];
+        for (int i = 0; i < 40000; i++) {
+            assertEquals(1, sampler.sample(1, rng, out));
+            counts[out[0]]++;
+        }
+        assertEquals(0, counts[2]);
+        assertEquals(3.0, (double) counts[1] / counts[0], 0.15);
+    }
+
+    @Test
+    public void sample_drawsDistinctIndicesAndRestoresWeights() {
+        WeightedSampler sampler = new WeightedSampler(1000);
+        long[] weights = new long[1000];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = i % 7;
+        }
+        sampler.setAll(weights);
+        long total = sampler.getTotal();
+
+        int[] out = new int[1000];
+        int drawn = sampler.sample(1000, new FastRandom(2), out);
+        assertEquals(1000 - 143, drawn); // every index of weight 0 is left out
+        boolean[] seen = new boolean[1000];
+        for (int i = 0; i < drawn; i++) {
+            assertFalse(seen[out[i]]);
+            assertNotEquals(0, weights[out[i]]);
+            seen[out[i]] = true;
+        }
+        assertEquals(total, sampler.getTotal());
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i], sampler.get(i));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+#!/bin/sh
+# Measures cold starts of the app on a connected device or emulator: the time to the first
+# frame ("am start -W" TotalTime) and to the first flag (the "Fully drawn" line logged for
+# MainActivity's reportFullyDrawn).  Each APK given is installed and measured in turn, so a
+# before and after comparison is:
+#
+#   ./gradlew :app:assembleBenchmark -PstartupWarmup=false
+#   cp app/build/outputs/apk/benchmark/app-benchmark.apk /tmp/before.apk
+#   ./gradlew :app:assembleBenchmark
+#   cp app/build/outputs/apk/benchmark/app-benchmark.apk /tmp/after.apk
+#   scripts/startup_benchmark.sh -n 20 /tmp/before.apk /tmp/after.apk
+#
+# The benchmark build type is a release build signed with the debug key, so it installs
+# without a release key.  BuildConfig.DEBUG is false there, so Metrics stays off and does not
+# add to the times measured.  The app is uninstalled before each APK, so every APK starts
+# without the data and compiled code left by the one before.
+#
+# With no APK the installed app is measured.  Needs adb on the PATH.
+
+set -e
+
+PACKAGE=edu.miracosta.cs134.flagquiz
+ACTIVITY=$PACKAGE/.MainActivity
+RUNS=10
+
+usage() {
+    echo "usage: $0 [-n runs] [apk...]" >&2
+    exit 2
+}
+
+while getopts n: opt; do
+    case $opt in
+        n) RUNS=$OPTARG ;;
+        *) usage ;;
+    esac
+done
+shift $((OPTIND - 1))
+
+# Prints the median and 90th percentile of the numbers on stdin
+summarize() {
+    sort -n | awk '{ v[NR] = $1 }
+        END {
+            if (NR == 0) { print "no samples"; exit }
+            p90 = int(NR * 0.9 + 0.5); if (p90 < 1) p90 = 1
+            printf "median %d ms, p90 %d ms (%d runs)\n", v[int((NR + 1) / 2)], v[p90], NR
+        }'
+}
+
+# Converts the "+1s234ms" logcat duration to milliseconds
+to_millis() {
+    sed -e 's/^+//' -e 's/ms$//' | awk -F's' '{ if (NF == 2) print $1 * 1000 + $2; else print $1 }'
+}
+
+measure() {
+    label=$1
+    first_frame=$(mktemp)
+    first_flag=$(mktemp)
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        adb shell am force-stop $PACKAGE
+        # Let the device settle so runs do not overlap
+        sleep 1
+        adb logcat -c
+        total=$(adb shell am start -W -n $ACTIVITY | tr -d '\r' | awk '/^TotalTime:/ { print $2 }')
+        [ -n "$total" ] && echo "$total" >> "$first_frame"
+        # The first flag may be drawn after am start returns
+        sleep 2
+        adb logcat -d -s ActivityTaskManager:I ActivityManager:I | tr -d '\r' \
+            | grep "Fully drawn $ACTIVITY" | sed -e 's/.*: //' -e 's/ .*//' | head -n 1 \
+            | to_millis >> "$first_flag"
+        i=$((i + 1))
+    done
+    echo "$label"
+    printf "  first frame: "; summarize < "$first_frame"
+    printf "  first flag:  "; summarize < "$first_flag"
+    rm -f "$first_frame" "$first_flag"
+}
+
+if [ $# -eq 0 ]; then
+    measure "installed app"
+else
+    for apk in "$@"; do
+        adb uninstall $PACKAGE > /dev/null 2>&1 || true
+        adb install "$apk" > /dev/null
+        measure "$apk"
+    done
+fi
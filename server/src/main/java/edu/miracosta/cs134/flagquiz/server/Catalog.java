@@ -0,0 +1,140 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.miracosta.cs134.flagquiz.catalog.CatalogReader;
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.quiz.FlagSimilarity;
+
+/**
+ * Everything the server reads once at startup and then shares between all requests: the
+ * countries, the optional look-alike data, every flag image and the JSON that never changes.
+ * Nothing in it is modified after {@link #load}, so it needs no locking.  Flag images are
+ * memory-mapped read-only and handed out as {@link ByteBuffer#duplicate duplicates}, which a
+ * socket writes straight from the page cache without copying them onto the Java heap.
+ */
+final class Catalog {
+
+    private final List<Country> mCountries;
+    private final FlagSimilarity mSimilarity;
+    private final ByteBuffer[] mFlags;      // by id, null if the image is missing
+    private final String[] mCountryJson;    // by id, {"id":..,"name":..}
+    private final ByteBuffer mCatalogJson;  // body of GET /catalog
+
+    Catalog(List<Country> countries, FlagSimilarity similarity, ByteBuffer[] flags) {
+        mCountries = Collections.unmodifiableList(new ArrayList<>(countries));
+        mSimilarity = similarity;
+        mFlags = flags.clone();
+        mCountryJson = new String[mCountries.size()];
+
+        StringBuilder catalog = new StringBuilder(64 * mCountries.size());
+        catalog.append("{\"countries\":[");
+        for (Country country : mCountries) {
+            StringBuilder json = new StringBuilder(48);
+            json.append("{\"id\":").append(country.getId()).append(",\"name\":");
+            Json.quote(json, country.getName());
+            json.append('}');
+            mCountryJson[country.getId()] = json.toString();
+
+            if (country.getId() > 0) {
+                catalog.append(',');
+            }
+            catalog.append(json, 0, json.length() - 1).append(",\"region\":");
+            Json.quote(catalog, country.getRegion().getName());
+            catalog.append('}');
+        }
+        catalog.append("]}");
+        byte[] bytes = catalog.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        mCatalogJson = direct.asReadOnlyBuffer();
+    }
+
+    /**
+     * Reads the catalog and maps every flag image.
+     * @param catalogFile <code>Countries.json</code>.
+     * @param assetsDir The directory holding the flags, laid out as in the app's assets.
+     * @param similarityFile The look-alike data built for the app, or null to play every
+     * difficulty with random distractors.
+     * @return The loaded catalog.
+     * @throws IOException If the catalog or the look-alike data cannot be read.  A missing flag
+     * is only reported, its country is still played but has no image.
+     */
+    static Catalog load(File catalogFile, File assetsDir, File similarityFile) throws IOException {
+        List<Country> countries = CatalogReader.read(catalogFile);
+        FlagSimilarity similarity = null;
+        if (similarityFile != null) {
+            similarity = FlagSimilarity.read(ByteBuffer.wrap(Files.readAllBytes(similarityFile.toPath())));
+        }
+        ByteBuffer[] flags = new ByteBuffer[countries.size()];
+        for (Country country : countries) {
+            File file = new File(assetsDir, country.getFileName());
+            try {
+                flags[country.getId()] = map(file);
+            } catch (IOException e) {
+                System.err.println("No flag for " + country.getName() + ": " + e.getMessage());
+            }
+        }
+        return new Catalog(countries, similarity, flags);
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            // The mapping stays valid after the channel is closed
+            FileChannel channel = input.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * @return Every country, by id.
+     */
+    List<Country> getCountries() {
+        return mCountries;
+    }
+
+    /**
+     * @return The look-alike data, or null if none was loaded.
+     */
+    FlagSimilarity getSimilarity() {
+        return mSimilarity;
+    }
+
+    /**
+     * @param id A country id.
+     * @return The country's flag image (PNG) with its own position and limit, or null if it
+     * has none.
+     */
+    ByteBuffer getFlag(int id) {
+        ByteBuffer flag = mFlags[id];
+        return flag == null ? null : flag.duplicate();
+    }
+
+    /**
+     * @param id A country id.
+     * @return The country as a JSON object with its id and name.
+     */
+    String getCountryJson(int id) {
+        return mCountryJson[id];
+    }
+
+    /**
+     * @return Every country with its id, name and region, as one pre-encoded JSON document
+     * with its own position and limit.
+     */
+    ByteBuffer getCatalogJson() {
+        return mCatalogJson.duplicate();
+    }
+}
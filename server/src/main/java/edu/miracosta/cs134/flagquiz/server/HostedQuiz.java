@@ -0,0 +1,175 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import edu.miracosta.cs134.flagquiz.quiz.ChallengeCode;
+import edu.miracosta.cs134.flagquiz.quiz.Difficulty;
+import edu.miracosta.cs134.flagquiz.quiz.DistractorSampler;
+import edu.miracosta.cs134.flagquiz.quiz.FastRandom;
+import edu.miracosta.cs134.flagquiz.quiz.QuizGenerator;
+import edu.miracosta.cs134.flagquiz.quiz.QuizSession;
+
+/**
+ * One player's quiz on the server.  The generator and sampler permute their pools in place,
+ * so every quiz has its own, built over the shared {@link Catalog}; only the countries and
+ * look-alike data are shared.  A player's requests may arrive on different connections, so
+ * every method is synchronized.  A correct guess moves straight on to the next question,
+ * there is no pause to show the answer as in the app.
+ */
+final class HostedQuiz {
+
+    /** Questions per quiz, as in the app. */
+    static final int QUESTIONS = 10;
+    /** The most answer choices the app offers. */
+    static final int MAX_CHOICES = 12;
+
+    private final String mId;
+    private final Catalog mCatalog;
+    private final QuizSession mSession;
+    private volatile long mLastUsed = System.nanoTime();
+
+    /**
+     * Creates and starts a quiz.
+     * @param id The quiz's id in the API.
+     * @param catalog The shared catalog.
+     * @param region Region to quiz on, or {@link QuizGenerator#ALL_REGIONS}.
+     * @param choices Number of answer choices per question.
+     * @param difficulty How many of the wrong answers are look-alike flags.
+     * @param seed The quiz's seed, within {@link ChallengeCode#SEED_MASK}.
+     */
+    HostedQuiz(String id, Catalog catalog, String region, int choices, Difficulty difficulty, long seed) {
+        mId = id;
+        mCatalog = catalog;
+        QuizGenerator generator = new QuizGenerator(catalog.getCountries());
+        DistractorSampler sampler = new DistractorSampler(generator);
+        if (catalog.getSimilarity() != null) {
+            sampler.setSimilarity(catalog.getSimilarity());
+        }
+        mSession = new QuizSession(generator, sampler, new FastRandom(seed), MAX_CHOICES);
+        mSession.setSettings(region, choices, difficulty);
+        mSession.start(QUESTIONS, seed);
+    }
+
+    String getId() {
+        return mId;
+    }
+
+    /**
+     * @return True if no request has used the quiz for this long.
+     */
+    boolean isIdle(long timeout, TimeUnit unit) {
+        return System.nanoTime() - mLastUsed > unit.toNanos(timeout);
+    }
+
+    /**
+     * @return The flag of the current question, which starts its clock.
+     * @throws IllegalStateException If the quiz is over.
+     */
+    synchronized ByteBuffer getFlag() {
+        touch();
+        checkNotFinished();
+        mSession.markFlagShown(now());
+        return mCatalog.getFlag(mSession.getCorrectCountry().getId());
+    }
+
+    /**
+     * Guesses one of the answer choices.
+     * @param choice The index of the choice.
+     * @return The outcome and the quiz after it, as JSON.
+     * @throws IllegalArgumentException If there is no such choice.
+     * @throws IllegalStateException If the choice was already guessed or the quiz is over.
+     */
+    synchronized String guess(int choice) {
+        touch();
+        if (choice < 0 || choice >= mSession.getChoiceCount()) {
+            throw new IllegalArgumentException("No choice " + choice);
+        }
+        checkNotFinished();
+        if (!mSession.isChoiceEnabled(choice)) {
+            throw new IllegalStateException("Choice " + choice + " was already guessed");
+        }
+        return toJson(mSession.guess(choice, now()));
+    }
+
+    /**
+     * Guesses a country by id, as a typed answer does.
+     * @param countryId The id of the country.
+     * @return The outcome and the quiz after it, as JSON.
+     * @throws IllegalArgumentException If there is no such country.
+     * @throws IllegalStateException If the quiz is over.
+     */
+    synchronized String guessCountry(int countryId) {
+        touch();
+        if (countryId < 0 || countryId >= mCatalog.getCountries().size()) {
+            throw new IllegalArgumentException("No country " + countryId);
+        }
+        checkNotFinished();
+        return toJson(mSession.guessCountry(countryId, now()));
+    }
+
+    /**
+     * @return The quiz as JSON.
+     */
+    synchronized String toJson() {
+        touch();
+        return toJson(null);
+    }
+
+    /**
+     * Describes the quiz: its settings, score and current question.  After a correct guess
+     * the quiz first moves on to the next question, the answer is reported alongside.
+     */
+    private String toJson(QuizSession.Guess guess) {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"quiz\":");
+        Json.quote(json, mId);
+        if (guess != null) {
+            json.append(",\"result\":").append(guess == QuizSession.Guess.CORRECT ? "\"correct\"" : "\"incorrect\"");
+            if (guess == QuizSession.Guess.CORRECT) {
+                json.append(",\"answer\":").append(mCatalog.getCountryJson(mSession.getCorrectCountry().getId()));
+                if (mSession.hasNextQuestion()) {
+                    mSession.nextQuestion();
+                }
+            }
+        }
+        ChallengeCode challenge = mSession.getChallengeCode();
+        if (challenge != null) {
+            json.append(",\"challenge\":");
+            Json.quote(json, challenge.toString());
+        }
+        json.append(",\"question\":").append(mSession.getQuestionNumber())
+                .append(",\"questions\":").append(mSession.getQuestionCount())
+                .append(",\"guesses\":").append(mSession.getTotalGuesses())
+                .append(",\"correct\":").append(mSession.getCorrectGuesses())
+                .append(",\"finished\":").append(mSession.isFinished());
+        if (!mSession.isFinished()) {
+            json.append(",\"flag\":\"/quizzes/").append(mId).append("/flag\",\"choices\":[");
+            for (int c = 0; c < mSession.getChoiceCount(); c++) {
+                if (c > 0) {
+                    json.append(',');
+                }
+                String country = mCatalog.getCountryJson(mSession.getChoice(c).getId());
+                json.append(country, 0, country.length() - 1)
+                        .append(",\"guessed\":").append(!mSession.isChoiceEnabled(c)).append('}');
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    private void checkNotFinished() {
+        // Only the last question stays answered, the others move on straight away
+        if (mSession.isAnswered()) {
+            throw new IllegalStateException("The quiz is over");
+        }
+    }
+
+    private void touch() {
+        mLastUsed = System.nanoTime();
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
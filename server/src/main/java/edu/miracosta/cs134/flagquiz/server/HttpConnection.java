@@ -0,0 +1,116 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the requests of one client connection, one after the other, with plain blocking
+ * reads and writes.  Each connection gets its own thread (a virtual one when the JVM has
+ * them, see {@link QuizServer}), so a slow client only ever holds up itself.  Connections
+ * are kept alive between requests unless the client asks otherwise.  Responses are written
+ * with one gathering write of the headers and the body, so a mapped flag goes from the page
+ * cache to the socket without being copied.
+ */
+final class HttpConnection implements Runnable {
+
+    private static final int BUFFER_SIZE = 4096;
+    private static final int MAX_HEADERS = 100;
+
+    private final SocketChannel mChannel;
+    private final QuizService mService;
+    private final ByteBuffer[] mWrite = new ByteBuffer[2];
+
+    HttpConnection(SocketChannel channel, QuizService service) {
+        mChannel = channel;
+        mService = service;
+    }
+
+    @Override
+    public void run() {
+        try {
+            HttpReader reader = new HttpReader(mChannel, BUFFER_SIZE);
+            boolean keepAlive = true;
+            while (keepAlive) {
+                String requestLine = reader.readLine();
+                if (requestLine == null) {
+                    return;
+                } else if (requestLine.isEmpty()) {
+                    continue; // stray line break between requests
+                }
+                String[] parts = requestLine.split(" ");
+                if (parts.length != 3 || !parts[2].startsWith("HTTP/1.")) {
+                    write(HttpResponse.error(400, "Malformed request line"), false);
+                    return;
+                }
+                keepAlive = !"HTTP/1.0".equals(parts[2]);
+
+                long contentLength = 0;
+                for (int headers = 0; ; headers++) {
+                    String header = reader.readLine();
+                    if (header == null || headers == MAX_HEADERS) {
+                        return;
+                    } else if (header.isEmpty()) {
+                        break;
+                    }
+                    String value = HttpReader.headerValue(header, "content-length");
+                    if (value != null) {
+                        contentLength = Long.parseLong(value);
+                    }
+                    value = HttpReader.headerValue(header, "connection");
+                    if (value != null) {
+                        keepAlive = value.equalsIgnoreCase("keep-alive")
+                                || keepAlive && !value.equalsIgnoreCase("close");
+                    }
+                }
+                // The API takes no bodies, but one must still be read past to reach the next request
+                reader.skip(contentLength);
+
+                HttpResponse response;
+                try {
+                    response = mService.handle(HttpRequest.parse(parts[0], parts[1]));
+                } catch (IllegalArgumentException e) {
+                    response = HttpResponse.error(400, e.getMessage());
+                } catch (RuntimeException e) {
+                    logError(requestLine, e);
+                    response = HttpResponse.error(500, "Internal error");
+                }
+                write(response, keepAlive);
+            }
+        } catch (IOException | NumberFormatException e) {
+            // The client went away or sent garbage, nothing to answer
+        } finally {
+            try {
+                mChannel.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    /**
+     * Reports a request the server failed on, one line on standard error like its other messages.
+     */
+    private static void logError(String requestLine, RuntimeException e) {
+        StackTraceElement[] trace = e.getStackTrace();
+        System.err.println("Internal error for \"" + requestLine + "\": " + e
+                + (trace.length > 0 ? " at " + trace[0] : ""));
+    }
+
+    private void write(HttpResponse response, boolean keepAlive) throws IOException {
+        ByteBuffer body = response.getBody();
+        String head = "HTTP/1.1 " + response.getStatus() + " " + HttpResponse.reason(response.getStatus())
+                + "\r\nContent-Type: " + response.getContentType()
+                + "\r\nContent-Length: " + body.remaining()
+                + (keepAlive ? "" : "\r\nConnection: close")
+                + "\r\n\r\n";
+        mWrite[0] = ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1));
+        mWrite[1] = body;
+        while (body.hasRemaining() || mWrite[0].hasRemaining()) {
+            mChannel.write(mWrite);
+        }
+        mWrite[0] = null;
+        mWrite[1] = null;
+    }
+}
@@ -0,0 +1,121 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Buffered reading of HTTP/1.1 messages from a blocking channel: header lines, then a body of
+ * a known length.  Used by the server for requests and by the load generator for responses.
+ * Bytes past the end of one message stay buffered for the next one on the same connection.
+ */
+final class HttpReader {
+
+    /** The longest request or status line, or header, that is accepted. */
+    static final int MAX_LINE = 8192;
+
+    private final ReadableByteChannel mChannel;
+    private final ByteBuffer mBuffer;
+    private final StringBuilder mLine = new StringBuilder(128);
+
+    /**
+     * @param channel A channel in blocking mode.
+     * @param bufferSize How many bytes to read from it at a time.
+     */
+    HttpReader(ReadableByteChannel channel, int bufferSize) {
+        mChannel = channel;
+        mBuffer = ByteBuffer.allocate(bufferSize);
+        mBuffer.flip();
+    }
+
+    /**
+     * Reads a line of ISO-8859-1 text, as headers are.
+     * @return The line without its line break, or null if the connection was closed before
+     * the line began.
+     * @throws IOException If reading fails, or the connection is closed mid-line or the line is
+     * longer than {@link #MAX_LINE}.
+     */
+    String readLine() throws IOException {
+        mLine.setLength(0);
+        while (true) {
+            while (mBuffer.hasRemaining()) {
+                char c = (char) (mBuffer.get() & 0xff);
+                if (c == '\n') {
+                    int length = mLine.length();
+                    if (length > 0 && mLine.charAt(length - 1) == '\r') {
+                        mLine.setLength(length - 1);
+                    }
+                    return mLine.toString();
+                }
+                if (mLine.length() == MAX_LINE) {
+                    throw new IOException("Line longer than " + MAX_LINE + " bytes");
+                }
+                mLine.append(c);
+            }
+            if (!fill()) {
+                if (mLine.length() == 0) {
+                    return null;
+                }
+                throw new EOFException("Connection closed mid-line");
+            }
+        }
+    }
+
+    /**
+     * Reads exactly as many bytes as the destination has room for.
+     * @param destination Where to put them.
+     * @throws IOException If reading fails or the connection is closed first.
+     */
+    void readFully(ByteBuffer destination) throws IOException {
+        while (destination.hasRemaining()) {
+            if (!mBuffer.hasRemaining() && !fill()) {
+                throw new EOFException("Connection closed mid-body");
+            }
+            int count = Math.min(mBuffer.remaining(), destination.remaining());
+            int limit = mBuffer.limit();
+            mBuffer.limit(mBuffer.position() + count);
+            destination.put(mBuffer);
+            mBuffer.limit(limit);
+        }
+    }
+
+    /**
+     * Reads and drops a number of bytes.
+     * @throws IOException If reading fails or the connection is closed first.
+     */
+    void skip(long count) throws IOException {
+        while (count > 0) {
+            if (!mBuffer.hasRemaining() && !fill()) {
+                throw new EOFException("Connection closed mid-body");
+            }
+            int skipped = (int) Math.min(mBuffer.remaining(), count);
+            mBuffer.position(mBuffer.position() + skipped);
+            count -= skipped;
+        }
+    }
+
+    /**
+     * @return False at the end of the stream.
+     */
+    private boolean fill() throws IOException {
+        mBuffer.clear();
+        int read = mChannel.read(mBuffer);
+        mBuffer.flip();
+        return read > 0;
+    }
+
+    /**
+     * @param header A header line.
+     * @param name A header name, in lower case.
+     * @return The header's value if it has that name (names are case-insensitive), else null.
+     */
+    static String headerValue(String header, String name) {
+        int length = name.length();
+        if (header.length() > length && header.charAt(length) == ':'
+                && header.regionMatches(true, 0, name, 0, length)) {
+            return header.substring(length + 1).trim();
+        }
+        return null;
+    }
+}
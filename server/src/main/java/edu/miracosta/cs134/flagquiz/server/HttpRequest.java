@@ -0,0 +1,72 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The parts of an HTTP request the quiz API looks at: the method, the path and the query
+ * parameters.  Requests carry no body, every input is a query parameter.
+ */
+final class HttpRequest {
+
+    private final String mMethod;
+    private final String mPath;
+    private final Map<String, String> mParameters;
+
+    HttpRequest(String method, String path, Map<String, String> parameters) {
+        mMethod = method;
+        mPath = path;
+        mParameters = parameters;
+    }
+
+    /**
+     * Parses the target of a request line.
+     * @param method The request method.
+     * @param target The path, optionally followed by <code>?</code> and URL-encoded parameters.
+     * @return The request.
+     * @throws IllegalArgumentException If the parameters are not validly encoded.
+     */
+    static HttpRequest parse(String method, String target) {
+        int question = target.indexOf('?');
+        if (question < 0) {
+            return new HttpRequest(method, target, Collections.<String, String>emptyMap());
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : target.substring(question + 1).split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(decode(name), decode(value));
+        }
+        return new HttpRequest(method, target.substring(0, question), parameters);
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    String getMethod() {
+        return mMethod;
+    }
+
+    String getPath() {
+        return mPath;
+    }
+
+    /**
+     * @return The value of a query parameter, or null if it is not given.
+     */
+    String getParameter(String name) {
+        return mParameters.get(name);
+    }
+}
@@ -0,0 +1,78 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A status, a content type and a body, written by {@link HttpConnection}.
+ */
+final class HttpResponse {
+
+    static final String JSON = "application/json; charset=utf-8";
+    static final String PNG = "image/png";
+
+    private final int mStatus;
+    private final String mContentType;
+    private final ByteBuffer mBody;
+
+    /**
+     * @param status The HTTP status code.
+     * @param contentType The media type of the body.
+     * @param body The body, from its position to its limit.  It is consumed when written.
+     */
+    HttpResponse(int status, String contentType, ByteBuffer body) {
+        mStatus = status;
+        mContentType = contentType;
+        mBody = body;
+    }
+
+    /**
+     * @return A response with a JSON body.
+     */
+    static HttpResponse json(int status, String json) {
+        return new HttpResponse(status, JSON, ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return A response with a JSON error message.
+     */
+    static HttpResponse error(int status, String message) {
+        return json(status, Json.error(message));
+    }
+
+    int getStatus() {
+        return mStatus;
+    }
+
+    String getContentType() {
+        return mContentType;
+    }
+
+    ByteBuffer getBody() {
+        return mBody;
+    }
+
+    /**
+     * @return The reason phrase for the status codes the server uses.
+     */
+    static String reason(int status) {
+        switch (status) {
+            case 200:
+                return "OK";
+            case 201:
+                return "Created";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            case 409:
+                return "Conflict";
+            case 503:
+                return "Service Unavailable";
+            default:
+                return "Internal Server Error";
+        }
+    }
+}
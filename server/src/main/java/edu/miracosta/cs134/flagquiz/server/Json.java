@@ -0,0 +1,42 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+/**
+ * The little JSON writing the server needs.  Responses are small and their shape is fixed,
+ * so they are built with a <code>StringBuilder</code> rather than through an object model.
+ */
+final class Json {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Json() {
+    }
+
+    /**
+     * Appends a string as a JSON string literal, escaping quotes, backslashes and control
+     * characters.  Other characters are kept as they are, the response is sent as UTF-8.
+     */
+    static void quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * @return A JSON object with a single <code>error</code> message.
+     */
+    static String error(String message) {
+        StringBuilder out = new StringBuilder(message.length() + 16);
+        out.append("{\"error\":");
+        quote(out, message);
+        return out.append('}').toString();
+    }
+}
@@ -0,0 +1,346 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.miracosta.cs134.flagquiz.metrics.Histogram;
+import edu.miracosta.cs134.flagquiz.quiz.FastRandom;
+
+/**
+ * Plays quizzes against a {@link QuizServer} with many simulated players at once and reports
+ * the latency percentiles of each kind of request and the overall requests per second.  Each
+ * player keeps one connection open and loops: start a quiz, then for every question fetch the
+ * flag, optionally think, and guess untried choices at random until one is right.  Players
+ * wait for each answer before sending their next request, so the request rate is whatever
+ * the server sustains for that many players.  Without <code>--host</code> a server is started
+ * in the same JVM on a free port.  Latencies are only recorded after the warm-up, once the
+ * JIT has compiled both sides.
+ */
+public final class LoadGenerator {
+
+    private static final String USAGE = "Usage: loadTest [--players N] [--duration S] [--warmup S]"
+            + " [--think MS] [--choices N] [--host HOST] [--port N] [--catalog FILE] [--assets DIR]"
+            + " [--similarity FILE]";
+
+    /** The kinds of request, each with its own latency histogram. */
+    private enum Call {
+        CREATE("POST /quizzes"),
+        FLAG("GET flag"),
+        GUESS("POST guess"),
+        END("DELETE quiz");
+
+        final String mLabel;
+
+        Call(String label) {
+            mLabel = label;
+        }
+    }
+
+    private final InetSocketAddress mAddress;
+    private final int mChoices;
+    private final long mThinkMillis;
+    private final Histogram[] mLatencies = new Histogram[Call.values().length];
+    private final AtomicLong mQuizzesFinished = new AtomicLong();
+    private final AtomicLong mErrors = new AtomicLong();
+    private volatile boolean mMeasuring;
+    private volatile boolean mRunning = true;
+
+    LoadGenerator(InetSocketAddress address, int choices, long thinkMillis) {
+        mAddress = address;
+        mChoices = choices;
+        mThinkMillis = thinkMillis;
+        for (int i = 0; i < mLatencies.length; i++) {
+            mLatencies[i] = new Histogram();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int players = 2000;
+        long durationSeconds = 20;
+        long warmupSeconds = 5;
+        long thinkMillis = 0;
+        int choices = 4;
+        String host = null;
+        int port = 8080;
+        File catalogFile = new File("../app/src/main/assets/Countries.json");
+        File assets = new File("../app/src/main/assets");
+        File similarity = null;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--players":
+                        players = Integer.parseInt(value);
+                        break;
+                    case "--duration":
+                        durationSeconds = Long.parseLong(value);
+                        break;
+                    case "--warmup":
+                        warmupSeconds = Long.parseLong(value);
+                        break;
+                    case "--think":
+                        thinkMillis = Long.parseLong(value);
+                        break;
+                    case "--choices":
+                        choices = Integer.parseInt(value);
+                        break;
+                    case "--host":
+                        host = value;
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(value);
+                        break;
+                    case "--catalog":
+                        catalogFile = new File(value);
+                        break;
+                    case "--assets":
+                        assets = new File(value);
+                        break;
+                    case "--similarity":
+                        similarity = new File(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        QuizServer server = null;
+        InetSocketAddress address;
+        if (host == null) {
+            server = new QuizServer(Catalog.load(catalogFile, assets, similarity), Integer.MAX_VALUE, 30);
+            address = new InetSocketAddress("127.0.0.1", server.start(new InetSocketAddress("127.0.0.1", 0)));
+            System.out.printf("Embedded server on port %d with %s threads%n", address.getPort(),
+                    server.usesVirtualThreads() ? "virtual" : "platform");
+        } else {
+            address = new InetSocketAddress(host, port);
+        }
+        try {
+            new LoadGenerator(address, choices, thinkMillis).run(players, warmupSeconds, durationSeconds);
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    void run(int players, long warmupSeconds, long durationSeconds) throws InterruptedException {
+        ExecutorService threads = QuizServer.newThreadPerTaskExecutor("LoadGenerator-player");
+        boolean virtual = threads != null;
+        if (threads == null) {
+            threads = Executors.newCachedThreadPool(QuizServer.daemonThreads("LoadGenerator-player"));
+        }
+        for (int i = 0; i < players; i++) {
+            final long seed = i;
+            threads.execute(new Runnable() {
+                @Override
+                public void run() {
+                    play(seed);
+                }
+            });
+        }
+        System.out.printf("%d players on %s threads, warming up for %d s%n", players,
+                virtual ? "virtual" : "platform", warmupSeconds);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+
+        mMeasuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        mMeasuring = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        mRunning = false;
+        threads.shutdown();
+        threads.awaitTermination(10, TimeUnit.SECONDS);
+        report(players, seconds);
+    }
+
+    /**
+     * @return The requests answered during the measured part of the run.
+     */
+    long getRequests() {
+        long requests = 0;
+        for (Histogram latencies : mLatencies) {
+            requests += latencies.getCount();
+        }
+        return requests;
+    }
+
+    /**
+     * @return The players that stopped because a request failed.
+     */
+    long getErrors() {
+        return mErrors.get();
+    }
+
+    /**
+     * One player's loop, until the run ends or its connection fails.
+     */
+    private void play(long seed) {
+        FastRandom rng = new FastRandom(seed);
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open(mAddress);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Client client = new Client(channel);
+            while (mRunning) {
+                JsonObject quiz = client.call(Call.CREATE, "POST", "/quizzes?choices=" + mChoices, 201);
+                String id = quiz.get("quiz").getAsString();
+                int question = 0;
+                while (mRunning && !quiz.get("finished").getAsBoolean()) {
+                    if (quiz.get("question").getAsInt() != question) {
+                        question = quiz.get("question").getAsInt();
+                        client.call(Call.FLAG, "GET", "/quizzes/" + id + "/flag", 200);
+                    }
+                    if (mThinkMillis > 0) {
+                        Thread.sleep(mThinkMillis);
+                    }
+                    JsonArray choices = quiz.getAsJsonArray("choices");
+                    int left = 0;
+                    for (int c = 0; c < choices.size(); c++) {
+                        if (!choices.get(c).getAsJsonObject().get("guessed").getAsBoolean()) {
+                            left++;
+                        }
+                    }
+                    int skip = rng.nextInt(left);
+                    int choice = 0;
+                    while (choices.get(choice).getAsJsonObject().get("guessed").getAsBoolean() || skip-- > 0) {
+                        choice++;
+                    }
+                    quiz = client.call(Call.GUESS, "POST", "/quizzes/" + id + "/guess?choice=" + choice, 200);
+                }
+                if (mMeasuring && quiz.get("finished").getAsBoolean()) {
+                    mQuizzesFinished.incrementAndGet();
+                }
+                client.call(Call.END, "DELETE", "/quizzes/" + id, 200);
+            }
+        } catch (IOException | RuntimeException e) {
+            mErrors.incrementAndGet();
+            if (mRunning) {
+                System.err.println("Player " + seed + " stopped: " + e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Already closed
+                }
+            }
+        }
+    }
+
+    private void report(int players, double seconds) {
+        Histogram all = new Histogram();
+        System.out.printf(Locale.US, "%-14s %10s %9s %9s %9s %9s %9s%n", "request", "count",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Call call : Call.values()) {
+            Histogram latencies = mLatencies[call.ordinal()];
+            print(call.mLabel, latencies, seconds);
+            all.add(latencies);
+        }
+        print("all", all, seconds);
+        System.out.printf(Locale.US, "%d players, %.1f s: %.0f requests/s, %.0f quizzes/s, %d errors%n",
+                players, seconds, all.getCount() / seconds, mQuizzesFinished.get() / seconds, mErrors.get());
+    }
+
+    private static void print(String label, Histogram latencies, double seconds) {
+        System.out.printf(Locale.US, "%-14s %10d %9.0f %9.3f %9.3f %9.3f %9.3f%n", label,
+                latencies.getCount(), latencies.getCount() / seconds,
+                latencies.getPercentile(0.5) / 1e6, latencies.getPercentile(0.9) / 1e6,
+                latencies.getPercentile(0.99) / 1e6, latencies.getMax() / 1e6);
+    }
+
+    /**
+     * Sends requests over one keep-alive connection and reads their responses.
+     */
+    private final class Client {
+        private final SocketChannel mChannel;
+        private final HttpReader mReader;
+        private ByteBuffer mBody = ByteBuffer.allocate(16 * 1024);
+
+        Client(SocketChannel channel) {
+            mChannel = channel;
+            mReader = new HttpReader(channel, 16 * 1024);
+        }
+
+        /**
+         * Makes a request and records its latency.
+         * @return The response parsed as a JSON object, or null if it is not JSON.
+         * @throws IOException If the connection fails or the status is not the expected one.
+         */
+        JsonObject call(Call call, String method, String target, int expectedStatus) throws IOException {
+            String request = method + " " + target + " HTTP/1.1\r\nHost: " + mAddress.getHostString()
+                    + "\r\nContent-Length: 0\r\n\r\n";
+            ByteBuffer out = ByteBuffer.wrap(request.getBytes(StandardCharsets.ISO_8859_1));
+            long start = System.nanoTime();
+            while (out.hasRemaining()) {
+                mChannel.write(out);
+            }
+
+            String statusLine = mReader.readLine();
+            if (statusLine == null) {
+                throw new IOException("Connection closed by the server");
+            }
+            int contentLength = 0;
+            boolean json = false;
+            String header;
+            while (!(header = readHeader()).isEmpty()) {
+                String value = HttpReader.headerValue(header, "content-length");
+                if (value != null) {
+                    contentLength = Integer.parseInt(value);
+                }
+                value = HttpReader.headerValue(header, "content-type");
+                if (value != null) {
+                    json = value.startsWith("application/json");
+                }
+            }
+            if (mBody.capacity() < contentLength) {
+                mBody = ByteBuffer.allocate(Integer.highestOneBit(contentLength) << 1);
+            }
+            mBody.clear().limit(contentLength);
+            mReader.readFully(mBody);
+            if (mMeasuring) {
+                mLatencies[call.ordinal()].record(System.nanoTime() - start);
+            }
+
+            String body = json ? new String(mBody.array(), 0, contentLength, StandardCharsets.UTF_8) : null;
+            if (!statusLine.startsWith("HTTP/1.1 " + expectedStatus + " ")) {
+                throw new IOException(statusLine + (body != null ? " " + body : ""));
+            }
+            return body != null ? JsonParser.parseString(body).getAsJsonObject() : null;
+        }
+
+        private String readHeader() throws IOException {
+            String header = mReader.readLine();
+            if (header == null) {
+                throw new IOException("Connection closed mid-response");
+            }
+            return header;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the {@link QuizService quiz API} over HTTP to many players at once.  One thread
+ * accepts connections and hands each one to its own thread from {@link #newThreadPerTaskExecutor}:
+ * a virtual thread when the JVM has them (Java 21 or later), so thousands of mostly idle
+ * players cost little more than their sockets, and a platform thread otherwise.  The module
+ * is compiled for Java 8 like the rest of the build, so virtual threads are looked up at run
+ * time rather than linked.  The {@link Catalog} is loaded once and shared by every request.
+ */
+public final class QuizServer {
+
+    private static final String USAGE = "Usage: server [--port N] [--catalog FILE] [--assets DIR]"
+            + " [--similarity FILE] [--max-quizzes N] [--idle-minutes N]";
+
+    private final QuizService mService;
+    private final long mIdleMinutes;
+    private ServerSocketChannel mServerChannel;
+    private ExecutorService mConnections;
+    private ScheduledExecutorService mExpiry;
+    private boolean mVirtualThreads;
+
+    /**
+     * @param catalog The catalog to play on.
+     * @param maxQuizzes The most quizzes in progress at once.
+     * @param idleMinutes How long a quiz is kept without any request.
+     */
+    QuizServer(Catalog catalog, int maxQuizzes, long idleMinutes) {
+        mService = new QuizService(catalog, maxQuizzes);
+        mIdleMinutes = idleMinutes;
+    }
+
+    /**
+     * Starts accepting connections.
+     * @param address Where to listen, port 0 for any free port.
+     * @return The port listened on.
+     * @throws IOException If the address cannot be bound.
+     */
+    synchronized int start(InetSocketAddress address) throws IOException {
+        mServerChannel = ServerSocketChannel.open();
+        mServerChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        mServerChannel.bind(address, 1024);
+        mVirtualThreads = true;
+        mConnections = newThreadPerTaskExecutor("QuizServer-connection");
+        if (mConnections == null) {
+            mVirtualThreads = false;
+            mConnections = Executors.newCachedThreadPool(daemonThreads("QuizServer-connection"));
+        }
+        mExpiry = Executors.newSingleThreadScheduledExecutor(daemonThreads("QuizServer-expiry"));
+        mExpiry.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                mService.expireIdle(mIdleMinutes, TimeUnit.MINUTES);
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+
+        final ServerSocketChannel serverChannel = mServerChannel;
+        final ExecutorService connections = mConnections;
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept(serverChannel, connections);
+            }
+        }, "QuizServer-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return ((InetSocketAddress) mServerChannel.getLocalAddress()).getPort();
+    }
+
+    private void accept(ServerSocketChannel serverChannel, ExecutorService connections) {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (ClosedChannelException e) {
+                return; // stopped
+            } catch (IOException e) {
+                System.err.println("Accept failed: " + e.getMessage());
+                continue;
+            }
+            try {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connections.execute(new HttpConnection(channel, mService));
+            } catch (IOException | RejectedExecutionException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Nothing more to do for this connection
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes the ones being served.
+     */
+    synchronized void stop() throws IOException {
+        if (mServerChannel != null) {
+            mServerChannel.close();
+            mConnections.shutdownNow();
+            mExpiry.shutdownNow();
+            mServerChannel = null;
+        }
+    }
+
+    /**
+     * @return True if connections are served on virtual threads.
+     */
+    synchronized boolean usesVirtualThreads() {
+        return mVirtualThreads;
+    }
+
+    QuizService getService() {
+        return mService;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task, if the JVM has
+     * virtual threads.
+     * @param name Name given to the threads.
+     * @return The executor, or null before Java 21.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String name) {
+        try {
+            // Thread.ofVirtual().name(name).factory(), then Executors.newThreadPerTaskExecutor
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class).invoke(builder, name);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method executor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) executor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return A factory of daemon platform threads, so a running server does not keep the
+     * JVM alive on its own.
+     */
+    static ThreadFactory daemonThreads(final String name) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = 8080;
+        File catalogFile = new File("../app/src/main/assets/Countries.json");
+        File assets = new File("../app/src/main/assets");
+        File similarity = null;
+        int maxQuizzes = 100000;
+        long idleMinutes = 30;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(value);
+                        break;
+                    case "--catalog":
+                        catalogFile = new File(value);
+                        break;
+                    case "--assets":
+                        assets = new File(value);
+                        break;
+                    case "--similarity":
+                        similarity = new File(value);
+                        break;
+                    case "--max-quizzes":
+                        maxQuizzes = Integer.parseInt(value);
+                        break;
+                    case "--idle-minutes":
+                        idleMinutes = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Catalog catalog = Catalog.load(catalogFile, assets, similarity);
+        QuizServer server = new QuizServer(catalog, maxQuizzes, idleMinutes);
+        int boundPort = server.start(new InetSocketAddress(port));
+        System.out.printf("Loaded %d countries in %d ms, serving on port %d with %s threads%n",
+                catalog.getCountries().size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                boundPort, server.usesVirtualThreads() ? "virtual" : "platform");
+        // The server's threads are daemons, park here until the process is killed
+        Thread.currentThread().join();
+    }
+}
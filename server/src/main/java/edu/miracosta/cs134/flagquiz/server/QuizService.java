@@ -0,0 +1,199 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import edu.miracosta.cs134.flagquiz.model.Region;
+import edu.miracosta.cs134.flagquiz.quiz.ChallengeCode;
+import edu.miracosta.cs134.flagquiz.quiz.Difficulty;
+import edu.miracosta.cs134.flagquiz.quiz.QuizGenerator;
+
+/**
+ * The quiz API, independent of how requests arrive.  Every input is a query parameter and
+ * every answer is JSON, except for flag images:
+ * <ul>
+ *     <li><code>GET /catalog</code>: every country with its id, name and region;</li>
+ *     <li><code>POST /quizzes?region=&amp;choices=&amp;difficulty=</code>, or
+ *     <code>POST /quizzes?challenge=CODE</code> to replay a shared quiz: starts a quiz
+ *     (all regions, 4 choices and easy by default) and describes its first question;</li>
+ *     <li><code>GET /quizzes/{id}</code>: the quiz's score and current question;</li>
+ *     <li><code>GET /quizzes/{id}/flag</code>: the PNG flag of the current question, which
+ *     starts its clock (flags are not addressed by country, or the URL would give the answer
+ *     away);</li>
+ *     <li><code>POST /quizzes/{id}/guess?choice=N</code>, or <code>?country=ID</code> for a
+ *     typed answer: the outcome and, after a correct guess, the next question;</li>
+ *     <li><code>DELETE /quizzes/{id}</code>: ends the quiz and gives its final score.</li>
+ * </ul>
+ * Quizzes live in a concurrent map, each one locked on its own, so players never wait for
+ * each other.  Quizzes no one has used for a while are dropped by {@link #expireIdle}.
+ */
+final class QuizService {
+
+    private static final String QUIZZES = "/quizzes";
+
+    private final Catalog mCatalog;
+    private final int mMaxQuizzes;
+    private final ConcurrentMap<String, HostedQuiz> mQuizzes = new ConcurrentHashMap<>();
+    private final SecureRandom mIds = new SecureRandom();
+
+    /**
+     * @param catalog The catalog every quiz is played on.
+     * @param maxQuizzes The most quizzes kept at once, new ones are refused past that.
+     */
+    QuizService(Catalog catalog, int maxQuizzes) {
+        mCatalog = catalog;
+        mMaxQuizzes = maxQuizzes;
+    }
+
+    /**
+     * Answers a request.
+     * @param request The request.
+     * @return The response.
+     * @throws IllegalArgumentException If a parameter is invalid.
+     */
+    HttpResponse handle(HttpRequest request) {
+        String method = request.getMethod();
+        String path = request.getPath();
+        if ("/catalog".equals(path)) {
+            return "GET".equals(method) ? new HttpResponse(200, HttpResponse.JSON, mCatalog.getCatalogJson())
+                    : notAllowed(method, path);
+        } else if (QUIZZES.equals(path)) {
+            return "POST".equals(method) ? create(request) : notAllowed(method, path);
+        } else if (!path.startsWith(QUIZZES + "/")) {
+            return HttpResponse.error(404, "No such resource " + path);
+        }
+
+        int slash = path.indexOf('/', QUIZZES.length() + 1);
+        String id = path.substring(QUIZZES.length() + 1, slash < 0 ? path.length() : slash);
+        String action = slash < 0 ? "" : path.substring(slash);
+        HostedQuiz quiz = mQuizzes.get(id);
+        if (quiz == null) {
+            return HttpResponse.error(404, "No quiz " + id);
+        }
+        try {
+            if (action.isEmpty() && "GET".equals(method)) {
+                return HttpResponse.json(200, quiz.toJson());
+            } else if (action.isEmpty() && "DELETE".equals(method)) {
+                mQuizzes.remove(id, quiz);
+                return HttpResponse.json(200, quiz.toJson());
+            } else if ("/flag".equals(action) && "GET".equals(method)) {
+                ByteBuffer flag = quiz.getFlag();
+                return flag == null ? HttpResponse.error(404, "This flag is missing")
+                        : new HttpResponse(200, HttpResponse.PNG, flag);
+            } else if ("/guess".equals(action) && "POST".equals(method)) {
+                String choice = request.getParameter("choice");
+                String country = request.getParameter("country");
+                if (choice != null) {
+                    return HttpResponse.json(200, quiz.guess(parseInt("choice", choice)));
+                } else if (country != null) {
+                    return HttpResponse.json(200, quiz.guessCountry(parseInt("country", country)));
+                }
+                throw new IllegalArgumentException("A guess needs a choice or a country");
+            } else if ("/flag".equals(action) || "/guess".equals(action) || action.isEmpty()) {
+                return notAllowed(method, path);
+            }
+            return HttpResponse.error(404, "No such resource " + path);
+        } catch (IllegalStateException e) {
+            return HttpResponse.error(409, e.getMessage());
+        }
+    }
+
+    private HttpResponse create(HttpRequest request) {
+        String region = QuizGenerator.ALL_REGIONS;
+        int choices = 4;
+        Difficulty difficulty = Difficulty.EASY;
+        long seed;
+
+        String code = request.getParameter("challenge");
+        if (code != null) {
+            ChallengeCode challenge = ChallengeCode.parse(code);
+            if (challenge == null) {
+                throw new IllegalArgumentException("Invalid challenge code " + code);
+            }
+            region = challenge.getRegion();
+            choices = challenge.getChoices();
+            difficulty = challenge.getDifficulty();
+            seed = challenge.getSeed();
+        } else {
+            String value = request.getParameter("region");
+            if (value != null) {
+                if (!QuizGenerator.ALL_REGIONS.equals(value) && Region.find(value) == null) {
+                    throw new IllegalArgumentException("Unknown region " + value);
+                }
+                region = value;
+            }
+            value = request.getParameter("choices");
+            if (value != null) {
+                choices = parseInt("choices", value);
+                if (choices < 2 || choices > HostedQuiz.MAX_CHOICES) {
+                    throw new IllegalArgumentException("Choices must be between 2 and "
+                            + HostedQuiz.MAX_CHOICES + ": " + choices);
+                }
+            }
+            value = request.getParameter("difficulty");
+            if (value != null) {
+                difficulty = parseDifficulty(value);
+            }
+            seed = mIds.nextLong() & ChallengeCode.SEED_MASK;
+        }
+
+        if (mQuizzes.size() >= mMaxQuizzes) {
+            return HttpResponse.error(503, "Too many quizzes in progress");
+        }
+        String id;
+        HostedQuiz quiz;
+        do {
+            id = String.format(Locale.US, "%016x", mIds.nextLong());
+            quiz = new HostedQuiz(id, mCatalog, region, choices, difficulty, seed);
+        } while (mQuizzes.putIfAbsent(id, quiz) != null);
+        return HttpResponse.json(201, quiz.toJson());
+    }
+
+    /**
+     * Drops the quizzes no request has used for a while.
+     * @return The number of quizzes dropped.
+     */
+    int expireIdle(long timeout, TimeUnit unit) {
+        int expired = 0;
+        for (Iterator<HostedQuiz> it = mQuizzes.values().iterator(); it.hasNext(); ) {
+            if (it.next().isIdle(timeout, unit)) {
+                it.remove();
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return The number of quizzes in progress.
+     */
+    int getQuizCount() {
+        return mQuizzes.size();
+    }
+
+    private static HttpResponse notAllowed(String method, String path) {
+        return HttpResponse.error(405, method + " is not supported on " + path);
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " " + value);
+        }
+    }
+
+    private static Difficulty parseDifficulty(String value) {
+        for (Difficulty difficulty : Difficulty.values()) {
+            if (difficulty.name().equalsIgnoreCase(value)) {
+                return difficulty;
+            }
+        }
+        throw new IllegalArgumentException("Unknown difficulty " + value);
+    }
+}
@@ -0,0 +1,90 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link QuizServer}, over real sockets.
+ */
+public class QuizServerTest {
+
+    private static void send(SocketChannel channel, String request) throws IOException {
+        ByteBuffer out = ByteBuffer.wrap(request.getBytes(StandardCharsets.ISO_8859_1));
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    /**
+     * @return The status line, after reading past the rest of the response.
+     */
+    private static String receive(HttpReader reader, ByteBuffer body) throws IOException {
+        String status = reader.readLine();
+        int length = 0;
+        String header;
+        while (!(header = reader.readLine()).isEmpty()) {
+            String value = HttpReader.headerValue(header, "content-length");
+            if (value != null) {
+                length = Integer.parseInt(value);
+            }
+        }
+        body.clear().limit(length);
+        reader.readFully(body);
+        body.flip();
+        return status;
+    }
+
+    @Test
+    public void connection_servesSeveralRequests() throws IOException {
+        QuizServer server = new QuizServer(QuizServiceTest.catalog(), 100, 1);
+        int port = server.start(new InetSocketAddress("127.0.0.1", 0));
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+        try {
+            HttpReader reader = new HttpReader(channel, 64);
+            ByteBuffer body = ByteBuffer.allocate(16 * 1024);
+
+            // Pipelined, with a body to skip and mixed-case headers
+            send(channel, "POST /quizzes?choices=2 HTTP/1.1\r\nCONTENT-LENGTH: 5\r\n\r\nhello"
+                    + "GET /catalog HTTP/1.1\r\nHost: test\r\n\r\n");
+            assertEquals("HTTP/1.1 201 Created", receive(reader, body));
+            String quiz = StandardCharsets.UTF_8.decode(body).toString();
+            String id = quiz.substring(9, 25);
+            assertEquals("{\"quiz\":\"" + id + "\"", quiz.substring(0, 26));
+            assertEquals("HTTP/1.1 200 OK", receive(reader, body));
+            assertEquals(QuizServiceTest.catalog().getCatalogJson(), body);
+
+            send(channel, "GET /quizzes/" + id + "/flag HTTP/1.1\r\n\r\n");
+            assertEquals("HTTP/1.1 200 OK", receive(reader, body));
+            assertEquals(4, body.remaining());
+            send(channel, "GET /quizzes?choices=x HTTP/1.1\r\n\r\n");
+            assertEquals("HTTP/1.1 405 Method Not Allowed", receive(reader, body));
+            send(channel, "POST /quizzes?choices=x HTTP/1.1\r\nConnection: close\r\n\r\n");
+            assertEquals("HTTP/1.1 400 Bad Request", receive(reader, body));
+            assertNull(reader.readLine());
+        } finally {
+            channel.close();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void loadGenerator_playsWithoutErrors() throws Exception {
+        QuizServer server = new QuizServer(QuizServiceTest.catalog(), 1000, 1);
+        int port = server.start(new InetSocketAddress("127.0.0.1", 0));
+        try {
+            LoadGenerator generator = new LoadGenerator(new InetSocketAddress("127.0.0.1", port), 4, 0);
+            generator.run(50, 0, 1);
+            assertEquals(0, generator.getErrors());
+            assertTrue(generator.getRequests() > 100);
+        } finally {
+            server.stop();
+        }
+    }
+}
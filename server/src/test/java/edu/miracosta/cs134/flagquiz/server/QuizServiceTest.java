@@ -0,0 +1,151 @@
+package edu.miracosta.cs134.flagquiz.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link QuizService}.
+ */
+public class QuizServiceTest {
+
+    static Catalog catalog() {
+        List<Country> countries = new ArrayList<>();
+        for (Region region : Region.values()) {
+            for (int i = 0; i < 12; i++) {
+                countries.add(new Country(countries.size(), region.getName() + " \"" + i + "\"", region));
+            }
+        }
+        // Each flag holds its country's id, so tests can tell which one was served
+        ByteBuffer[] flags = new ByteBuffer[countries.size()];
+        for (int id = 0; id < flags.length; id++) {
+            flags[id] = ByteBuffer.allocateDirect(4).putInt(0, id).asReadOnlyBuffer();
+        }
+        return new Catalog(countries, null, flags);
+    }
+
+    private static JsonObject json(HttpResponse response, int status) {
+        assertEquals(status, response.getStatus());
+        assertEquals(HttpResponse.JSON, response.getContentType());
+        ByteBuffer body = response.getBody();
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        return JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    private static HttpResponse call(QuizService service, String method, String target) {
+        return service.handle(HttpRequest.parse(method, target));
+    }
+
+    @Test
+    public void quiz_isPlayedToTheEnd() {
+        QuizService service = new QuizService(catalog(), 10);
+        JsonObject quiz = json(call(service, "POST", "/quizzes?region=North%20America&choices=3"), 201);
+        String id = quiz.get("quiz").getAsString();
+        Set<Integer> asked = new HashSet<>();
+        int guesses = 0;
+        for (int question = 1; question <= HostedQuiz.QUESTIONS; question++) {
+            assertEquals(question, quiz.get("question").getAsInt());
+            HttpResponse flag = call(service, "GET", "/quizzes/" + id + "/flag");
+            assertEquals(HttpResponse.PNG, flag.getContentType());
+            int answer = flag.getBody().getInt();
+            assertTrue(asked.add(answer));
+            assertEquals(Region.NORTH_AMERICA, catalog().getCountries().get(answer).getRegion());
+
+            // Guess every wrong choice first
+            JsonArray choices = quiz.getAsJsonArray("choices");
+            assertEquals(3, choices.size());
+            for (int c = 0; c < choices.size(); c++) {
+                if (choices.get(c).getAsJsonObject().get("id").getAsInt() != answer) {
+                    JsonObject result = json(call(service, "POST", "/quizzes/" + id + "/guess?choice=" + c), 200);
+                    assertEquals("incorrect", result.get("result").getAsString());
+                    assertTrue(result.getAsJsonArray("choices").get(c).getAsJsonObject().get("guessed").getAsBoolean());
+                    assertEquals(409, call(service, "POST", "/quizzes/" + id + "/guess?choice=" + c).getStatus());
+                    guesses++;
+                }
+            }
+            quiz = json(call(service, "POST", "/quizzes/" + id + "/guess?country=" + answer), 200);
+            guesses++;
+            assertEquals("correct", quiz.get("result").getAsString());
+            assertEquals(answer, quiz.getAsJsonObject("answer").get("id").getAsInt());
+        }
+        assertTrue(quiz.get("finished").getAsBoolean());
+        assertEquals(HostedQuiz.QUESTIONS, quiz.get("correct").getAsInt());
+        assertEquals(guesses, quiz.get("guesses").getAsInt());
+        assertFalse(quiz.has("choices"));
+        assertEquals(409, call(service, "GET", "/quizzes/" + id + "/flag").getStatus());
+
+        assertEquals(200, call(service, "DELETE", "/quizzes/" + id).getStatus());
+        assertEquals(404, call(service, "GET", "/quizzes/" + id).getStatus());
+        assertEquals(0, service.getQuizCount());
+    }
+
+    @Test
+    public void challenge_replaysTheSameQuiz() {
+        QuizService service = new QuizService(catalog(), 10);
+        JsonObject first = json(call(service, "POST", "/quizzes?region=Asia&choices=5&difficulty=hard"), 201);
+        String code = first.get("challenge").getAsString();
+        JsonObject second = json(call(service, "POST", "/quizzes?challenge=" + code), 201);
+        assertNotEquals(first.get("quiz"), second.get("quiz"));
+        assertEquals(code, second.get("challenge").getAsString());
+        assertEquals(first.get("choices"), second.get("choices"));
+    }
+
+    @Test
+    public void invalidRequests_areRefused() {
+        QuizService service = new QuizService(catalog(), 1);
+        assertEquals(404, call(service, "GET", "/nothing").getStatus());
+        assertEquals(404, call(service, "GET", "/quizzes/unknown").getStatus());
+        assertEquals(405, call(service, "GET", "/quizzes").getStatus());
+        assertEquals(405, call(service, "DELETE", "/catalog").getStatus());
+        for (String target : new String[]{"/quizzes?region=Atlantis", "/quizzes?choices=13",
+                "/quizzes?choices=two", "/quizzes?difficulty=extreme", "/quizzes?challenge=nope"}) {
+            try {
+                call(service, "POST", target);
+                fail(target);
+            } catch (IllegalArgumentException expected) {
+                // Answered with 400 by the connection
+            }
+        }
+
+        String id = json(call(service, "POST", "/quizzes"), 201).get("quiz").getAsString();
+        assertEquals(503, call(service, "POST", "/quizzes").getStatus());
+        assertEquals(405, call(service, "POST", "/quizzes/" + id + "/flag").getStatus());
+        try {
+            call(service, "POST", "/quizzes/" + id + "/guess?choice=4");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // Only 4 choices
+        }
+        assertEquals(0, service.expireIdle(1, TimeUnit.MINUTES));
+        assertEquals(1, service.expireIdle(-1, TimeUnit.MINUTES));
+        assertEquals(201, call(service, "POST", "/quizzes").getStatus());
+    }
+
+    @Test
+    public void catalog_isValidJson() {
+        Catalog catalog = catalog();
+        JsonObject json = json(new QuizService(catalog, 1).handle(HttpRequest.parse("GET", "/catalog")), 200);
+        JsonArray countries = json.getAsJsonArray("countries");
+        assertEquals(catalog.getCountries().size(), countries.size());
+        JsonObject last = countries.get(countries.size() - 1).getAsJsonObject();
+        assertEquals(catalog.getCountries().size() - 1, last.get("id").getAsInt());
+        assertEquals("South America \"11\"", last.get("name").getAsString());
+        assertEquals("South America", last.get("region").getAsString());
+    }
+}
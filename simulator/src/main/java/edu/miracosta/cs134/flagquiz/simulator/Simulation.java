@@ -0,0 +1,321 @@
+package edu.miracosta.cs134.flagquiz.simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+import edu.miracosta.cs134.flagquiz.quiz.ChallengeCode;
+import edu.miracosta.cs134.flagquiz.quiz.Difficulty;
+import edu.miracosta.cs134.flagquiz.quiz.DistractorSampler;
+import edu.miracosta.cs134.flagquiz.quiz.FastRandom;
+import edu.miracosta.cs134.flagquiz.quiz.FlagSimilarity;
+import edu.miracosta.cs134.flagquiz.quiz.QuestionChoices;
+import edu.miracosta.cs134.flagquiz.quiz.QuizGenerator;
+import edu.miracosta.cs134.flagquiz.quiz.QuizSession;
+
+/**
+ * Plays many quizzes headlessly with the same {@link QuizSession} the app uses, checking after
+ * every step that the quiz follows its rules:
+ * <ul>
+ *     <li>no country is asked twice in a quiz, and every one is from the quiz's region;</li>
+ *     <li>every question has the configured number of choices, with no country twice;</li>
+ *     <li>the correct answer is among the choices exactly once;</li>
+ *     <li>distractors come from the quiz's region when it has enough countries;</li>
+ *     <li>every quiz ends, with one correct guess per question and no more guesses than
+ *     choices on any question.</li>
+ * </ul>
+ * Sessions are split into fork-join tasks, each with its own generator, sampler, session and
+ * player, so threads share nothing but the immutable catalog and look-alike data.  Session
+ * <code>i</code> always plays the same quiz for a given seed, whatever the number of threads,
+ * and cycles through every region of the settings, every choice count and every difficulty.
+ */
+public class Simulation {
+
+    /** Questions per quiz, as in the app. */
+    public static final int QUESTIONS = 10;
+    /** The most answer choices the app offers. */
+    public static final int MAX_CHOICES = 12;
+    private static final int MIN_CHOICES = 2;
+
+    /** Every value of the regions setting (<code>regions_list</code> in the app's resources). */
+    public static final List<String> REGIONS;
+
+    static {
+        List<String> regions = new ArrayList<>();
+        regions.add(QuizGenerator.ALL_REGIONS);
+        for (Region region : Region.values()) {
+            regions.add(region.getDirectory());
+        }
+        REGIONS = Collections.unmodifiableList(regions);
+    }
+
+    // Sessions played by one task without splitting further, enough to amortize its setup
+    private static final int SESSIONS_PER_TASK = 4096;
+    private static final int ACCURACY_SCALE = 1 << 24;
+
+    private final List<Country> mCountries;
+    private FlagSimilarity mSimilarity;
+    private int mAccuracy = (int) (0.7 * ACCURACY_SCALE);
+    private int mChoices;
+    private long mSeed;
+
+    /**
+     * @param countries The catalog to quiz on.
+     */
+    public Simulation(List<Country> countries) {
+        mCountries = countries;
+    }
+
+    /**
+     * @param similarity Look-alike data for the harder difficulties, or null to play every
+     * difficulty with random distractors.
+     */
+    public void setSimilarity(FlagSimilarity similarity) {
+        mSimilarity = similarity;
+    }
+
+    /**
+     * @param accuracy Probability that the simulated player picks the correct answer on each
+     * guess, from 0 to 1.  Wrong guesses pick one of the remaining wrong answers at random.
+     */
+    public void setAccuracy(double accuracy) {
+        if (!(accuracy >= 0 && accuracy <= 1)) {
+            throw new IllegalArgumentException("Accuracy must be between 0 and 1: " + accuracy);
+        }
+        mAccuracy = (int) Math.round(accuracy * ACCURACY_SCALE);
+    }
+
+    /**
+     * @param choices Answer choices per question for every quiz, or 0 to cycle through all of
+     * them.
+     */
+    public void setChoices(int choices) {
+        if (choices != 0 && (choices < MIN_CHOICES || choices > MAX_CHOICES)) {
+            throw new IllegalArgumentException("Choices must be between " + MIN_CHOICES + " and "
+                    + MAX_CHOICES + ": " + choices);
+        }
+        mChoices = choices;
+    }
+
+    /**
+     * @param seed Seed the sessions' quizzes are derived from.
+     */
+    public void setSeed(long seed) {
+        mSeed = seed;
+    }
+
+    /**
+     * Plays sessions <code>0</code> to <code>sessions - 1</code>.
+     * @param sessions The number of quizzes to play.
+     * @param pool The threads to play them on.
+     * @return The totals, including any rule broken.
+     */
+    public SimulationResult run(long sessions, ForkJoinPool pool) {
+        return pool.invoke(new Task(0, sessions));
+    }
+
+    private class Task extends RecursiveTask<SimulationResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final long mFrom;
+        private final long mTo;
+
+        Task(long from, long to) {
+            mFrom = from;
+            mTo = to;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (mTo - mFrom <= SESSIONS_PER_TASK) {
+                return new Player().play(mFrom, mTo);
+            }
+            long middle = (mFrom + mTo) >>> 1;
+            Task right = new Task(middle, mTo);
+            right.fork();
+            SimulationResult left = new Task(mFrom, middle).compute();
+            return left.merge(right.join());
+        }
+    }
+
+    /**
+     * Plays and checks a range of sessions on one thread.
+     */
+    private class Player {
+        private final QuizGenerator mGenerator = new QuizGenerator(mCountries);
+        private final QuizSession mSession;
+        private final FastRandom mRng = new FastRandom(0);
+        private final SimulationResult mResult = new SimulationResult();
+
+        // Marks, stamped with a counter so they never need clearing
+        private final int[] mAsked = new int[mCountries.size()];
+        private final int[] mShown = new int[mCountries.size()];
+        private int mSessionStamp;
+        private int mQuestionStamp;
+
+        Player() {
+            DistractorSampler sampler = new DistractorSampler(mGenerator);
+            if (mSimilarity != null) {
+                sampler.setSimilarity(mSimilarity);
+            }
+            mSession = new QuizSession(mGenerator, sampler, new FastRandom(0), MAX_CHOICES);
+        }
+
+        SimulationResult play(long from, long to) {
+            for (long i = from; i < to; i++) {
+                String region = REGIONS.get((int) (i % REGIONS.size()));
+                long round = i / REGIONS.size();
+                int choices = mChoices != 0 ? mChoices
+                        : MIN_CHOICES + (int) (round % (MAX_CHOICES - MIN_CHOICES + 1));
+                Difficulty difficulty = Difficulty.values()[
+                        (int) (round / (MAX_CHOICES - MIN_CHOICES + 1) % Difficulty.values().length)];
+                mRng.setSeed(mSeed + i);
+                playSession(i, region, choices, difficulty, mRng.nextLong() & ChallengeCode.SEED_MASK);
+            }
+            return mResult;
+        }
+
+        private void playSession(long index, String region, int choices, Difficulty difficulty,
+                                 long seed) {
+            QuizSession session = mSession;
+            session.setSettings(region, choices, difficulty);
+            session.start(QUESTIONS, seed);
+            mResult.addSession();
+            mSessionStamp++;
+
+            int poolSize = mGenerator.getPoolSize(region);
+            Region wanted = Region.find(region);
+            // Distractors only leave the region when it is too small to fill a question
+            boolean choicesInRegion = wanted != null && poolSize >= choices;
+            int expectedChoices = Math.min(choices, mCountries.size());
+            int questions = Math.min(QUESTIONS, poolSize);
+            if (session.getQuestionCount() != questions) {
+                fail(index, session, "has " + session.getQuestionCount() + " questions, expected "
+                        + questions);
+                return;
+            }
+
+            for (int question = 1; question <= questions; question++) {
+                if (question > 1) {
+                    if (!session.hasNextQuestion()) {
+                        fail(index, session, "ended after " + (question - 1) + " questions");
+                        return;
+                    }
+                    session.nextQuestion();
+                }
+                Country correct = session.getCorrectCountry();
+                if (mAsked[correct.getId()] == mSessionStamp) {
+                    fail(index, session, "asks " + correct.getName() + " twice");
+                }
+                mAsked[correct.getId()] = mSessionStamp;
+                if (wanted != null && correct.getRegion() != wanted) {
+                    fail(index, session, "asks " + correct.getName() + " outside " + region);
+                }
+
+                int correctChoice = checkChoices(index, session, correct, wanted, choicesInRegion,
+                        expectedChoices);
+                if (correctChoice < 0) {
+                    return;
+                }
+                int guesses = answer(session, correctChoice);
+                if (guesses < 0) {
+                    fail(index, session, "question " + question + " is still open after "
+                            + session.getChoiceCount() + " guesses");
+                    return;
+                }
+                mResult.addQuestion(guesses);
+            }
+
+            if (!session.isFinished()) {
+                fail(index, session, "is not finished after its last question");
+            } else if (session.getCorrectGuesses() != questions) {
+                fail(index, session, "counted " + session.getCorrectGuesses()
+                        + " correct guesses for " + questions + " questions");
+            }
+        }
+
+        /**
+         * @return The index of the correct choice, or -1 if the choices are broken.
+         */
+        private int checkChoices(long index, QuizSession session, Country correct, Region wanted,
+                                 boolean choicesInRegion, int expectedChoices) {
+            QuestionChoices choices = session.getChoices();
+            int count = choices.getCount();
+            if (count != expectedChoices) {
+                fail(index, session, "shows " + count + " choices for " + correct.getName()
+                        + ", expected " + expectedChoices);
+            }
+            mQuestionStamp++;
+            int correctChoice = -1;
+            for (int c = 0; c < count; c++) {
+                int id = choices.getId(c);
+                if (mShown[id] == mQuestionStamp) {
+                    fail(index, session, "shows " + mCountries.get(id).getName()
+                            + " twice for " + correct.getName());
+                }
+                mShown[id] = mQuestionStamp;
+                if (id == correct.getId()) {
+                    correctChoice = c;
+                }
+                if (choicesInRegion && mCountries.get(id).getRegion() != wanted) {
+                    fail(index, session, "offers " + mCountries.get(id).getName() + " outside "
+                            + wanted.getDirectory());
+                }
+            }
+            if (correctChoice < 0) {
+                fail(index, session, "does not offer " + correct.getName());
+            }
+            return correctChoice;
+        }
+
+        /**
+         * Guesses until the question is answered.
+         * @return The number of guesses made, or -1 if the question could not be answered.
+         */
+        private int answer(QuizSession session, int correctChoice) {
+            int count = session.getChoiceCount();
+            for (int guesses = 1; guesses <= count; guesses++) {
+                int choice = correctChoice;
+                if (mRng.nextInt(ACCURACY_SCALE) >= mAccuracy) {
+                    choice = pickWrong(session, correctChoice);
+                }
+                session.guess(choice, 0);
+                if (session.isAnswered()) {
+                    return guesses;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return A random wrong choice not guessed yet, or the correct one if none are left.
+         */
+        private int pickWrong(QuizSession session, int correctChoice) {
+            int count = session.getChoiceCount();
+            int left = 0;
+            for (int c = 0; c < count; c++) {
+                if (c != correctChoice && session.isChoiceEnabled(c)) {
+                    left++;
+                }
+            }
+            if (left == 0) {
+                return correctChoice;
+            }
+            int skip = mRng.nextInt(left);
+            for (int c = 0; ; c++) {
+                if (c != correctChoice && session.isChoiceEnabled(c) && skip-- == 0) {
+                    return c;
+                }
+            }
+        }
+
+        private void fail(long index, QuizSession session, String problem) {
+            mResult.addViolation("Session " + index + " (challenge " + session.getChallengeCode()
+                    + ") " + problem);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package edu.miracosta.cs134.flagquiz.simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Totals of a batch of simulated quizzes.  Each fork-join task fills in its own result and the
+ * results are merged on the way back up, so nothing is shared between threads while playing.
+ */
+public class SimulationResult {
+
+    /** At most this many violations are kept with their description. */
+    static final int MAX_EXAMPLES = 20;
+
+    private long mSessions;
+    private long mQuestions;
+    private long mGuesses;
+    private long mFirstTryCorrect;
+    private long mViolations;
+    private final List<String> mExamples = new ArrayList<>();
+
+    void addSession() {
+        mSessions++;
+    }
+
+    void addQuestion(int guesses) {
+        mQuestions++;
+        mGuesses += guesses;
+        if (guesses == 1) {
+            mFirstTryCorrect++;
+        }
+    }
+
+    void addViolation(String description) {
+        mViolations++;
+        if (mExamples.size() < MAX_EXAMPLES) {
+            mExamples.add(description);
+        }
+    }
+
+    /**
+     * Adds another batch's totals to this one.
+     * @param other The other batch.
+     * @return This result.
+     */
+    SimulationResult merge(SimulationResult other) {
+        mSessions += other.mSessions;
+        mQuestions += other.mQuestions;
+        mGuesses += other.mGuesses;
+        mFirstTryCorrect += other.mFirstTryCorrect;
+        mViolations += other.mViolations;
+        for (String example : other.mExamples) {
+            if (mExamples.size() == MAX_EXAMPLES) {
+                break;
+            }
+            mExamples.add(example);
+        }
+        return this;
+    }
+
+    public long getSessions() {
+        return mSessions;
+    }
+
+    public long getQuestions() {
+        return mQuestions;
+    }
+
+    public long getGuesses() {
+        return mGuesses;
+    }
+
+    public long getFirstTryCorrect() {
+        return mFirstTryCorrect;
+    }
+
+    /**
+     * @return The number of broken rules found, 0 if every quiz was valid.
+     */
+    public long getViolations() {
+        return mViolations;
+    }
+
+    /**
+     * @return Descriptions of the first violations found, with a challenge code to replay each.
+     */
+    public List<String> getExamples() {
+        return Collections.unmodifiableList(mExamples);
+    }
+}
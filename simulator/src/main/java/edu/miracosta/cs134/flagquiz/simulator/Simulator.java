@@ -0,0 +1,122 @@
+package edu.miracosta.cs134.flagquiz.simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+import edu.miracosta.cs134.flagquiz.catalog.CatalogReader;
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.quiz.FlagSimilarity;
+
+/**
+ * Command line entry point of the simulator, see {@link Simulation}.  Prints the throughput in
+ * sessions per second, so a slower question generator shows up as a drop in that number, and
+ * exits with status 1 if any quiz broke its rules.
+ */
+public final class Simulator {
+
+    private static final String USAGE = "Usage: simulator [--sessions N] [--warmup N] [--accuracy P]"
+            + " [--choices N] [--threads N] [--seed N] [--catalog FILE] [--similarity FILE]";
+
+    private Simulator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        long sessions = 1000000;
+        long warmup = -1;
+        double accuracy = 0.7;
+        int choices = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        File catalog = new File("../app/src/main/assets/Countries.json");
+        File similarity = null;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--sessions":
+                        sessions = Long.parseLong(value);
+                        break;
+                    case "--warmup":
+                        warmup = Long.parseLong(value);
+                        break;
+                    case "--accuracy":
+                        accuracy = Double.parseDouble(value);
+                        break;
+                    case "--choices":
+                        choices = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--catalog":
+                        catalog = new File(value);
+                        break;
+                    case "--similarity":
+                        similarity = new File(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        List<Country> countries = CatalogReader.read(catalog);
+        Simulation simulation = new Simulation(countries);
+        simulation.setAccuracy(accuracy);
+        simulation.setChoices(choices);
+        if (similarity != null) {
+            simulation.setSimilarity(FlagSimilarity.read(ByteBuffer.wrap(Files.readAllBytes(similarity.toPath()))));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // Let the JIT compile the quiz code before anything is timed
+            simulation.setSeed(~seed);
+            simulation.run(warmup >= 0 ? warmup : Math.min(sessions / 10, 200000), pool);
+
+            simulation.setSeed(seed);
+            long start = System.nanoTime();
+            SimulationResult result = simulation.run(sessions, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            report(result, countries.size(), threads, seed, accuracy, seconds);
+            if (result.getViolations() > 0) {
+                System.exit(1);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void report(SimulationResult result, int countries, int threads, long seed,
+                               double accuracy, double seconds) {
+        System.out.printf(Locale.US, "Catalog: %d countries, %d regions, seed %d, player accuracy %.2f%n",
+                countries, Simulation.REGIONS.size(), seed, accuracy);
+        System.out.printf(Locale.US, "Played %d sessions (%d questions, %d guesses) on %d threads in %.3f s%n",
+                result.getSessions(), result.getQuestions(), result.getGuesses(), threads, seconds);
+        System.out.printf(Locale.US, "Right first time: %.2f%%%n",
+                100.0 * result.getFirstTryCorrect() / Math.max(1, result.getQuestions()));
+        System.out.printf(Locale.US, "Throughput: %.0f sessions/s, %.0f questions/s%n",
+                result.getSessions() / seconds, result.getQuestions() / seconds);
+        System.out.printf(Locale.US, "Invariant violations: %d%n", result.getViolations());
+        for (String example : result.getExamples()) {
+            System.out.println("  " + example);
+        }
+    }
+}
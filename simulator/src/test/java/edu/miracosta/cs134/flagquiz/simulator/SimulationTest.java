@@ -0,0 +1,82 @@
+package edu.miracosta.cs134.flagquiz.simulator;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import edu.miracosta.cs134.flagquiz.model.Country;
+import edu.miracosta.cs134.flagquiz.model.Region;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link Simulation}.
+ */
+public class SimulationTest {
+
+    private static List<Country> catalog() {
+        // Uneven regions, Oceania too small to fill a question from its own countries
+        int[] sizes = {50, 45, 44, 20, 3, 12};
+        List<Country> countries = new ArrayList<>();
+        for (Region region : Region.values()) {
+            for (int i = 0; i < sizes[region.ordinal()]; i++) {
+                countries.add(new Country(countries.size(), region.getName() + " " + i, region));
+            }
+        }
+        return countries;
+    }
+
+    @Test
+    public void run_findsNoViolations() {
+        Simulation simulation = new Simulation(catalog());
+        simulation.setSeed(42);
+        simulation.setAccuracy(0.5);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SimulationResult result = simulation.run(20000, pool);
+            assertEquals(result.getExamples().toString(), 0, result.getViolations());
+            assertEquals(20000, result.getSessions());
+            assertTrue(result.getQuestions() > 9 * result.getSessions());
+            assertTrue(result.getGuesses() > result.getQuestions());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void run_isTheSameOnAnyNumberOfThreads() {
+        Simulation simulation = new Simulation(catalog());
+        simulation.setSeed(7);
+        simulation.setAccuracy(0.3);
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            SimulationResult serial = simulation.run(10000, one);
+            SimulationResult parallel = simulation.run(10000, four);
+            assertEquals(serial.getQuestions(), parallel.getQuestions());
+            assertEquals(serial.getGuesses(), parallel.getGuesses());
+            assertEquals(serial.getFirstTryCorrect(), parallel.getFirstTryCorrect());
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    public void perfectPlayer_getsEveryQuestionFirstTime() {
+        Simulation simulation = new Simulation(catalog());
+        simulation.setAccuracy(1);
+        simulation.setChoices(8);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            SimulationResult result = simulation.run(700, pool);
+            assertEquals(0, result.getViolations());
+            assertEquals(result.getQuestions(), result.getGuesses());
+            assertEquals(result.getQuestions(), result.getFirstTryCorrect());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}